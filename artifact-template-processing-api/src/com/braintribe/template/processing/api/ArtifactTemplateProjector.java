@@ -15,7 +15,15 @@
 // ============================================================================
 package com.braintribe.template.processing.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
 
@@ -27,5 +35,61 @@ import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
 public interface ArtifactTemplateProjector {
 
 	public void project(ArtifactTemplateRequest request, Path templateDir, Path installationDir);
-	
+
+	/**
+	 * Same as {@link #project(ArtifactTemplateRequest, Path, Path)}, but reports the individual projection phases to given {@link PhaseRecorder}.
+	 */
+	default void project(ArtifactTemplateRequest request, Path templateDir, Path installationDir, PhaseRecorder phaseRecorder) {
+		project(request, templateDir, installationDir);
+	}
+
+	/**
+	 * Same as {@link #project(ArtifactTemplateRequest, Path, Path, PhaseRecorder)}, but projects into given {@link ProjectionOutput}, which does not
+	 * have to be a directory.
+	 * <p>
+	 * By default the template is projected into a temporary directory, whose content is then copied into given output. Implementations should
+	 * override this to write into the output directly.
+	 */
+	default void project(ArtifactTemplateRequest request, Path templateDir, ProjectionOutput output, PhaseRecorder phaseRecorder) {
+		try {
+			Path tempDir = Files.createTempDirectory("template-projection-");
+			try {
+				project(request, templateDir, tempDir, phaseRecorder);
+				copyInto(tempDir, output);
+			} finally {
+				deleteRecursively(tempDir);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to project into: " + output, e);
+		}
+	}
+
+	private static void copyInto(Path dir, ProjectionOutput output) throws IOException {
+		List<Path> paths;
+		try (Stream<Path> stream = Files.walk(dir)) {
+			paths = stream.filter(path -> !path.equals(dir)).sorted().collect(Collectors.toList());
+		}
+
+		for (Path path : paths) {
+			String relativePath = dir.relativize(path).toString().replace('\\', '/');
+			if (Files.isDirectory(path))
+				output.createDir(relativePath);
+			else
+				try (InputStream in = Files.newInputStream(path)) {
+					output.writeFile(relativePath, in);
+				}
+		}
+	}
+
+	private static void deleteRecursively(Path dir) throws IOException {
+		List<Path> paths;
+		try (Stream<Path> stream = Files.walk(dir)) {
+			paths = stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+		}
+
+		for (Path path : paths)
+			Files.deleteIfExists(path);
+	}
+
+
 }
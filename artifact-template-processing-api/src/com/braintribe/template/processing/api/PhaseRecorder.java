@@ -0,0 +1,42 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.api;
+
+/**
+ * 
+ * Records the wall time of the individual phases of a template projection, e.g. copying static files or rendering.
+ * <p>
+ * Usage: {@code try (Phase p = recorder.begin("rendering")) { ... } }
+ * 
+ */
+public interface PhaseRecorder {
+
+	PhaseRecorder NOOP = name -> Phase.NOOP;
+
+	/** Starts measuring given phase, the measurement ends when the returned {@link Phase} is closed. */
+	Phase begin(String phaseName);
+
+	interface Phase extends AutoCloseable {
+
+		Phase NOOP = () -> {
+			/* noop */
+		};
+
+		@Override
+		void close();
+	}
+
+}
@@ -0,0 +1,54 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.api;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The target of a template projection, e.g. a directory or an in-memory file tree. All paths are relative to the root of the output and use '/' as
+ * separator.
+ */
+public interface ProjectionOutput {
+
+	/** Returns a view of this output whose root is given sub-directory. */
+	ProjectionOutput resolve(String relativePath);
+
+	void createDir(String relativePath);
+
+	/** Opens given file for writing, creating the parent directories if needed and replacing the file if it exists. */
+	OutputStream openFile(String relativePath);
+
+	/** Writes given file, creating the parent directories if needed and replacing the file if it exists. */
+	void writeFile(String relativePath, InputStream content);
+
+	boolean exists(String relativePath);
+
+	/** Deletes given file, if it exists. */
+	void deleteFile(String relativePath);
+
+	/** Moves given file to the target location, replacing the target if it exists. Moving a file onto itself does nothing. */
+	void moveFile(String sourcePath, String targetPath);
+
+	/**
+	 * Notifies the output that a file with given number of bytes rendered so far is being rendered, i.e. will be written later. This lets an output
+	 * enforce its limits while a (possibly runaway) template is still rendering. Does nothing by default.
+	 */
+	default void onRendering(long renderedBytes) {
+		// noop
+	}
+
+}
@@ -0,0 +1,33 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.api.console;
+
+/**
+ * Receives the console output of the projections of a request, instead of it being printed to the console, e.g. so that the output of several
+ * requests evaluated concurrently can be printed one request after another.
+ * <p>
+ * The output is given as renderings, i.e. actions which print to the console (i.e. via {@code ConsoleOutputs}) when run. They do not
+ * depend on any state of the projection (e.g. on its staged files), so they may be run any time later, on any thread. A sink is passed to a
+ * request with the {@link ProjectionConsoleSinkAspect}.
+ * <p>
+ * Submitting may happen from multiple threads, so implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface ProjectionConsoleSink {
+
+	void submit(Runnable rendering);
+
+}
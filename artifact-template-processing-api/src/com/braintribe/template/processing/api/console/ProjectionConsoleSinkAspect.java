@@ -0,0 +1,26 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.api.console;
+
+import com.braintribe.model.generic.eval.EvalContextAspect;
+
+/**
+ * Passes a {@link ProjectionConsoleSink} to the evaluation of an artifact template request, which then submits its console output to that sink,
+ * rather than printing it.
+ */
+public interface ProjectionConsoleSinkAspect extends EvalContextAspect<ProjectionConsoleSink> {
+	// marker
+}
@@ -0,0 +1,32 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.api.engine;
+
+import java.nio.file.Path;
+
+/**
+ * Renders the dynamic files of artifact templates (i.e. the files in their "content/dynamic" folder). The projector selects the engine of each file
+ * by the file's extension, which is removed from the projected file's name - e.g. FreeMarker for "pom.xml.ftl".
+ */
+public interface TemplateEngine {
+
+	/**
+	 * Returns the renderer for the files of given dynamic folder. The renderer is used for all the files of a single projection of the template, so
+	 * it may keep state (e.g. compiled templates) for that projection.
+	 */
+	TemplateRenderer renderer(Path dynamicDir);
+
+}
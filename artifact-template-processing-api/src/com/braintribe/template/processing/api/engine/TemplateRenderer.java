@@ -0,0 +1,37 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.api.engine;
+
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Renders the files of one dynamic folder, see {@link TemplateEngine#renderer(java.nio.file.Path)}.
+ */
+@FunctionalInterface
+public interface TemplateRenderer {
+
+	/**
+	 * Renders given template with given data model.
+	 * 
+	 * @param templateName
+	 *            the path of the template relative to the dynamic folder, with '/' as separator
+	 * @param dataModel
+	 *            the variables available to the template, e.g. "request" and "support"
+	 */
+	void render(String templateName, Map<String, Object> dataModel, Writer writer) throws Exception;
+
+}
@@ -0,0 +1,97 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.api.listener;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
+
+/**
+ * Observes what the processor and the projector do while projecting a request, e.g. to collect metrics or to show progress. All the methods do
+ * nothing by default, so a listener only implements the ones it is interested in.
+ * <p>
+ * The methods may be called by multiple threads concurrently (requests are processed concurrently, and templates are resolved and extracted ahead
+ * by the projection pipeline), so implementations must be thread-safe. They are called synchronously and should thus return quickly.
+ * <p>
+ * Templates are identified by their resolved artifact, e.g. {@code com.braintribe.devrock.templates:library-artifact-template#2.0.12}. Paths of
+ * projected files are relative to the installation directory of the request and use '/' as separator. Durations are in nanoseconds.
+ */
+public interface ProjectionListener {
+
+	ProjectionListener NOOP = new ProjectionListener() {
+		/* noop */
+	};
+
+	/**
+	 * The template of given request was resolved to given artifact.
+	 * 
+	 * @param templateIdentification
+	 *            the template as requested, e.g. with a version range
+	 * @param sourceDir
+	 *            the folder the template is taken from if it is a template source folder, null otherwise
+	 */
+	default void onTemplateResolved(ArtifactTemplateRequest request, String templateIdentification, String template, Path sourceDir,
+			long durationNanos) {
+		// noop
+	}
+
+	/** The archive of given template was extracted into given folder (which may be a temp folder or a persistent cache folder). */
+	default void onTemplateExtracted(String template, Path templateDir, long durationNanos) {
+		// noop
+	}
+
+	/** The dependencies.groovy of given template was evaluated for given request and returned given template dependencies. */
+	default void onDependenciesEvaluated(ArtifactTemplateRequest request, String template, List<ArtifactTemplateRequest> dependencies,
+			long durationNanos) {
+		// noop
+	}
+
+	/**
+	 * A FreeMarker template was rendered for given request.
+	 * 
+	 * @param templateFile
+	 *            the path of the rendered file within the template's projected folder
+	 * @param projectedFile
+	 *            the path the rendered file is projected to (if relocated, the target of the relocation)
+	 */
+	default void onFileRendered(ArtifactTemplateRequest request, String templateFile, String projectedFile, long bytes, long durationNanos) {
+		// noop
+	}
+
+	/** Given file was not projected for given request, as its template (or the static template) ignored it. */
+	default void onFileIgnored(ArtifactTemplateRequest request, String file) {
+		// noop
+	}
+
+	/** Given file was projected to a different path for given request, as its template (or the static template) relocated it. */
+	default void onFileRelocated(ArtifactTemplateRequest request, String file, String targetFile) {
+		// noop
+	}
+
+	/**
+	 * The projection of given request (including its template dependencies) was installed into given installation directory.
+	 * 
+	 * @param files
+	 *            the number of files projected
+	 * @param bytes
+	 *            the number of bytes projected
+	 */
+	default void onInstallCommitted(ArtifactTemplateRequest request, Path installationDir, int files, long bytes, long durationNanos) {
+		// noop
+	}
+
+}
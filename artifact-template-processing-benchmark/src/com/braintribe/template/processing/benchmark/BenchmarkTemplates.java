@@ -0,0 +1,118 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.benchmark;
+
+import static com.braintribe.template.processing.helper.FileHelper.createTempDir;
+import static com.braintribe.template.processing.helper.FileHelper.ensureDirExists;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
+import com.braintribe.devrock.templates.model.artifact.CreateBuildSystemConfig;
+import com.braintribe.devrock.templates.model.artifact.CreateServiceTest;
+import com.braintribe.template.processing.projection.ArtifactTemplateFreeMarkerProjector;
+import com.braintribe.template.processing.projection.ArtifactTemplateRequestFreeMarkerProjector;
+
+import freemarker.template.Configuration;
+import freemarker.template.Version;
+
+/**
+ * Shared setup of the benchmarks - locating the templates of this repository and creating the requests and projectors to benchmark.
+ */
+public final class BenchmarkTemplates {
+
+	/** System property with the folder containing the templates, i.e. the root of this repository. */
+	public static final String TEMPLATES_ROOT_PROPERTY = "devrock.templates.root";
+
+	public static final String BUILD_SYSTEM_TEMPLATE = "com.braintribe.devrock.templates:build-system-template#2.0";
+	public static final String DDSA_TEST_TEMPLATE = "com.braintribe.devrock.templates:ddsa-test-template#2.0";
+
+	public static final Version FREEMARKER_VERSION = Configuration.VERSION_2_3_28;
+
+	private BenchmarkTemplates() {
+		// noop
+	}
+
+	public static Path templatesRoot() {
+		String configured = System.getProperty(TEMPLATES_ROOT_PROPERTY);
+		if (configured != null)
+			return Paths.get(configured).toAbsolutePath().normalize();
+
+		// When run from the benchmark artifact folder, the templates are its siblings
+		Path cwd = Paths.get("").toAbsolutePath();
+		if (Files.isDirectory(cwd.resolve("build-system-template")))
+			return cwd;
+		else
+			return cwd.getParent();
+	}
+
+	/** Returns a repository in a new temp folder, which the caller has to delete, see {@link LocalTemplateRepository#repositoryRoot()}. */
+	public static LocalTemplateRepository localRepository() {
+		Path repositoryRoot = newTempDir("benchmark-repository");
+		return new LocalTemplateRepository(templatesRoot(), repositoryRoot);
+	}
+
+	public static Path newTempDir(String prefix) {
+		Path result = createTempDir(prefix + "-" + UUID.randomUUID()).toPath();
+		ensureDirExists(result);
+		return result;
+	}
+
+	// NOTE the benchmarked templates do not use support.config(...), so no modeled configuration is needed
+
+	public static ArtifactTemplateRequestFreeMarkerProjector requestProjector() {
+		return new ArtifactTemplateRequestFreeMarkerProjector(FREEMARKER_VERSION, null);
+	}
+
+	public static ArtifactTemplateFreeMarkerProjector templateProjector() {
+		return new ArtifactTemplateFreeMarkerProjector(FREEMARKER_VERSION, null);
+	}
+
+	/** Creates a not yet projected request for given template, with the installation path pointing to given (existing) folder. */
+	public static ArtifactTemplateRequest newRequest(String templateIdentification, Path installationPath) {
+		switch (templateIdentification) {
+			case BUILD_SYSTEM_TEMPLATE:
+				return newBuildSystemConfig(installationPath);
+			case DDSA_TEST_TEMPLATE:
+				return newServiceTest(installationPath);
+			default:
+				throw new IllegalArgumentException("No benchmark request for template: " + templateIdentification);
+		}
+	}
+
+	public static CreateBuildSystemConfig newBuildSystemConfig(Path installationPath) {
+		CreateBuildSystemConfig result = CreateBuildSystemConfig.T.create();
+		result.setInstallationPath(installationPath.toString());
+		result.setGroupId("com.braintribe.benchmark");
+		result.setArtifactId("benchmark-library");
+		result.setDirectoryName("benchmark-library");
+		result.setArtifactType("library");
+		result.setVersion("1.0");
+		return result;
+	}
+
+	public static CreateServiceTest newServiceTest(Path installationPath) {
+		CreateServiceTest result = CreateServiceTest.T.create();
+		result.setInstallationPath(installationPath.toString());
+		result.setArtifactId("benchmark-processing-test");
+		result.setServiceProcessorSample(true);
+		return result;
+	}
+
+}
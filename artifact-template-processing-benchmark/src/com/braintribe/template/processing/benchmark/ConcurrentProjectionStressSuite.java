@@ -0,0 +1,200 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.benchmark;
+
+import static com.braintribe.template.processing.helper.FileHelper.deleteDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.braintribe.devrock.templates.model.artifact.CreateBuildSystemConfig;
+import com.braintribe.exception.Exceptions;
+
+/**
+ * Concurrency stress test of the template projection: many requests, each for a different artifact, are processed at the same time by the same
+ * (shared) processor, as when it serves concurrent requests. Each installed projection is then checked to contain exactly the files of its own
+ * request, i.e. nothing rendered for another request leaked into it.
+ * <p>
+ * Like the {@link ProjectionStressSuite}, it uses synthetic templates and drives the actual processor offline, see
+ * {@link OfflineTemplateProcessor}.
+ * <p>
+ * Usage: {@code ConcurrentProjectionStressSuite [threads=N] [requests=N] [depth=N]}. Fails with an exception if any projection is not correct.
+ */
+public class ConcurrentProjectionStressSuite {
+
+	private static final String ARTIFACT_ID_PREFIX = "stress-artifact-";
+
+	private final int threads;
+	private final int requests;
+	private final SyntheticTemplateSpec spec;
+
+	private final Path templatesRoot = BenchmarkTemplates.newTempDir("synthetic-templates");
+	private final Path repositoryRoot = BenchmarkTemplates.newTempDir("synthetic-repository");
+	private final LocalTemplateRepository repository = new LocalTemplateRepository(templatesRoot, repositoryRoot);
+	private final OfflineTemplateProcessor processor = new OfflineTemplateProcessor(repositoryRoot);
+
+	private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+	public ConcurrentProjectionStressSuite(int threads, int requests, SyntheticTemplateSpec spec) {
+		this.threads = threads;
+		this.requests = requests;
+		this.spec = spec;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int threads = 8;
+		int requests = 200;
+		int depth = 3;
+
+		for (String arg : args) {
+			String[] keyValue = arg.split("=", 2);
+			if (keyValue.length != 2)
+				throw new IllegalArgumentException("Expected argument in the form key=value, not: " + arg);
+
+			int value = Integer.parseInt(keyValue[1]);
+			switch (keyValue[0]) {
+				case "threads":
+					threads = value;
+					break;
+				case "requests":
+					requests = value;
+					break;
+				case "depth":
+					depth = value;
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown argument: " + keyValue[0]);
+			}
+		}
+
+		SyntheticTemplateSpec spec = new SyntheticTemplateSpec().setDependencyDepth(depth).setStaticFiles(20).setProjectedFiles(50).setRelocations(5);
+
+		ConcurrentProjectionStressSuite suite = new ConcurrentProjectionStressSuite(threads, requests, spec);
+		try {
+			suite.run();
+		} finally {
+			suite.cleanup();
+		}
+	}
+
+	public void run() throws Exception {
+		String templateIdentification = new SyntheticTemplateGenerator(templatesRoot).generate("synthetic-template", spec);
+
+		// packing the archives is not thread-safe, so all the templates of the chain are packed upfront
+		for (int level = 0; level < spec.getDependencyDepth(); level++)
+			repository.archiveZip(SyntheticTemplateGenerator.templateIdentification("synthetic-template", level));
+
+		System.out.println("Projecting " + requests + " requests on " + threads + " threads (" + spec + ")");
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < requests; i++) {
+				int requestIndex = i;
+				futures.add(executor.submit(() -> projectAndVerify(templateIdentification, requestIndex)));
+			}
+
+			for (Future<?> future : futures)
+				future.get();
+
+		} finally {
+			executor.shutdown();
+		}
+
+		double millis = (System.nanoTime() - start) / 1_000_000d;
+		System.out.println(String.format(Locale.ROOT, "Projected %d requests in %.0f ms (%.1f requests/s)", requests, millis, requests / (millis / 1_000)));
+
+		if (!failures.isEmpty())
+			throw new IllegalStateException(failures.size() + " projection(s) are not correct:\n    " + String.join("\n    ", failures));
+
+		System.out.println("No cross-request leakage detected.");
+	}
+
+	private void projectAndVerify(String templateIdentification, int requestIndex) {
+		String artifactId = ARTIFACT_ID_PREFIX + requestIndex;
+		Path installationPath = BenchmarkTemplates.newTempDir("stress-installation");
+
+		CreateBuildSystemConfig request = BenchmarkTemplates.newBuildSystemConfig(installationPath);
+		request.setArtifactId(artifactId);
+		request.setTemplate(templateIdentification);
+
+		try {
+			processor.process(request);
+			verify(artifactId, installationPath);
+
+		} catch (RuntimeException e) {
+			failures.add(artifactId + ": " + e);
+
+		} finally {
+			deleteDir(installationPath);
+		}
+	}
+
+	private void verify(String artifactId, Path installationPath) {
+		List<Path> files = listFiles(installationPath);
+
+		int expectedFiles = spec.getDependencyDepth() * (spec.getStaticFiles() + spec.getProjectedFiles());
+		if (files.size() != expectedFiles)
+			throw new IllegalStateException("Expected " + expectedFiles + " files, but " + files.size() + " were projected.");
+
+		String expectedArtifact = BenchmarkTemplates.newBuildSystemConfig(installationPath).getGroupId() + ":" + artifactId + " ";
+
+		for (Path file : files) {
+			if (!file.getFileName().toString().startsWith("projected-"))
+				continue;
+
+			for (String line : readString(file).split("\n"))
+				if (!line.isEmpty() && !line.startsWith(expectedArtifact))
+					throw new IllegalStateException(
+							"File " + installationPath.relativize(file) + " contains a line rendered for another request: " + line);
+		}
+	}
+
+	private static List<Path> listFiles(Path dir) {
+		try (Stream<Path> paths = Files.walk(dir)) {
+			return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to list the files of: " + dir);
+		}
+	}
+
+	private static String readString(Path file) {
+		try {
+			return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to read: " + file);
+		}
+	}
+
+	public void cleanup() {
+		processor.close();
+		deleteDir(templatesRoot);
+		deleteDir(repositoryRoot);
+	}
+
+}
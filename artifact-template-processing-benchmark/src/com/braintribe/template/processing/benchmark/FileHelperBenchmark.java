@@ -0,0 +1,113 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.benchmark;
+
+import static com.braintribe.template.processing.helper.FileHelper.collectRelativePaths;
+import static com.braintribe.template.processing.helper.FileHelper.copyDir;
+import static com.braintribe.template.processing.helper.FileHelper.deleteDir;
+import static com.braintribe.template.processing.helper.FileHelper.unzipToTempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.braintribe.model.resource.Resource;
+import com.braintribe.template.processing.helper.FileHelper;
+
+/**
+ * Benchmarks the file operations of {@link FileHelper} used by the processor for each template - unzipping, listing and copying.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileHelperBenchmark {
+
+	@Param({ BenchmarkTemplates.BUILD_SYSTEM_TEMPLATE, BenchmarkTemplates.DDSA_TEST_TEMPLATE })
+	public String template;
+
+	private LocalTemplateRepository repository;
+	private Resource archiveZip;
+	private Path templatePath;
+	private Path copyRoot;
+
+	private Path unzippedPath;
+	private Path copyTarget;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		repository = BenchmarkTemplates.localRepository();
+		archiveZip = repository.archiveZipResource(template);
+		templatePath = unzipToTempDir(archiveZip, "benchmark-template-" + UUID.randomUUID());
+		copyRoot = BenchmarkTemplates.newTempDir("benchmark-copy");
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		copyTarget = copyRoot.resolve(UUID.randomUUID().toString());
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDownInvocation() {
+		if (unzippedPath != null) {
+			deleteDir(unzippedPath);
+			unzippedPath = null;
+		}
+		deleteDir(copyTarget);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() {
+		deleteDir(templatePath);
+		deleteDir(copyRoot);
+		deleteDir(repository.repositoryRoot());
+	}
+
+	@Benchmark
+	public Path unzip() {
+		unzippedPath = unzipToTempDir(archiveZip, "benchmark-unzip-" + UUID.randomUUID());
+		return unzippedPath;
+	}
+
+	@Benchmark
+	public List<Path> collectPaths() {
+		return collectRelativePaths(templatePath);
+	}
+
+	@Benchmark
+	public Path copy() {
+		copyDir(templatePath, copyTarget);
+		return copyTarget;
+	}
+
+}
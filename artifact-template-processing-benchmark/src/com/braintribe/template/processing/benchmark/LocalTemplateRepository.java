@@ -0,0 +1,167 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.benchmark;
+
+import static com.braintribe.template.processing.helper.FileHelper.ensureDirExists;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.braintribe.artifact.declared.marshaller.DeclaredArtifactMarshaller;
+import com.braintribe.exception.Exceptions;
+import com.braintribe.model.artifact.declared.DeclaredArtifact;
+import com.braintribe.model.resource.Resource;
+
+/**
+ * Offline stand-in for the template resolution.
+ * <p>
+ * Resolves template identifications like "com.braintribe.devrock.templates:build-system-template#2.0" to template folders of this repository (or any
+ * other folder with the same layout), packs them the same way the build does (i.e. the "content" folder and "dependencies.groovy") and stores the
+ * archive in a maven layout under given repository folder, together with a minimal pom and the maven-metadata.xml. The folder can thus also be
+ * used as a file system repository by the processor, see {@link OfflineTemplateProcessor}.
+ */
+public class LocalTemplateRepository {
+
+	private static final String[] ARCHIVED_ENTRIES = { "content", "dependencies.groovy" };
+
+	private final Path templatesRoot;
+	private final Path repositoryRoot;
+
+	public LocalTemplateRepository(Path templatesRoot, Path repositoryRoot) {
+		this.templatesRoot = templatesRoot;
+		this.repositoryRoot = repositoryRoot;
+	}
+
+	/** The folder with the packed templates, in a maven layout. */
+	public Path repositoryRoot() {
+		return repositoryRoot;
+	}
+
+	/** Returns the folder of the template with given identification, i.e. the folder with the "content" sub-folder. */
+	public Path templateFolder(String templateIdentification) {
+		String artifactId = templateIdentification.split(":|#")[1];
+		Path result = templatesRoot.resolve(artifactId);
+		if (!Files.isDirectory(result))
+			throw new IllegalArgumentException("Template " + templateIdentification + " not found in: " + templatesRoot);
+
+		return result;
+	}
+
+	/** Returns the archive zip of the template, packing it into the local repository if needed. */
+	public Path archiveZip(String templateIdentification) {
+		String[] parts = templateIdentification.split(":|#");
+		String groupId = parts[0];
+		String artifactId = parts[1];
+
+		Path templateFolder = templateFolder(templateIdentification);
+		String version = readVersion(templateFolder.resolve("pom.xml"));
+
+		Path artifactFolder = repositoryRoot.resolve(groupId.replace('.', '/')).resolve(artifactId).resolve(version);
+		Path zip = artifactFolder.resolve(artifactId + "-" + version + "-archive.zip");
+		if (!Files.exists(zip)) {
+			ensureDirExists(artifactFolder);
+			pack(templateFolder, zip);
+			write(artifactFolder.resolve(artifactId + "-" + version + ".pom"), pom(groupId, artifactId, version));
+			write(artifactFolder.getParent().resolve("maven-metadata.xml"), mavenMetadata(groupId, artifactId, version));
+		}
+
+		return zip;
+	}
+
+	private static String pom(String groupId, String artifactId, String version) {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+				+ "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" //
+				+ "    <modelVersion>4.0.0</modelVersion>\n" //
+				+ "    <groupId>" + groupId + "</groupId>\n" //
+				+ "    <artifactId>" + artifactId + "</artifactId>\n" //
+				+ "    <version>" + version + "</version>\n" //
+				+ "    <packaging>pom</packaging>\n" //
+				+ "</project>\n";
+	}
+
+	/** NOTE only the packed version is listed, as each template is packed in a single version only. */
+	private static String mavenMetadata(String groupId, String artifactId, String version) {
+		return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+				+ "<metadata>\n" //
+				+ "    <groupId>" + groupId + "</groupId>\n" //
+				+ "    <artifactId>" + artifactId + "</artifactId>\n" //
+				+ "    <versioning>\n" //
+				+ "        <latest>" + version + "</latest>\n" //
+				+ "        <release>" + version + "</release>\n" //
+				+ "        <versions>\n" //
+				+ "            <version>" + version + "</version>\n" //
+				+ "        </versions>\n" //
+				+ "    </versioning>\n" //
+				+ "</metadata>\n";
+	}
+
+	private static void write(Path file, String content) {
+		try {
+			Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to write: " + file);
+		}
+	}
+
+	public Resource archiveZipResource(String templateIdentification) {
+		Path zip = archiveZip(templateIdentification);
+		return Resource.createTransient(() -> Files.newInputStream(zip));
+	}
+
+	private String readVersion(Path pom) {
+		if (!Files.exists(pom))
+			return "1.0.1";
+
+		try (InputStream is = Files.newInputStream(pom)) {
+			DeclaredArtifact da = new DeclaredArtifactMarshaller().unmarshall(is);
+			return da.getVersion();
+
+		} catch (Exception e) {
+			throw Exceptions.unchecked(e, "Failed to read version from: " + pom);
+		}
+	}
+
+	public static void pack(Path templateFolder, Path zip) {
+		try (OutputStream os = Files.newOutputStream(zip); ZipOutputStream zos = new ZipOutputStream(os)) {
+			for (String entry : ARCHIVED_ENTRIES) {
+				Path path = templateFolder.resolve(entry);
+				if (Files.exists(path))
+					packPath(templateFolder, path, zos);
+			}
+
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to pack template " + templateFolder + " into: " + zip);
+		}
+	}
+
+	private static void packPath(Path base, Path path, ZipOutputStream zos) throws IOException {
+		try (Stream<Path> paths = Files.walk(path)) {
+			for (Path file : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+				zos.putNextEntry(new ZipEntry(base.relativize(file).toString().replace('\\', '/')));
+				Files.copy(file, zos);
+				zos.closeEntry();
+			}
+		}
+	}
+
+}
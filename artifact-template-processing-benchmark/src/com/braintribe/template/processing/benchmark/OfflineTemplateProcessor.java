@@ -0,0 +1,112 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.benchmark;
+
+import static com.braintribe.template.processing.helper.FileHelper.deleteDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
+import com.braintribe.devrock.templates.model.ArtifactTemplateResponse;
+import com.braintribe.devrock.templates.model.ConsoleOutputMode;
+import com.braintribe.exception.Exceptions;
+import com.braintribe.gm.model.reason.Maybe;
+import com.braintribe.model.processing.service.common.ConfigurableDispatchingServiceProcessor;
+import com.braintribe.model.processing.service.common.eval.ConfigurableServiceRequestEvaluator;
+import com.braintribe.template.processing.ArtifactTemplateProcessor;
+import com.braintribe.template.processing.cache.ProjectionCache;
+import com.braintribe.ve.impl.StandardEnvironment;
+
+/**
+ * The {@link ArtifactTemplateProcessor}, configured with the same defaults as by the ArtifactTemplateProcessingSpace (projection cache, pipeline,
+ * guard), but resolving the templates from the file system repository of a {@link LocalTemplateRepository}, so it can be driven offline.
+ * <p>
+ * The requests are evaluated through a service request evaluator, i.e. the same way as when the processor is deployed.
+ */
+public class OfflineTemplateProcessor {
+
+	private static final long PROJECTION_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+
+	private final Path configurationDir = BenchmarkTemplates.newTempDir("offline-repository-configuration");
+	private final ArtifactTemplateProcessor processor = new ArtifactTemplateProcessor();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final ConfigurableServiceRequestEvaluator evaluator = new ConfigurableServiceRequestEvaluator();
+
+	public OfflineTemplateProcessor(Path repositoryRoot) {
+		processor.setVirtualEnvironment(StandardEnvironment.INSTANCE);
+		processor.setRequestProjector(BenchmarkTemplates.requestProjector());
+		processor.setTemplateProjector(BenchmarkTemplates.templateProjector());
+		// NOTE the benchmarked templates do not use support.config(...), so no modeled configuration is needed
+		processor.setModeledConfiguration(null);
+		processor.setUseCaseRepositoryConfigurationLocation(writeRepositoryConfiguration(repositoryRoot).toFile());
+		processor.setProjectionCache(new ProjectionCache(PROJECTION_CACHE_MAX_BYTES));
+
+		ConfigurableDispatchingServiceProcessor dispatcher = new ConfigurableDispatchingServiceProcessor();
+		dispatcher.register(ArtifactTemplateRequest.T, processor);
+
+		evaluator.setServiceProcessor(dispatcher);
+		evaluator.setExecutorService(executor);
+	}
+
+	private Path writeRepositoryConfiguration(Path repositoryRoot) {
+		Path result = configurationDir.resolve("repository-configuration.yaml");
+		String yaml = "!com.braintribe.devrock.model.repository.RepositoryConfiguration {\n" //
+				+ "  cachePath: \"" + yamlPath(configurationDir.resolve("cache")) + "\",\n" //
+				+ "  repositories: [\n" //
+				+ "    !com.braintribe.devrock.model.repository.MavenFileSystemRepository {\n" //
+				+ "      name: \"templates\",\n" //
+				+ "      rootPath: \"" + yamlPath(repositoryRoot) + "\",\n" //
+				+ "      cachable: false,\n" //
+				+ "    },\n" //
+				+ "  ]\n" //
+				+ "}\n";
+
+		try {
+			Files.write(result, yaml.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to write: " + result);
+		}
+		return result;
+	}
+
+	private static String yamlPath(Path path) {
+		return path.toAbsolutePath().toString().replace('\\', '/');
+	}
+
+	/** Processes given request without printing the projected files, failing if the processor returns an unsatisfied result. */
+	public ArtifactTemplateResponse process(ArtifactTemplateRequest request) {
+		if (request.getConsoleOutput() == null)
+			request.setConsoleOutput(ConsoleOutputMode.quiet);
+
+		Maybe<? extends ArtifactTemplateResponse> result = request.eval(evaluator).getReasoned();
+		if (result.isUnsatisfied())
+			throw new IllegalStateException("Failed to process " + request.entityType().getShortName() + ": " + result.whyUnsatisfied().stringify());
+
+		return result.get();
+	}
+
+	public void close() {
+		processor.preDestroy();
+		executor.shutdownNow();
+		deleteDir(configurationDir);
+	}
+
+}
@@ -0,0 +1,41 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all the benchmarks of this artifact (or only those matching the regex given as the first argument).
+ * <p>
+ * The templates are taken from the folder given by the {@value BenchmarkTemplates#TEMPLATES_ROOT_PROPERTY} system property, which defaults to the
+ * parent of the working directory, i.e. the root of this repository when run from this artifact's folder.
+ */
+public class ProjectionBenchmarks {
+
+	public static void main(String[] args) throws Exception {
+		String include = args.length > 0 ? args[0] : ProjectionBenchmarks.class.getPackage().getName() + ".*Benchmark";
+
+		Options options = new OptionsBuilder() //
+				.include(include) //
+				.jvmArgsAppend("-D" + BenchmarkTemplates.TEMPLATES_ROOT_PROPERTY + "=" + BenchmarkTemplates.templatesRoot()) //
+				.build();
+
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,232 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.benchmark;
+
+import static com.braintribe.template.processing.helper.FileHelper.deleteDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
+import com.braintribe.exception.Exceptions;
+import com.braintribe.template.processing.benchmark.SyntheticTemplateSpec.Dimension;
+
+/**
+ * Scaling harness for the template projection, based on templates generated by the {@link SyntheticTemplateGenerator}.
+ * <p>
+ * For each dimension, the harness starts from a default {@link SyntheticTemplateSpec}, grows only that dimension and reports the throughput (files/s,
+ * MB/s of the installed projection) and the peak heap of each step. Each projection is processed by the actual processor (see
+ * {@link OfflineTemplateProcessor}), with the templates resolved from a {@link LocalTemplateRepository} folder, so it runs offline.
+ * <p>
+ * Every iteration installs into a new folder, so its request differs from the previous ones and the projection cache never hits - each iteration
+ * renders the whole chain, including the capturing of the cached projection, as a first projection does in production.
+ * <p>
+ * Usage: {@code ProjectionStressSuite [dimension=v1,v2,... ...] [iterations=N]}, e.g. {@code projectedFiles=10,100,1000 iterations=5}. Without
+ * dimension arguments all dimensions are scaled with their default steps.
+ */
+public class ProjectionStressSuite {
+
+	private static final int DEFAULT_ITERATIONS = 3;
+	private static final int WARMUP_ITERATIONS = 1;
+
+	private static final Map<Dimension, int[]> DEFAULT_STEPS = new EnumMap<>(Dimension.class);
+
+	static {
+		DEFAULT_STEPS.put(Dimension.staticFiles, new int[] { 10, 100, 1_000, 5_000 });
+		DEFAULT_STEPS.put(Dimension.projectedFiles, new int[] { 10, 100, 1_000, 5_000 });
+		DEFAULT_STEPS.put(Dimension.fileSize, new int[] { 1_024, 16 * 1_024, 256 * 1_024, 1_024 * 1_024 });
+		DEFAULT_STEPS.put(Dimension.relocations, new int[] { 0, 10, 100, 1_000 });
+		DEFAULT_STEPS.put(Dimension.dependencyDepth, new int[] { 1, 4, 16, 64 });
+	}
+
+	private final SyntheticTemplateSpec baseSpec;
+	private final int iterations;
+
+	private final Path templatesRoot = BenchmarkTemplates.newTempDir("synthetic-templates");
+	private final Path repositoryRoot = BenchmarkTemplates.newTempDir("synthetic-repository");
+	private final LocalTemplateRepository repository = new LocalTemplateRepository(templatesRoot, repositoryRoot);
+	private final SyntheticTemplateGenerator generator = new SyntheticTemplateGenerator(templatesRoot);
+	private final OfflineTemplateProcessor processor = new OfflineTemplateProcessor(repositoryRoot);
+
+	private int generatedTemplates;
+
+	public ProjectionStressSuite(SyntheticTemplateSpec baseSpec, int iterations) {
+		this.baseSpec = baseSpec;
+		this.iterations = iterations;
+	}
+
+	public static void main(String[] args) {
+		Map<Dimension, int[]> steps = new EnumMap<>(Dimension.class);
+		int iterations = DEFAULT_ITERATIONS;
+
+		for (String arg : args) {
+			String[] keyValue = arg.split("=", 2);
+			if (keyValue.length != 2)
+				throw new IllegalArgumentException("Expected argument in the form key=value, not: " + arg);
+
+			if (keyValue[0].equals("iterations"))
+				iterations = Integer.parseInt(keyValue[1]);
+			else
+				steps.put(Dimension.valueOf(keyValue[0]), parseSteps(keyValue[1]));
+		}
+
+		if (steps.isEmpty())
+			steps = DEFAULT_STEPS;
+
+		ProjectionStressSuite suite = new ProjectionStressSuite(new SyntheticTemplateSpec(), iterations);
+		try {
+			for (Map.Entry<Dimension, int[]> entry : steps.entrySet())
+				suite.scale(entry.getKey(), entry.getValue());
+		} finally {
+			suite.cleanup();
+		}
+	}
+
+	private static int[] parseSteps(String s) {
+		return Stream.of(s.split(",")).mapToInt(v -> Integer.parseInt(v.trim())).toArray();
+	}
+
+	public List<StepResult> scale(Dimension dimension, int[] values) {
+		System.out.println();
+		System.out.println("Scaling " + dimension + " (base: " + baseSpec + ")");
+		System.out.println(String.format(Locale.ROOT, "%12s %10s %12s %12s %10s %10s %12s", //
+				dimension, "files", "MB", "avg ms", "files/s", "MB/s", "peak heap MB"));
+
+		List<StepResult> results = new ArrayList<>();
+		for (int value : values) {
+			StepResult result = runStep(baseSpec.with(dimension, value));
+			results.add(result);
+
+			System.out.println(String.format(Locale.ROOT, "%12d %10d %12.2f %12.2f %10.0f %10.2f %12.1f", //
+					value, result.files, toMB(result.bytes), result.avgMillis, result.filesPerSecond(), result.megabytesPerSecond(),
+					toMB(result.peakHeapBytes)));
+		}
+
+		return results;
+	}
+
+	private StepResult runStep(SyntheticTemplateSpec spec) {
+		String name = "synthetic-template-" + generatedTemplates++;
+		String templateIdentification = generator.generate(name, spec);
+		for (int level = 0; level < Math.max(1, spec.getDependencyDepth()); level++)
+			repository.archiveZip(SyntheticTemplateGenerator.templateIdentification(name, level));
+
+		for (int i = 0; i < WARMUP_ITERATIONS; i++)
+			measure(templateIdentification);
+
+		StepResult result = new StepResult();
+		long totalNanos = 0;
+		for (int i = 0; i < iterations; i++) {
+			StepResult iteration = measure(templateIdentification);
+			totalNanos += iteration.nanos;
+			result.files = iteration.files;
+			result.bytes = iteration.bytes;
+			result.peakHeapBytes = Math.max(result.peakHeapBytes, iteration.peakHeapBytes);
+		}
+
+		result.nanos = totalNanos;
+		result.avgMillis = totalNanos / 1_000_000d / iterations;
+		return result;
+	}
+
+	private StepResult measure(String templateIdentification) {
+		Path installationPath = BenchmarkTemplates.newTempDir("synthetic-installation");
+
+		System.gc();
+		resetPeakHeap();
+
+		long start = System.nanoTime();
+
+		ArtifactTemplateRequest request = BenchmarkTemplates.newBuildSystemConfig(installationPath);
+		request.setTemplate(templateIdentification);
+		processor.process(request);
+
+		StepResult result = new StepResult();
+		result.nanos = System.nanoTime() - start;
+		result.peakHeapBytes = peakHeap();
+
+		countFiles(installationPath, result);
+
+		deleteDir(installationPath);
+
+		return result;
+	}
+
+	private static void countFiles(Path dir, StepResult result) {
+		try (Stream<Path> paths = Files.walk(dir)) {
+			paths.filter(Files::isRegularFile).forEach(file -> {
+				result.files++;
+				result.bytes += file.toFile().length();
+			});
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to count the files of: " + dir);
+		}
+	}
+
+	private static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+	}
+
+	/** Sum of the peaks of the individual heap pools, i.e. an upper bound of the actual peak heap usage. */
+	private static long peakHeap() {
+		long result = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				result += pool.getPeakUsage().getUsed();
+
+		return result;
+	}
+
+	private static double toMB(long bytes) {
+		return bytes / (1024d * 1024d);
+	}
+
+	public void cleanup() {
+		processor.close();
+		deleteDir(templatesRoot);
+		deleteDir(repositoryRoot);
+	}
+
+	/** Result of one step of the scaling, i.e. one spec. The numbers of files and bytes are those of the installed projection. */
+	public static class StepResult {
+		public long files;
+		public long bytes;
+		public long nanos;
+		public double avgMillis;
+		public long peakHeapBytes;
+
+		public double filesPerSecond() {
+			return files / (avgMillis / 1_000d);
+		}
+
+		public double megabytesPerSecond() {
+			return toMB(bytes) / (avgMillis / 1_000d);
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.benchmark;
+
+import static com.braintribe.template.processing.helper.FileHelper.deleteDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
+import com.braintribe.template.processing.api.ArtifactTemplateRequestProjector;
+
+/**
+ * Benchmarks the projection of the request property values, i.e. resolving the FreeMarker expressions of the {@code @Initializer}s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestProjectionBenchmark {
+
+	@Param({ BenchmarkTemplates.BUILD_SYSTEM_TEMPLATE, BenchmarkTemplates.DDSA_TEST_TEMPLATE })
+	public String template;
+
+	private ArtifactTemplateRequestProjector projector;
+	private Path installationPath;
+	private ArtifactTemplateRequest request;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		projector = BenchmarkTemplates.requestProjector();
+		installationPath = BenchmarkTemplates.newTempDir("request-projection");
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		// the projection modifies the request, so each invocation needs a fresh one
+		request = BenchmarkTemplates.newRequest(template, installationPath);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() {
+		deleteDir(installationPath);
+	}
+
+	@Benchmark
+	public ArtifactTemplateRequest project() {
+		projector.project(request);
+		return request;
+	}
+
+}
@@ -0,0 +1,148 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.benchmark;
+
+import static com.braintribe.template.processing.helper.FileHelper.ensureDirExists;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.braintribe.exception.Exceptions;
+
+/**
+ * Writes synthetic templates with the standard layout (content/static, content/dynamic/static.ftl, content/dynamic/projected and
+ * dependencies.groovy) into a folder, so they can be packed by a {@link LocalTemplateRepository}.
+ * <p>
+ * A spec with dependency depth N results in a chain of N templates, where each template's dependencies.groovy returns a copy of its request
+ * pointing to the next template. The files of each template are placed in a folder named after its level, so the projections of the chain do not
+ * overwrite each other.
+ */
+public class SyntheticTemplateGenerator {
+
+	public static final String GROUP_ID = "com.braintribe.benchmark.synthetic";
+
+	private static final String LINE_PADDING = " lorem ipsum dolor sit amet, consectetur adipiscing elit";
+
+	private final Path templatesRoot;
+
+	public SyntheticTemplateGenerator(Path templatesRoot) {
+		this.templatesRoot = templatesRoot;
+	}
+
+	/**
+	 * Generates the chain of templates for given spec, with artifactIds derived from given name.
+	 * 
+	 * @return the identification of the root template of the chain
+	 */
+	public String generate(String name, SyntheticTemplateSpec spec) {
+		int depth = Math.max(1, spec.getDependencyDepth());
+		for (int level = 0; level < depth; level++)
+			generateTemplate(name, level, depth, spec);
+
+		return templateIdentification(name, 0);
+	}
+
+	public static String templateIdentification(String name, int level) {
+		return GROUP_ID + ":" + artifactId(name, level) + "#1.0";
+	}
+
+	private static String artifactId(String name, int level) {
+		return name + "-" + level;
+	}
+
+	private void generateTemplate(String name, int level, int depth, SyntheticTemplateSpec spec) {
+		Path templateDir = templatesRoot.resolve(artifactId(name, level));
+		String levelDir = "level-" + level;
+
+		Path staticDir = templateDir.resolve("content/static").resolve(levelDir);
+		for (int i = 0; i < spec.getStaticFiles(); i++)
+			write(staticDir.resolve(folder(i)).resolve("static-" + i + ".txt"), staticContent(i, spec.getFileSize()));
+
+		Path dynamicDir = templateDir.resolve("content/dynamic");
+		write(dynamicDir.resolve("static.ftl"), staticFtl(levelDir, spec));
+
+		Path projectedDir = dynamicDir.resolve("projected").resolve(levelDir);
+		for (int i = 0; i < spec.getProjectedFiles(); i++)
+			write(projectedDir.resolve(folder(i)).resolve("projected-" + i + ".txt.ftl"), projectedFtl(i, spec.getFileSize()));
+
+		boolean last = level == depth - 1;
+		write(templateDir.resolve("dependencies.groovy"), last ? "return [];\n" : dependenciesGroovy(templateIdentification(name, level + 1)));
+	}
+
+	/** Spreads the files into folders of 50, similar to packages of a real artifact. */
+	private static String folder(int i) {
+		return "folder-" + (i / 50);
+	}
+
+	private static String staticContent(int i, int size) {
+		StringBuilder sb = new StringBuilder(size + 100);
+		int line = 0;
+		while (sb.length() < size)
+			sb.append("static file ").append(i).append(" line ").append(line++).append(LINE_PADDING).append('\n');
+
+		return sb.toString();
+	}
+
+	private static String staticFtl(String levelDir, SyntheticTemplateSpec spec) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("${static.createDir('").append(levelDir).append("/empty')}\n");
+
+		int relocations = Math.min(spec.getRelocations(), spec.getStaticFiles());
+		for (int i = 0; i < relocations; i++) {
+			String file = levelDir + "/" + folder(i) + "/static-" + i + ".txt";
+			String target = levelDir + "/relocated/" + folder(i) + "/static-" + i + ".txt";
+			sb.append("${static.relocate('").append(file).append("', '").append(target).append("')}\n");
+		}
+
+		return sb.toString();
+	}
+
+	/** Every line contains an interpolation, so the rendering cost grows with the file size, as it does for real templates. */
+	private static String projectedFtl(int i, int size) {
+		StringBuilder sb = new StringBuilder(size + 100);
+		sb.append("<#assign artifact = request.groupId + ':' + request.artifactId>\n");
+
+		int line = 0;
+		int projectedLength = 0;
+		while (projectedLength < size) {
+			String text = "projected file " + i + " line " + line++ + LINE_PADDING;
+			sb.append("${artifact} ").append(text).append('\n');
+			// the interpolated artifact name has roughly 40 characters
+			projectedLength += text.length() + 42;
+		}
+
+		return sb.toString();
+	}
+
+	private static String dependenciesGroovy(String nextTemplate) {
+		return "def dependency = request.entityType().create();\n" //
+				+ "support.mapFromTo(request, dependency);\n" //
+				+ "dependency.template = '" + nextTemplate + "';\n" //
+				+ "return [dependency];\n";
+	}
+
+	private static void write(Path file, String content) {
+		ensureDirExists(file.getParent());
+		try {
+			Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to write synthetic template file: " + file);
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.benchmark;
+
+/**
+ * Dimensions of a template generated by the {@link SyntheticTemplateGenerator}.
+ * <p>
+ * Each template of the generated dependency chain has the same shape, i.e. the numbers of files are per template, not totals.
+ */
+public class SyntheticTemplateSpec {
+
+	/** The dimensions the {@link ProjectionStressSuite} can scale. */
+	public enum Dimension {
+		staticFiles,
+		projectedFiles,
+		fileSize,
+		relocations,
+		dependencyDepth
+	}
+
+	private int staticFiles = 20;
+	private int projectedFiles = 20;
+	private int fileSize = 4 * 1024;
+	private int relocations = 0;
+	private int dependencyDepth = 1;
+
+	/** Number of files in content/static. */
+	public int getStaticFiles() {
+		return staticFiles;
+	}
+
+	public SyntheticTemplateSpec setStaticFiles(int staticFiles) {
+		this.staticFiles = staticFiles;
+		return this;
+	}
+
+	/** Number of FreeMarker templates in content/dynamic/projected. */
+	public int getProjectedFiles() {
+		return projectedFiles;
+	}
+
+	public SyntheticTemplateSpec setProjectedFiles(int projectedFiles) {
+		this.projectedFiles = projectedFiles;
+		return this;
+	}
+
+	/** Approximate size of each generated file in bytes (for projected files this is the size of the projection, not of the .ftl). */
+	public int getFileSize() {
+		return fileSize;
+	}
+
+	public SyntheticTemplateSpec setFileSize(int fileSize) {
+		this.fileSize = fileSize;
+		return this;
+	}
+
+	/** Number of static files relocated by static.ftl (at most {@link #getStaticFiles()}). */
+	public int getRelocations() {
+		return relocations;
+	}
+
+	public SyntheticTemplateSpec setRelocations(int relocations) {
+		this.relocations = relocations;
+		return this;
+	}
+
+	/** Length of the chain of templates, each one returning the next one from its dependencies.groovy. At least 1. */
+	public int getDependencyDepth() {
+		return dependencyDepth;
+	}
+
+	public SyntheticTemplateSpec setDependencyDepth(int dependencyDepth) {
+		this.dependencyDepth = dependencyDepth;
+		return this;
+	}
+
+	public int get(Dimension dimension) {
+		switch (dimension) {
+			case staticFiles:
+				return staticFiles;
+			case projectedFiles:
+				return projectedFiles;
+			case fileSize:
+				return fileSize;
+			case relocations:
+				return relocations;
+			case dependencyDepth:
+				return dependencyDepth;
+			default:
+				throw new IllegalArgumentException("Unknown dimension: " + dimension);
+		}
+	}
+
+	/** Returns a copy of this spec with given dimension set to given value. */
+	public SyntheticTemplateSpec with(Dimension dimension, int value) {
+		SyntheticTemplateSpec result = new SyntheticTemplateSpec() //
+				.setStaticFiles(staticFiles) //
+				.setProjectedFiles(projectedFiles) //
+				.setFileSize(fileSize) //
+				.setRelocations(relocations) //
+				.setDependencyDepth(dependencyDepth);
+
+		switch (dimension) {
+			case staticFiles:
+				return result.setStaticFiles(value);
+			case projectedFiles:
+				return result.setProjectedFiles(value);
+			case fileSize:
+				return result.setFileSize(value);
+			case relocations:
+				return result.setRelocations(value);
+			case dependencyDepth:
+				return result.setDependencyDepth(value);
+			default:
+				throw new IllegalArgumentException("Unknown dimension: " + dimension);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "static=" + staticFiles + ", projected=" + projectedFiles + ", fileSize=" + fileSize + ", relocations=" + relocations + ", depth="
+				+ dependencyDepth;
+	}
+
+}
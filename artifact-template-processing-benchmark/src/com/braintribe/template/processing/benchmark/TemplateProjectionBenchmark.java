@@ -0,0 +1,102 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.benchmark;
+
+import static com.braintribe.template.processing.helper.FileHelper.deleteDir;
+import static com.braintribe.template.processing.helper.FileHelper.unzipToTempDir;
+
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
+import com.braintribe.template.processing.api.ArtifactTemplateProjector;
+
+/**
+ * Benchmarks {@link ArtifactTemplateProjector#project(ArtifactTemplateRequest, Path, Path)} on real templates of this repository, i.e. copying the
+ * static files, evaluating static.ftl and rendering the projected FreeMarker templates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateProjectionBenchmark {
+
+	@Param({ BenchmarkTemplates.BUILD_SYSTEM_TEMPLATE, BenchmarkTemplates.DDSA_TEST_TEMPLATE })
+	public String template;
+
+	private LocalTemplateRepository repository;
+	private ArtifactTemplateProjector projector;
+	private Path templatePath;
+	private Path installationPath;
+	private ArtifactTemplateRequest request;
+
+	private Path projectionPath;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		repository = BenchmarkTemplates.localRepository();
+
+		// same as the processor - the template is unzipped from its archive
+		templatePath = unzipToTempDir(repository.archiveZipResource(template), "benchmark-template-" + UUID.randomUUID());
+		installationPath = BenchmarkTemplates.newTempDir("template-projection");
+
+		request = BenchmarkTemplates.newRequest(template, installationPath);
+		BenchmarkTemplates.requestProjector().project(request);
+
+		projector = BenchmarkTemplates.templateProjector();
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		projectionPath = installationPath.resolve(UUID.randomUUID().toString());
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDownInvocation() {
+		deleteDir(projectionPath);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() {
+		deleteDir(templatePath);
+		deleteDir(installationPath);
+		deleteDir(repository.repositoryRoot());
+	}
+
+	@Benchmark
+	public Path project() {
+		projector.project(request, templatePath, projectionPath);
+		return projectionPath;
+	}
+
+}
@@ -36,4 +36,19 @@ public interface ArtifactTemplateConsts {
 
 	PartIdentification ARCHIVE_ZIP_PART = PartIdentification.create("archive", "zip");
 
+	// Phases of the projection, as reported by the timing
+	final String PHASE_REQUEST_PROJECTION = "request projection";
+	final String PHASE_RESOLUTION = "resolution";
+	final String PHASE_PART_FETCH = "part fetch";
+	final String PHASE_UNZIP = "unzip";
+	final String PHASE_GROOVY = "groovy evaluation";
+	final String PHASE_STATIC_COPY = "static copy";
+	final String PHASE_RENDERING = "rendering";
+	final String PHASE_CACHE_REPLAY = "cache replay";
+	final String PHASE_CACHE_CAPTURE = "cache capture";
+	final String PHASE_CONFLICT_CHECK = "conflict check";
+	final String PHASE_INSTALL = "install";
+	final String PHASE_WRITE_BEHIND = "write behind";
+	final String PHASE_CLEANUP = "cleanup";
+
 }
@@ -16,29 +16,55 @@
 package com.braintribe.template.processing;
 
 import static com.braintribe.console.ConsoleOutputs.println;
-import static com.braintribe.console.output.ConsoleOutputFiles.outputProjectionDirectoryTree;
-import static com.braintribe.template.processing.helper.ConsoleOutputHelper.outTemplateResolvingResult;
 import static com.braintribe.template.processing.helper.ConsoleOutputHelper.templateNameOutput;
 import static com.braintribe.template.processing.helper.FileHelper.collectOverwritenRelativePaths;
+import static com.braintribe.template.processing.helper.FileHelper.contentHash;
+import static com.braintribe.template.processing.helper.FileHelper.copyChangedFiles;
 import static com.braintribe.template.processing.helper.FileHelper.copyDir;
 import static com.braintribe.template.processing.helper.FileHelper.createTempDir;
 import static com.braintribe.template.processing.helper.FileHelper.deleteDir;
 import static com.braintribe.template.processing.helper.FileHelper.ensureDirExists;
 import static com.braintribe.template.processing.helper.FileHelper.unzipToTempDir;
+import static com.braintribe.template.processing.helper.RequestFingerprints.fingerprint;
+import static com.braintribe.template.processing.helper.RequestFingerprints.sha256Hex;
 import static com.braintribe.utils.lcd.CollectionTools2.asMap;
+import static com.braintribe.utils.lcd.CollectionTools2.newList;
+import static com.braintribe.utils.lcd.CollectionTools2.newMap;
 import static java.util.Objects.requireNonNullElse;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.braintribe.cfg.Configurable;
+import com.braintribe.cfg.DestructionAware;
 import com.braintribe.cfg.Required;
 import com.braintribe.console.ConsoleOutputs;
 import com.braintribe.devrock.env.api.DevEnvironment;
@@ -57,13 +83,30 @@ import com.braintribe.devrock.mc.core.wirings.resolver.contract.ArtifactDataReso
 import com.braintribe.devrock.mc.core.wirings.venv.contract.VirtualEnvironmentContract;
 import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
 import com.braintribe.devrock.templates.model.ArtifactTemplateResponse;
+import com.braintribe.devrock.templates.model.CreateArtifacts;
+import com.braintribe.devrock.templates.model.CreateArtifactsFromManifest;
+import com.braintribe.devrock.templates.model.PipelineStageStats;
+import com.braintribe.devrock.templates.model.PlannedFile;
+import com.braintribe.devrock.templates.model.PlannedFileStatus;
+import com.braintribe.devrock.templates.model.ReprojectGroup;
+import com.braintribe.devrock.templates.model.TemplateTiming;
+import com.braintribe.devrock.templates.model.WarmUpTemplates;
+import com.braintribe.devrock.templates.model.artifact.CreateArtifact;
+import com.braintribe.devrock.templates.model.artifact.CreateBuildSystemConfig;
+import com.braintribe.devrock.templates.model.artifact.CreateGroupBuildScript;
+import com.braintribe.devrock.templates.model.artifact.CreateProjectMetadata;
 import com.braintribe.exception.Exceptions;
 import com.braintribe.gm.config.api.ModeledConfiguration;
 import com.braintribe.gm.model.reason.Maybe;
 import com.braintribe.gm.model.reason.essential.AlreadyExists;
+import com.braintribe.gm.model.reason.essential.InternalError;
 import com.braintribe.gm.model.reason.essential.NotFound;
+import com.braintribe.logging.Logger;
 import com.braintribe.model.artifact.compiled.CompiledArtifactIdentification;
 import com.braintribe.model.artifact.compiled.CompiledDependencyIdentification;
+import com.braintribe.model.generic.GMF;
+import com.braintribe.model.generic.reflection.EntityType;
+import com.braintribe.model.meta.GmType;
 import com.braintribe.model.processing.service.api.OutputConfig;
 import com.braintribe.model.processing.service.api.OutputConfigAspect;
 import com.braintribe.model.processing.service.api.ReasonedServiceProcessor;
@@ -71,7 +114,46 @@ import com.braintribe.model.processing.service.api.ServiceRequestContext;
 import com.braintribe.model.resource.Resource;
 import com.braintribe.template.processing.api.ArtifactTemplateProjector;
 import com.braintribe.template.processing.api.ArtifactTemplateRequestProjector;
+import com.braintribe.template.processing.api.PhaseRecorder;
+import com.braintribe.template.processing.api.PhaseRecorder.Phase;
+import com.braintribe.template.processing.api.ProjectionOutput;
+import com.braintribe.template.processing.api.console.ProjectionConsoleSinkAspect;
+import com.braintribe.template.processing.api.exception.ProjectionAbortedException;
+import com.braintribe.template.processing.api.listener.ProjectionListener;
+import com.braintribe.template.processing.cache.CachedProjection;
+import com.braintribe.template.processing.cache.CapturingProjectionOutput;
+import com.braintribe.template.processing.cache.ExtractedTemplateCache;
+import com.braintribe.template.processing.cache.ProjectionCache;
+import com.braintribe.template.processing.console.ProjectionConsole;
+import com.braintribe.template.processing.guard.ProjectionGuard;
+import com.braintribe.template.processing.helper.FileHelper;
+import com.braintribe.template.processing.helper.GroovyScripts;
+import com.braintribe.template.processing.jfr.TemplateInstallEvent;
+import com.braintribe.template.processing.jfr.TemplateResolutionEvent;
+import com.braintribe.template.processing.jfr.TemplateScriptEvent;
+import com.braintribe.template.processing.jfr.TemplateUnzipEvent;
+import com.braintribe.template.processing.install.ContentStore;
+import com.braintribe.template.processing.install.PathLocks;
+import com.braintribe.template.processing.install.PathLocks.Locked;
+import com.braintribe.template.processing.lock.TemplateLockfile;
+import com.braintribe.template.processing.lock.TemplateLockfile.Pin;
+import com.braintribe.template.processing.lock.TemplateLockfiles;
+import com.braintribe.template.processing.manifest.ManifestReader;
+import com.braintribe.template.processing.output.DirectoryProjectionOutput;
+import com.braintribe.template.processing.output.InMemoryProjectionOutput;
+import com.braintribe.template.processing.output.ProjectionArchiveInputStream;
+import com.braintribe.template.processing.output.StagedWriteLog;
+import com.braintribe.template.processing.output.StagedWriteLog.StagedWrites;
+import com.braintribe.template.processing.pipeline.PipelineStage;
+import com.braintribe.template.processing.pipeline.WriteBehindProjectionOutput;
 import com.braintribe.template.processing.projection.support.TemplateSupport;
+import com.braintribe.template.processing.reprojection.ArtifactInputsReader;
+import com.braintribe.template.processing.reprojection.ArtifactInputsReader.UnsupportedContentException;
+import com.braintribe.template.processing.resolution.ResolverContexts;
+import com.braintribe.template.processing.resolution.ResolverContexts.Lease;
+import com.braintribe.template.processing.source.TemplateSources;
+import com.braintribe.template.processing.timing.ChromeTraceWriter;
+import com.braintribe.template.processing.timing.ProjectionTimingRecorder;
 import com.braintribe.utils.paths.UniversalPath;
 import com.braintribe.ve.api.VirtualEnvironment;
 import com.braintribe.wire.api.Wire;
@@ -89,15 +171,56 @@ import tribefire.extension.scripting.groovy.GroovyEngine;
  * <p>
  * Based on the request, the artifact template is resolved by the use of the {@link ArtifactResolver resolver} and later on projected by the use of
  * the {@link ArtifactTemplateProjector projector}.
+ * <p>
+ * The processor may process many requests concurrently. All the state of a request (Groovy engine, staging dir, data models, limits) is created
+ * per request, the only state shared between requests are the projectors (stateless), the {@link ProjectionCache}, the {@link TemplateSources}
+ * and the {@link ResolverContexts resolvers} of a dev environment (all thread-safe). The number of concurrently processed requests can be
+ * {@link #setMaxConcurrentRequests(int) limited}.
+ * <p>
+ * Each request can be limited in time, projected files, projected bytes and template nesting depth, see {@link ProjectionGuard}. A request which
+ * exceeds a limit is aborted, its staged projection is deleted and nothing is installed.
+ * <p>
+ * A request is projected depth-first by a single thread, but backed by a pipeline - the template dependencies evaluated by a dependencies.groovy are
+ * resolved and extracted ahead, while the preceding ones are being rendered, and the rendered files are written behind (see
+ * {@link #setPipelineCapacity(int)}).
+ * <p>
+ * The console output of a request is rendered asynchronously (see {@link ProjectionConsole}) and can be reduced with the request's
+ * {@link ArtifactTemplateRequest#getConsoleOutput() console output mode}. If evaluated with a {@link ProjectionConsoleSinkAspect}, the output is
+ * submitted to the given sink instead.
  */
 public class ArtifactTemplateProcessor
-		implements ReasonedServiceProcessor<ArtifactTemplateRequest, ArtifactTemplateResponse>, ArtifactTemplateConsts {
+		implements ReasonedServiceProcessor<ArtifactTemplateRequest, ArtifactTemplateResponse>, DestructionAware, ArtifactTemplateConsts {
+
+	private static final Logger log = Logger.getLogger(ArtifactTemplateProcessor.class);
+
+	private static final String DEVROCK_REPOSITORY_CONFIGURATION = "repository-configuration-devrock.yaml";
+	private static final long DEFAULT_RESOLVER_CONTEXT_MAX_AGE_MILLIS = 60_000;
 
 	private ArtifactTemplateRequestProjector requestProjector;
 	private ArtifactTemplateProjector templateProjector;
 	private VirtualEnvironment virtualEnvironment;
 	private File useCaseRepositoryConfigurationLocation;
 	private ModeledConfiguration modeledConfiguration;
+	private ProjectionCache projectionCache;
+	private TemplateSources templateSources;
+	private TemplateLockfiles templateLockfiles;
+	private ExtractedTemplateCache extractedTemplateCache;
+	private ProjectionListener listener = ProjectionListener.NOOP;
+
+	private Semaphore requestPermits;
+	private long requestQueueTimeoutMillis = 60_000;
+	/* requests evaluated from within a request on the same thread (e.g. by a dependencies.groovy) run with the permit of the outer request */
+	private final ThreadLocal<Boolean> holdsRequestPermit = new ThreadLocal<>();
+
+	private long requestTimeoutMillis;
+	private int maxProjectedFiles;
+	private long maxProjectedBytes;
+	private int maxTemplateDepth = 100;
+
+	private static final int PIPELINE_WORKERS = 2;
+	private int pipelineCapacity = 8;
+
+	private ResolverContexts resolverContexts = new ResolverContexts(this::newResolverContext, DEFAULT_RESOLVER_CONTEXT_MAX_AGE_MILLIS);
 
 	@Required
 	public void setVirtualEnvironment(VirtualEnvironment virtualEnvironment) {
@@ -124,17 +247,192 @@ public class ArtifactTemplateProcessor
 		this.useCaseRepositoryConfigurationLocation = useCaseRepositoryConfigurationLocation;
 	}
 
+	/**
+	 * Cache for projections of identical requests, shared by all the requests processed by this processor. If not set, nothing is cached.
+	 */
+	@Configurable
+	public void setProjectionCache(ProjectionCache projectionCache) {
+		this.projectionCache = projectionCache;
+	}
+
+	/**
+	 * Source folders of templates which are used instead of the templates' artifacts, see {@link TemplateSources}. If not set, templates are always
+	 * resolved as artifacts.
+	 */
+	@Configurable
+	public void setTemplateSources(TemplateSources templateSources) {
+		this.templateSources = templateSources;
+	}
+
+	/**
+	 * Persistent cache of extracted templates, see {@link ExtractedTemplateCache}. If not set, each projection unzips its templates into a temp
+	 * dir.
+	 */
+	@Configurable
+	public void setExtractedTemplateCache(ExtractedTemplateCache extractedTemplateCache) {
+		this.extractedTemplateCache = extractedTemplateCache;
+	}
+
+	/**
+	 * Notified about the resolved and extracted templates, the evaluated dependencies.groovy scripts and the installed projections. The rendered
+	 * files are reported by the {@link #setTemplateProjector(ArtifactTemplateProjector) template projector}.
+	 */
+	@Configurable
+	public void setListener(ProjectionListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Lockfiles which pin the templates used in a dev environment to concrete artifacts, see {@link TemplateLockfile}. If not set, or if there is no
+	 * dev environment, templates are always resolved.
+	 */
+	@Configurable
+	public void setTemplateLockfiles(TemplateLockfiles templateLockfiles) {
+		this.templateLockfiles = templateLockfiles;
+	}
+
+	/**
+	 * Maximum number of requests processed at the same time. Further requests are queued (in order of arrival) for up to the
+	 * {@link #setRequestQueueTimeoutMillis(long) queue timeout}, after which they fail. Zero or negative (default) means no limit.
+	 */
+	@Configurable
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		this.requestPermits = maxConcurrentRequests > 0 ? new Semaphore(maxConcurrentRequests, true) : null;
+	}
+
+	/** How long a request waits for processing if the {@link #setMaxConcurrentRequests(int) maximum} of concurrent requests is reached. */
+	@Configurable
+	public void setRequestQueueTimeoutMillis(long requestQueueTimeoutMillis) {
+		this.requestQueueTimeoutMillis = requestQueueTimeoutMillis;
+	}
+
+	/**
+	 * Maximum time in which a request must be projected (not counting the time it waits for {@link #setMaxConcurrentRequests(int) processing}).
+	 * Zero or negative (default) means no limit.
+	 */
+	@Configurable
+	public void setRequestTimeoutMillis(long requestTimeoutMillis) {
+		this.requestTimeoutMillis = requestTimeoutMillis;
+	}
+
+	/** Maximum number of files projected by a single request, including its template dependencies. Zero or negative (default) means no limit. */
+	@Configurable
+	public void setMaxProjectedFiles(int maxProjectedFiles) {
+		this.maxProjectedFiles = maxProjectedFiles;
+	}
+
+	/** Maximum number of bytes projected by a single request, including its template dependencies. Zero or negative (default) means no limit. */
+	@Configurable
+	public void setMaxProjectedBytes(long maxProjectedBytes) {
+		this.maxProjectedBytes = maxProjectedBytes;
+	}
+
+	/**
+	 * Maximum nesting depth of template dependencies, which stops templates which (indirectly) depend on themselves. Zero or negative means no
+	 * limit, default is 100.
+	 */
+	@Configurable
+	public void setMaxTemplateDepth(int maxTemplateDepth) {
+		this.maxTemplateDepth = maxTemplateDepth;
+	}
+
+	/**
+	 * Capacity of the queues of the projection pipeline, i.e. how many template dependencies are resolved and extracted ahead, and how many
+	 * projected files are written behind the rendering. Zero or negative disables the pipeline, i.e. everything is done by the projecting thread.
+	 * Default is 8.
+	 */
+	@Configurable
+	public void setPipelineCapacity(int pipelineCapacity) {
+		this.pipelineCapacity = pipelineCapacity;
+	}
+
+	/**
+	 * How long the resolver context of a dev environment (i.e. its located and parsed repository configuration and the resolvers) is reused by
+	 * subsequent requests, unless the repository configuration changes earlier. Zero or negative means every request creates its own context.
+	 * Default is one minute.
+	 */
+	@Configurable
+	public void setResolverContextMaxAgeMillis(long resolverContextMaxAgeMillis) {
+		this.resolverContexts = new ResolverContexts(this::newResolverContext, resolverContextMaxAgeMillis);
+	}
+
 	@Override
 	public Maybe<ArtifactTemplateResponse> processReasoned(ServiceRequestContext requestContext, ArtifactTemplateRequest request) {
+		if (requestPermits == null || holdsRequestPermit.get() != null)
+			return processPermitted(requestContext, request);
+
+		if (!acquireRequestPermit())
+			return InternalError.create("Cannot process " + request.entityType().getShortName() + " as the processor is busy. No request finished within "
+					+ requestQueueTimeoutMillis + " ms.").asMaybe();
+
+		holdsRequestPermit.set(Boolean.TRUE);
+		try {
+			return processPermitted(requestContext, request);
+		} finally {
+			holdsRequestPermit.remove();
+			requestPermits.release();
+		}
+	}
+
+	private boolean acquireRequestPermit() {
+		try {
+			return requestPermits.tryAcquire(requestQueueTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private Maybe<ArtifactTemplateResponse> processPermitted(ServiceRequestContext requestContext, ArtifactTemplateRequest request) {
 		Optional<DevEnvironment> devEnvironment = requestContext.findAttribute(DevEnvironment.class);
 
 		File devEnvRoot = devEnvironment.map(DevEnvironment::getRootPath).orElse(null);
 
-		try (WireContext<ArtifactDataResolverContract> wireContext = Wire.context(new TemplateProcessorWireModule(devEnvRoot))) {
-			return new ArtifactTemplateProcess(requestContext, request, wireContext.contract()).run();
+		// NOTE refreshing the lockfile should also see repository metadata which changed since the context was created
+		try (Lease lease = resolverContexts.acquire(devEnvRoot, repositoryConfigurationCandidates(devEnvRoot), request.getRefreshLock())) {
+			if (request instanceof CreateArtifactsFromManifest)
+				return new ManifestProcess(requestContext, (CreateArtifactsFromManifest) request, lease.contract()).run();
+			else if (request instanceof ReprojectGroup)
+				return new GroupReprojectionProcess(requestContext, (ReprojectGroup) request, lease.contract()).run();
+			else if (request instanceof WarmUpTemplates)
+				return new WarmUpProcess(requestContext, (WarmUpTemplates) request, lease.contract()).run();
+			else
+				return new ArtifactTemplateProcess(requestContext, request, lease.contract(), true).run();
 		}
 	}
 
+	private WireContext<ArtifactDataResolverContract> newResolverContext(File devEnvRoot) {
+		return Wire.context(new TemplateProcessorWireModule(devEnvRoot));
+	}
+
+	/** The files the {@link TemplateProcessorWireModule} looks for the repository configuration in, in the same order. */
+	private List<File> repositoryConfigurationCandidates(File devEnvRoot) {
+		List<File> result = newList();
+		if (devEnvRoot != null)
+			result.add(new File(new File(devEnvRoot, RepositoryConfigurationLocators.FOLDERNAME_ARTIFACTS), DEVROCK_REPOSITORY_CONFIGURATION));
+		if (useCaseRepositoryConfigurationLocation != null)
+			result.add(useCaseRepositoryConfigurationLocation);
+		if (devEnvRoot != null)
+			result.add(new File(new File(devEnvRoot, RepositoryConfigurationLocators.FOLDERNAME_ARTIFACTS),
+					RepositoryConfigurationLocators.FILENAME_REPOSITORY_CONFIGURATION));
+
+		String envLocation = virtualEnvironment.getEnv(RepositoryConfigurationLocators.ENV_DEVROCK_REPOSITORY_CONFIGURATION);
+		if (envLocation != null)
+			result.add(new File(envLocation));
+
+		String userHome = virtualEnvironment.getProperty("user.home");
+		if (userHome != null)
+			result.add(new File(new File(userHome, RepositoryConfigurationLocators.FOLDERNAME_DEVROCK),
+					RepositoryConfigurationLocators.FILENAME_REPOSITORY_CONFIGURATION));
+
+		return result;
+	}
+
+	@Override
+	public void preDestroy() {
+		resolverContexts.clear();
+	}
+
 	// Why is this here???
 	public class TemplateProcessorWireModule implements WireTerminalModule<ArtifactDataResolverContract> {
 
@@ -159,8 +457,7 @@ public class ArtifactTemplateProcessor
 			contextBuilder.bindContract(DevelopmentEnvironmentContract.class, () -> devEnvFolder);
 
 			RepositoryConfigurationLocaterBuilder repositoryConfigurationLocatorBuilder = RepositoryConfigurationLocators.build() //
-					.addDevEnvLocation(
-							UniversalPath.start(RepositoryConfigurationLocators.FOLDERNAME_ARTIFACTS).push("repository-configuration-devrock.yaml"));
+					.addDevEnvLocation(UniversalPath.start(RepositoryConfigurationLocators.FOLDERNAME_ARTIFACTS).push(DEVROCK_REPOSITORY_CONFIGURATION));
 
 			if (useCaseRepositoryConfigurationLocation != null)
 				repositoryConfigurationLocatorBuilder.addLocation(useCaseRepositoryConfigurationLocation);
@@ -183,119 +480,779 @@ public class ArtifactTemplateProcessor
 
 		private final ServiceRequestContext requestContext;
 		private final ArtifactTemplateRequest request;
-
-		private final DependencyResolver dependencyResolver;
-		private final ArtifactPartResolver partResolver;
+		private final TemplateResolver resolver;
 
 		private final boolean verboseOutput;
+		private final boolean printInstallation;
 
+		/* null if projected in memory */
 		private final Path mainTempPath;
 		private final Path installationPath;
+		/* the in-memory tree for a dry run or an archive, null otherwise */
+		private final InMemoryProjectionOutput inMemoryStaging;
+		/* writes into mainTempPath asynchronously, null if in memory or if the pipeline is disabled */
+		private final WriteBehindProjectionOutput writeBehind;
+		/* mainTempPath (possibly written behind) or inMemoryStaging, logged and guarded */
+		private final ProjectionOutput staging;
+		/* null if the files are to be copied */
+		private final ContentStore contentStore;
 
 		private final GroovyEngine groovyEngine = new GroovyEngine();
+		private final ProjectionGuard guard = new ProjectionGuard(requestTimeoutMillis, maxProjectedFiles, maxProjectedBytes, maxTemplateDepth);
+		private final ProjectionTimingRecorder timing = new ProjectionTimingRecorder();
+		/* rendered asynchronously, must be flushed before deleting mainTempPath */
+		private final ProjectionConsole console;
+
+		/* the stages which resolve and extract template dependencies ahead, created with the first prefetch */
+		private PipelineStage resolveStage;
+		private PipelineStage extractStage;
+		/* by template identification, in the order of prefetching */
+		private final Map<String, Deque<PrefetchedTemplate>> prefetched = newMap();
+		private final List<PipelineStageStats> pipelineStats = newList();
+
+		/* the staged files written by each projected request, by its fingerprint, see projectTemplateTimed(ArtifactTemplateRequest, ProjectionOutput) */
+		private final StagedWriteLog writeLog = new StagedWriteLog();
+		private final Map<String, StagedWrites> projectedRequests = newMap();
+		private int dedupedRequestsCount;
 
 		public ArtifactTemplateProcess(ServiceRequestContext requestContext, ArtifactTemplateRequest request,
-				ArtifactDataResolverContract adrContract) {
+				ArtifactDataResolverContract adrContract, boolean printInstallation) {
+			this(requestContext, request, adrContract, printInstallation, request.getForceCopy() ? null : new ContentStore());
+		}
+
+		/**
+		 * @param contentStore
+		 *            store shared by all the processes of one run, so that identical files are hardlinked across them; null means files are copied
+		 */
+		public ArtifactTemplateProcess(ServiceRequestContext requestContext, ArtifactTemplateRequest request,
+				ArtifactDataResolverContract adrContract, boolean printInstallation, ContentStore contentStore) {
 			this.requestContext = requestContext;
 			this.request = request;
+			this.resolver = new TemplateResolver(requestContext, request, adrContract);
 			this.verboseOutput = requestContext.getAspect(OutputConfigAspect.class, OutputConfig.empty).verbose();
+			this.printInstallation = printInstallation || verboseOutput;
 
-			this.dependencyResolver = adrContract.dependencyResolver();
-			this.partResolver = adrContract.artifactResolver();
-
-			this.mainTempPath = createTempDir("template-projection-" + UUID.randomUUID()).toPath();
+			this.mainTempPath = projectsInMemory() ? null : createTempDir("template-projection-" + UUID.randomUUID()).toPath();
 			this.installationPath = Paths.get(request.getInstallationPath());
+			this.inMemoryStaging = projectsInMemory() ? new InMemoryProjectionOutput() : null;
+			this.writeBehind = inMemoryStaging == null && pipelineCapacity > 0
+					? new WriteBehindProjectionOutput(new DirectoryProjectionOutput(mainTempPath), pipelineCapacity)
+					: null;
+			this.staging = guard.wrap(writeLog.wrap(
+					inMemoryStaging != null ? inMemoryStaging : requireNonNullElse(writeBehind, new DirectoryProjectionOutput(mainTempPath))));
+			this.contentStore = contentStore;
+			this.console = new ProjectionConsole(request.getConsoleOutput(), requestContext.getAspect(ProjectionConsoleSinkAspect.class, null));
 		}
 
 		public Maybe<ArtifactTemplateResponse> run() {
+			guard.start();
+			try {
+				return projectsInMemory() ? runInMemory() : runOnDisk();
+
+			} catch (RuntimeException e) {
+				ProjectionAbortedException aborted = guard.abortedBy(e);
+				if (aborted == null)
+					throw e;
+
+				console.flush();
+				deleteStagingDir();
+				writeTrace();
+				return InternalError.create(aborted.getMessage()).asMaybe();
+
+			} finally {
+				guard.stop();
+				// so that the entire output of the request is printed before its response
+				console.flush();
+			}
+		}
+
+		private Maybe<ArtifactTemplateResponse> runOnDisk() {
+
 			ensureDirExists(installationPath);
 			if (verboseOutput)
-				println("Projecting artifact template to the installation directory: " + installationPath);
+				console.println("Projecting artifact template to the installation directory: " + installationPath);
+
+			stage();
+
+			// NOTE the tree is read and printed while the projection is being checked and installed
+			if (printInstallation && !console.isQuiet()) {
+				console.println("Installing:");
+				console.tree(mainTempPath);
+			}
 
-			projectTemplate();
+			// NOTE the check and the install must be atomic w.r.t. other requests installing into overlapping paths
+			try (Locked locked = PathLocks.INSTANCE.lockForInstalling(mainTempPath, installationPath)) {
+				AlreadyExists error = checkAndInstall();
+				if (error != null) {
+					writeTrace();
+					return error.asMaybe();
+				}
+			}
 
-			println("Installing:");
-			outputProjectionDirectoryTree(mainTempPath);
+			console.flush();
+			try (Phase p = timing.begin(PHASE_CLEANUP)) {
+				deleteDir(mainTempPath);
+			}
+
+			TemplateTiming templateTiming = timing.toTiming();
+			if (verboseOutput) {
+				console.render(() -> ProjectionTimingRecorder.print(templateTiming));
+				printPipelineStats();
+			}
+			writeTrace();
 
+			ArtifactTemplateResponse response = ArtifactTemplateResponse.T.create();
+			response.setTiming(templateTiming);
+			response.setPipelineStages(pipelineStats);
+
+			return Maybe.complete(response);
+		}
+
+		private AlreadyExists checkAndInstall() {
 			if (!request.getOverwrite()) {
-				AlreadyExists error = deleteProjectionIfInstallationExists();
+				AlreadyExists error;
+				try (Phase p = timing.begin(PHASE_CONFLICT_CHECK)) {
+					error = deleteProjectionIfInstallationExists();
+				}
 				if (error != null)
-					return error.asMaybe();
+					return error;
 			}
 
-			copyDir(mainTempPath, installationPath);
-			deleteDir(mainTempPath);
+			TemplateInstallEvent installEvent = new TemplateInstallEvent();
+			installEvent.begin();
+			long startNanos = System.nanoTime();
+			try (Phase p = timing.begin(PHASE_INSTALL)) {
+				install();
+			}
+			listener.onInstallCommitted(request, installationPath, guard.filesWritten(), guard.bytesWritten(), System.nanoTime() - startNanos);
+			installEvent.end();
+			if (installEvent.shouldCommit()) {
+				installEvent.template = request.getTemplate() != null ? request.getTemplate() : request.template();
+				installEvent.installationPath = installationPath.toString();
+				installEvent.setFiles(mainTempPath);
+				installEvent.commit();
+			}
 
-			return Maybe.complete(ArtifactTemplateResponse.T.create());
+			return null;
+		}
+
+		private void install() {
+			if (contentStore == null) {
+				copyDir(mainTempPath, installationPath);
+				return;
+			}
+
+			int linkedFiles = contentStore.linkedFiles();
+			contentStore.installDir(mainTempPath, installationPath);
+
+			if (verboseOutput && contentStore.linkedFiles() > linkedFiles)
+				console.println("Installed " + (contentStore.linkedFiles() - linkedFiles) + " file(s) as hardlinks to identical installed files.");
+		}
+
+		private boolean projectsInMemory() {
+			return request.getDryRun() || request.getArchiveFormat() != null;
+		}
+
+		/**
+		 * Projects the request in memory and returns the files which would be installed (dry run) and/or the projection as an archive, without
+		 * writing anything to the disk.
+		 */
+		private Maybe<ArtifactTemplateResponse> runInMemory() {
+			stage();
+
+			InMemoryProjectionOutput projection = inMemoryStaging;
+			ArtifactTemplateResponse response = ArtifactTemplateResponse.T.create();
+
+			if (request.getDryRun()) {
+				List<PlannedFile> plannedFiles;
+				try (Phase p = timing.begin(PHASE_CONFLICT_CHECK)) {
+					plannedFiles = planFiles(projection);
+				}
+
+				if (printInstallation)
+					printPlannedFiles(plannedFiles);
+				response.setPlannedFiles(plannedFiles);
+			}
+
+			if (request.getArchiveFormat() != null) {
+				// NOTE the archive is packed lazily, entry by entry, when the resource is streamed to the client
+				String baseName = requireNonNullElse(request.getDirectoryName(), "projection");
+				response.setArchive(ProjectionArchiveInputStream.toResource(projection, request.getArchiveFormat(), baseName));
+
+				if (printInstallation && !console.isQuiet())
+					console.println("Packing " + projection.files().size() + " files (" + projection.size() + " bytes) as " + request.getArchiveFormat());
+			}
+
+			TemplateTiming templateTiming = timing.toTiming();
+			if (verboseOutput) {
+				console.render(() -> ProjectionTimingRecorder.print(templateTiming));
+				printPipelineStats();
+			}
+			writeTrace();
+
+			response.setTiming(templateTiming);
+			response.setPipelineStages(pipelineStats);
+
+			return Maybe.complete(response);
+		}
+
+		private void printPlannedFiles(List<PlannedFile> plannedFiles) {
+			switch (console.mode()) {
+				case full:
+					console.println("Planned (dry run):");
+					for (PlannedFile plannedFile : plannedFiles)
+						console.println("    " + plannedFile.getStatus() + " " + plannedFile.getPath() + " (" + plannedFile.getSize() + " bytes)");
+					break;
+				case summary:
+					Map<PlannedFileStatus, Long> counts = plannedFiles.stream()
+							.collect(Collectors.groupingBy(PlannedFile::getStatus, () -> new EnumMap<>(PlannedFileStatus.class), Collectors.counting()));
+					console.println("Planned (dry run): " + plannedFiles.size() + " files, " + counts);
+					break;
+				case quiet:
+					break;
+			}
+		}
+
+		private List<PlannedFile> planFiles(InMemoryProjectionOutput projection) {
+			List<PlannedFile> result = newList();
+			for (Map.Entry<String, byte[]> e : projection.files().entrySet()) {
+				byte[] data = e.getValue();
+
+				PlannedFile plannedFile = PlannedFile.T.create();
+				plannedFile.setPath(e.getKey());
+				plannedFile.setSize(data.length);
+				plannedFile.setHash(sha256Hex(data));
+				plannedFile.setStatus(plannedFileStatus(installationPath.resolve(e.getKey()), data));
+
+				result.add(plannedFile);
+			}
+			return result;
+		}
+
+		private PlannedFileStatus plannedFileStatus(Path installedFile, byte[] data) {
+			if (!Files.exists(installedFile))
+				return PlannedFileStatus.create;
+
+			// same as the actual installation, which fails for any existing file unless overwriting is allowed
+			if (!request.getOverwrite())
+				return PlannedFileStatus.conflict;
+
+			try {
+				if (Files.isRegularFile(installedFile) && Files.size(installedFile) == data.length
+						&& Arrays.equals(Files.readAllBytes(installedFile), data))
+					return PlannedFileStatus.unchanged;
+				else
+					return PlannedFileStatus.overwrite;
+
+			} catch (IOException e) {
+				throw Exceptions.unchecked(e, "Failed to compare planned file with the installed one: " + installedFile);
+			}
+		}
+
+		/**
+		 * Projects the request into the staging dir without installing it. The caller is responsible for deleting the returned dir, which is null if
+		 * the request is projected in memory.
+		 */
+		public Path stage() {
+			try {
+				projectTemplate();
+				if (writeBehind != null)
+					try (Phase p = timing.begin(PHASE_WRITE_BEHIND)) {
+						writeBehind.flush();
+					}
+			} finally {
+				closePipeline();
+			}
+			console.flush();
+
+			if (verboseOutput && dedupedRequestsCount > 0)
+				console.println("Skipped " + dedupedRequestsCount + " identical template request(s), their projection was already staged.");
+
+			return mainTempPath;
+		}
+
+		/**
+		 * Resolves and extracts given template dependencies ahead, on the "resolve" and "extract" stages of the pipeline, while the projecting thread
+		 * projects the preceding ones. The projecting thread then takes the results in {@link #resolveTemplate(ArtifactTemplateRequest, String)} and
+		 * {@link #templatePath(ArchiveZip)}.
+		 */
+		private void prefetch(List<ArtifactTemplateRequest> requests) {
+			if (pipelineCapacity <= 0)
+				return;
+
+			for (ArtifactTemplateRequest r : requests) {
+				if (r instanceof CreateArtifacts) {
+					prefetch(((CreateArtifacts) r).getRequests());
+					continue;
+				}
+
+				// a template given by a FreeMarker expression is only known once the request is projected
+				String templateIdentification = requireNonNullElse(r.getTemplate(), r.template());
+				if (templateIdentification == null || isFreeMarkerExpression(templateIdentification))
+					continue;
+
+				if (resolveStage == null) {
+					resolveStage = new PipelineStage("resolve", PIPELINE_WORKERS, pipelineCapacity);
+					extractStage = new PipelineStage("extract", PIPELINE_WORKERS, pipelineCapacity);
+				}
+
+				CompletableFuture<ArchiveZip> resolution = resolveStage.submit(() -> resolver.resolve(r, templateIdentification, PhaseRecorder.NOOP));
+				// NOTE a cacheable template is not extracted ahead, as it is likely not extracted at all
+				CompletableFuture<Path> extraction = resolution.thenCompose(archiveZip -> //
+				archiveZip.sourceDir != null || isCacheable(r, archiveZip.artifact) //
+						? CompletableFuture.completedFuture(null) //
+						: extractStage.submit(() -> resolver.extract(archiveZip, PhaseRecorder.NOOP)));
+
+				prefetched.computeIfAbsent(templateIdentification, k -> new ArrayDeque<>()).add(new PrefetchedTemplate(resolution, extraction));
+			}
+		}
+
+		private boolean isFreeMarkerExpression(String s) {
+			return s.contains("${") || s.contains("#{") || s.contains("<#") || s.contains("[#");
+		}
+
+		/** Stops the pipeline and deletes the templates which were extracted ahead but not used (e.g. as an identical request was skipped). */
+		private void closePipeline() {
+			// NOTE resolve stage first, as it submits to the extract stage
+			if (resolveStage != null) {
+				resolveStage.close();
+				extractStage.close();
+				pipelineStats.add(resolveStage.stats());
+				pipelineStats.add(extractStage.stats());
+			}
+			if (writeBehind != null) {
+				writeBehind.close();
+				pipelineStats.add(writeBehind.stage().stats());
+			}
+
+			for (Deque<PrefetchedTemplate> prefetches : prefetched.values())
+				for (PrefetchedTemplate prefetch : prefetches)
+					discardExtraction(prefetch.extraction);
+			prefetched.clear();
+		}
+
+		private void discardExtraction(CompletableFuture<Path> extraction) {
+			if (extraction == null || extractedTemplateCache != null || !extraction.isDone() || extraction.isCompletedExceptionally())
+				return;
+
+			Path extracted = extraction.join();
+			if (extracted != null)
+				deleteDir(extracted);
+		}
+
+		private void printPipelineStats() {
+			if (pipelineStats.isEmpty())
+				return;
+
+			console.println("Pipeline:");
+			for (PipelineStageStats stage : pipelineStats)
+				console.println("    - " + stage.getName() + ": " + stage.getItems() + " items, max queue depth " + stage.getMaxQueueDepth()
+						+ String.format(Locale.ROOT, ", busy %.2f ms, blocked %.2f ms", stage.getBusyMillis(), stage.getBlockedMillis()));
+		}
+
+		public ProjectionTimingRecorder timing() {
+			return timing;
+		}
+
+		private void writeTrace() {
+			String traceFile = request.getTraceFile();
+			if (traceFile == null)
+				return;
+
+			Path tracePath = Paths.get(traceFile);
+			ChromeTraceWriter.write(timing, tracePath);
+			if (verboseOutput)
+				console.println("Projection trace written to: " + tracePath.toAbsolutePath());
 		}
 
 		private void projectTemplate() {
 			try {
-				projectTemplate(request);
+				projectTemplate(request, staging);
 			} catch (RuntimeException e) {
 				throw Exceptions.unchecked(e, "Failed to project the requested artifact template");
 			}
 		}
 
-		private void projectTemplate(ArtifactTemplateRequest request) {
+		/**
+		 * Projects given request and its template dependencies into given staging output.
+		 * 
+		 * @return true iff the projection of the entire sub-tree was staged into given staging output and may thus be {@link ProjectionCache
+		 *         cached}
+		 */
+		private boolean projectTemplate(ArtifactTemplateRequest request, ProjectionOutput staging) {
+			guard.enterTemplate();
+			timing.beginTemplate(request);
+			try {
+				if (request instanceof CreateArtifacts)
+					return projectBatch((CreateArtifacts) request, staging);
+				else
+					return projectTemplateTimed(request, staging);
+			} finally {
+				timing.endTemplate();
+				guard.exitTemplate();
+			}
+		}
+
+		/**
+		 * Stages the projections of all the requests of given batch into given staging output (respecting their installation paths relative to the
+		 * batch), so they are then checked and installed together.
+		 */
+		private boolean projectBatch(CreateArtifacts batch, ProjectionOutput staging) {
+			Path batchPath = Paths.get(batch.getInstallationPath()).toAbsolutePath().normalize();
+
+			for (ArtifactTemplateRequest part : batch.getRequests()) {
+				if (part.getInstallationPath() == null)
+					part.setInstallationPath(batch.getInstallationPath());
+
+				Path partPath = Paths.get(part.getInstallationPath()).toAbsolutePath().normalize();
+				if (!partPath.startsWith(batchPath))
+					throw new IllegalArgumentException("Installation path of " + part.entityType().getShortName() + " (" + partPath
+							+ ") is not within the installation path of the " + CreateArtifacts.T.getShortName() + " request: " + batchPath);
+
+				String partStagingDir = batchPath.relativize(partPath).toString().replace('\\', '/');
+				staging.createDir(partStagingDir);
+
+				projectTemplate(part, staging.resolve(partStagingDir));
+			}
+
+			return false;
+		}
+
+		private boolean projectTemplateTimed(ArtifactTemplateRequest request, ProjectionOutput staging) {
 			if (verboseOutput)
-				println("Projecting '" + request.entityType().getTypeSignature() + "' property values");
+				console.println("Projecting '" + request.entityType().getTypeSignature() + "' property values");
+
+			try (Phase p = timing.begin(PHASE_REQUEST_PROJECTION)) {
+				requestProjector.project(request);
+			}
 
-			requestProjector.project(request);
+			// NOTE an identical request (e.g. CreateSourceControlConfig emitted by multiple templates) already projected has staged exactly the
+			// same files. Only if a later projection has overwritten (or deleted) any of them, the request is projected again, so that it wins.
+			String targetDir = requireNonNullElse(request.getDirectoryName(), "");
+			String requestFingerprint = fingerprint(request, targetDir);
+			StagedWrites previousWrites = projectedRequests.get(requestFingerprint);
+			if (previousWrites != null && writeLog.isIntact(previousWrites)) {
+				dedupedRequestsCount++;
+				if (verboseOutput)
+					console.println("Skipping '" + request.entityType().getTypeSignature() + "' as an identical request was already projected to: "
+							+ staging.resolve(targetDir));
+				return false;
+			}
+
+			writeLog.begin();
+			boolean result = projectRequest(request, requestFingerprint, targetDir, staging);
+			projectedRequests.put(requestFingerprint, writeLog.end());
+			return result;
+		}
 
+		private boolean projectRequest(ArtifactTemplateRequest request, String requestFingerprint, String targetDir, ProjectionOutput staging) {
 			String templateIdentification = requireNonNullElse(request.getTemplate(), request.template());
+			timing.setTemplate(templateIdentification);
 
 			if (verboseOutput) {
-				println("Resolving artifact template:");
-				println(templateNameOutput(templateIdentification, 1));
+				console.println("Resolving artifact template:");
+				console.println(templateNameOutput(templateIdentification, 1));
 			}
 
 			// resolve template zip, ignore dependencies
 			ArchiveZip archiveZip = resolveTemplate(request, templateIdentification);
+			guard.checkpoint();
+			timing.setTemplate(archiveZip.artifact.asString());
 			if (verboseOutput) {
-				println("Found:");
-				outTemplateResolvingResult(archiveZip.artifact);
+				console.println("Found:");
+				console.println(templateNameOutput(archiveZip.artifact, 1));
+				if (archiveZip.sourceDir != null)
+					console.println("Using template source folder: " + archiveZip.sourceDir);
+			}
+
+			String cacheKey = archiveZip.sourceDir != null ? null : projectionCacheKey(request, archiveZip.artifact, requestFingerprint);
+			if (cacheKey == null) {
+				projectResolvedTemplate(request, templateIdentification, archiveZip, targetDir, staging);
+				return false;
+			}
+
+			CachedProjection cachedProjection = projectionCache.get(cacheKey);
+			if (cachedProjection != null) {
+				if (verboseOutput) {
+					console.println("Reusing cached projection (" + cachedProjection.fileCount() + " files) of artifact template:");
+					console.println(templateNameOutput(archiveZip.artifact, 1));
+				}
+				try (Phase p = timing.begin(PHASE_CACHE_REPLAY)) {
+					cachedProjection.replay(staging);
+				}
+				discardExtraction(archiveZip.extraction);
+				return true;
+			}
+
+			// NOTE the sub-tree is staged separately (in memory), so that we cache exactly what it projects, unless it is too large to be cached
+			// It is guarded and logged while being projected, so writing it into the actual staging does not charge or log it again
+			CapturingProjectionOutput isolatedStaging = new CapturingProjectionOutput(writeLog.unwrap(guard.unwrap(staging)),
+					projectionCache.maxBytes());
+			boolean cacheable = projectResolvedTemplate(request, templateIdentification, archiveZip, targetDir,
+					guard.wrap(writeLog.wrap(isolatedStaging)));
+
+			if (isolatedStaging.isSpilled())
+				return false;
+
+			try (Phase p = timing.begin(PHASE_CACHE_CAPTURE)) {
+				CachedProjection projection = isolatedStaging.captured();
+				if (cacheable)
+					projectionCache.put(cacheKey, projection);
 
-				println("Unzipping artifact template:");
-				println(templateNameOutput(archiveZip.artifact, 1));
+				projection.replay(writeLog.unwrap(guard.unwrap(staging)));
 			}
+			return cacheable;
+		}
+
+		private String projectionCacheKey(ArtifactTemplateRequest request, CompiledArtifactIdentification template, String requestFingerprint) {
+			return isCacheable(request, template) ? ProjectionCache.cacheKey(template, requestFingerprint) : null;
+		}
+
+		private boolean isCacheable(ArtifactTemplateRequest request, CompiledArtifactIdentification template) {
+			return projectionCache != null && request.cacheableProjection() && projectionCache.isCacheable(template);
+		}
+
+		private boolean projectResolvedTemplate(ArtifactTemplateRequest request, String templateIdentification, ArchiveZip archiveZip,
+				String targetDir, ProjectionOutput staging) {
+
+			Path templatePath = templatePath(archiveZip);
 
-			Path templatePath = unzipToTempDir(archiveZip.data.getResource(), "template-" + UUID.randomUUID());
+			// projections of source templates are never cached, as the source might change any moment
+			boolean cacheable = archiveZip.sourceDir == null;
 
 			// NOTE delegating only template delegates by evaluating other requests in its dependencies.groovy
-			List<ArtifactTemplateRequest> templateDependencies = getTemplateDependencies(templatePath, request);
+			List<ArtifactTemplateRequest> templateDependencies = getTemplateDependencies(templatePath, request, archiveZip);
+			guard.checkpoint();
+
 			if (request.delegatingOnly()) {
 				if (!templateDependencies.isEmpty())
-					println(ConsoleOutputs.yellow("WARNING: Ignoring dependencies of " + request.entityType().getShortName() + " with template "
+					console.println(ConsoleOutputs.yellow("WARNING: Ignoring dependencies of " + request.entityType().getShortName() + " with template "
 							+ templateIdentification + " because it is marked as delegating only."));
 
 			} else {
+				prefetch(templateDependencies);
 				for (ArtifactTemplateRequest td : templateDependencies)
-					projectTemplate(td);
+					cacheable &= projectTemplate(td, staging);
+
+				if (!console.isQuiet()) {
+					console.println("Projecting artifact template:");
+					console.println(templateNameOutput(archiveZip.artifact, 1));
+				}
+
+				staging.createDir(targetDir);
+				templateProjector.project(request, templatePath, staging.resolve(targetDir), timing);
+			}
+
+			if (resolver.isTemporary(archiveZip))
+				try (Phase p = timing.begin(PHASE_CLEANUP)) {
+					deleteDir(templatePath);
+				}
+
+			return cacheable;
+		}
 
-				println("Projecting artifact template:");
-				println(templateNameOutput(archiveZip.artifact, 1));
+		private Path templatePath(ArchiveZip archiveZip) {
+			if (archiveZip.sourceDir != null)
+				return archiveZip.sourceDir;
 
-				Path templateTempPath = mainTempPath.resolve(requireNonNullElse(request.getDirectoryName(), ""));
-				ensureDirExists(templateTempPath);
-				templateProjector.project(request, templatePath, templateTempPath);
+			if (verboseOutput) {
+				console.println("Unzipping artifact template:");
+				console.println(templateNameOutput(archiveZip.artifact, 1));
+			}
+
+			if (archiveZip.extraction != null) {
+				Path result;
+				try (Phase p = timing.begin(PHASE_UNZIP)) {
+					result = PipelineStage.await(archiveZip.extraction);
+				}
+				if (result != null)
+					return result;
 			}
 
-			deleteDir(templatePath);
+			return resolver.extract(archiveZip, timing);
 		}
 
 		private ArchiveZip resolveTemplate(ArtifactTemplateRequest request, String templateIdentification) {
+			Deque<PrefetchedTemplate> prefetches = prefetched.get(templateIdentification);
+			PrefetchedTemplate prefetch = prefetches == null ? null : prefetches.poll();
+			if (prefetch == null)
+				return resolver.resolve(request, templateIdentification, timing);
+
+			ArchiveZip result;
+			try (Phase p = timing.begin(PHASE_RESOLUTION)) {
+				result = PipelineStage.await(prefetch.resolution);
+			}
+			return new ArchiveZip(result, prefetch.extraction);
+		}
+
+		private List<ArtifactTemplateRequest> getTemplateDependencies(Path templatePath, ArtifactTemplateRequest request, ArchiveZip archiveZip) {
+			Path depsScriptPath = templatePath.resolve(DEPENDENCIES_SCRIPT);
+			if (!depsScriptPath.toFile().exists())
+				return Collections.emptyList();
+
+			TemplateScriptEvent event = new TemplateScriptEvent();
+			event.begin();
+			long startNanos = System.nanoTime();
+
+			Map<String, Object> dataModel = asMap( //
+					"request", request, //
+					"requestContext", requestContext, //
+					"support", new TemplateSupport(request, modeledConfiguration) //
+			);
+
+			try (Phase p = timing.begin(PHASE_GROOVY)) {
+				List<ArtifactTemplateRequest> result = (List<ArtifactTemplateRequest>) resolver.evaluateDependenciesScript(depsScriptPath, archiveZip, dataModel,
+						groovyEngine);
+
+				event.end();
+				if (event.shouldCommit()) {
+					event.template = archiveZip.artifact.asString();
+					event.scriptBytes = depsScriptPath.toFile().length();
+					event.dependencyCount = result == null ? 0 : result.size();
+					event.commit();
+				}
+				listener.onDependenciesEvaluated(request, archiveZip.artifact.asString(), result == null ? Collections.emptyList() : result,
+						System.nanoTime() - startNanos);
+
+				return result;
+			} catch (Exception e) {
+				throw Exceptions.unchecked(e, "Failed to evaluate the template " + DEPENDENCIES_SCRIPT + " script");
+			}
+		}
+
+		/** Stops the pipeline and deletes the staging dir, for processes which are never {@link #stage() staged}. */
+		public void close() {
+			closePipeline();
+			deleteStagingDir();
+		}
+
+		private void deleteStagingDir() {
+			if (mainTempPath != null)
+				deleteDir(mainTempPath);
+		}
+
+		private AlreadyExists deleteProjectionIfInstallationExists() {
+			List<Path> overwrittenFilePaths = collectOverwritenRelativePaths(mainTempPath, installationPath);
+			if (overwrittenFilePaths.isEmpty())
+				return null;
+
+			console.flush();
+			deleteDir(mainTempPath);
+			return AlreadyExists.create("Failed to install the template projection as the following files would be overwritten: "
+					+ overwrittenFilePaths + ". To enable overwritting, set request 'overwrite' flag to true.");
+		}
+
+	}
+
+	/**
+	 * Resolves, fetches and extracts the templates for one request (and all the requests it evaluates), pinning or checking them in the lockfile of
+	 * its dev environment. Unlike an {@link ArtifactTemplateProcess} it does not project anything, so it is also used on its own to
+	 * {@link WarmUpProcess warm up} templates.
+	 * <p>
+	 * This class is thread-safe.
+	 */
+	private class TemplateResolver {
+
+		private final File devEnvRoot;
+
+		private final DependencyResolver dependencyResolver;
+		private final ArtifactPartResolver partResolver;
+
+		/* null if there is no dev environment or lockfiles are not configured */
+		private final TemplateLockfile lockfile;
+		private final boolean refreshLock;
+
+		public TemplateResolver(ServiceRequestContext requestContext, ArtifactTemplateRequest request, ArtifactDataResolverContract adrContract) {
+			this.devEnvRoot = requestContext.findAttribute(DevEnvironment.class).map(DevEnvironment::getRootPath).orElse(null);
+			this.dependencyResolver = adrContract.dependencyResolver();
+			this.partResolver = adrContract.artifactResolver();
+			this.lockfile = templateLockfiles == null ? null : templateLockfiles.forDevEnv(devEnvRoot);
+			this.refreshLock = request.getRefreshLock();
+		}
+
+		/** @param phaseRecorder {@link PhaseRecorder#NOOP} when called from the pipeline, as the timing is only recorded by the projecting thread */
+		public ArchiveZip resolve(ArtifactTemplateRequest request, String templateIdentification, PhaseRecorder phaseRecorder) {
+			TemplateResolutionEvent event = new TemplateResolutionEvent();
+			event.begin();
+			long startNanos = System.nanoTime();
+
 			CompiledDependencyIdentification cdi = CompiledDependencyIdentification.parseAndRangify(templateIdentification);
 
-			Maybe<CompiledArtifactIdentification> maybeArtifact = dependencyResolver.resolveDependency(cdi);
+			ArchiveZip sourceTemplate = findSourceTemplate(cdi, phaseRecorder);
+			if (sourceTemplate != null) {
+				event.template = templateIdentification;
+				event.resolvedArtifact = sourceTemplate.sourceDir.toString();
+				event.commit();
+				listener.onTemplateResolved(request, templateIdentification, sourceTemplate.artifact.asString(), sourceTemplate.sourceDir,
+						System.nanoTime() - startNanos);
+				return sourceTemplate;
+			}
+
+			Pin pin = lockfile == null || refreshLock ? null : lockfile.get(templateIdentification);
+
+			CompiledArtifactIdentification artifact = pin != null ? pin.artifact
+					: resolveTemplateArtifact(request, templateIdentification, cdi, phaseRecorder);
+			ArtifactDataResolution data;
+			try (Phase p = phaseRecorder.begin(PHASE_PART_FETCH)) {
+				data = requireArchiveZip(artifact);
+				if (lockfile != null)
+					checkOrPin(templateIdentification, artifact, data, pin);
+			}
+
+			event.template = templateIdentification;
+			event.resolvedArtifact = artifact.asString();
+			event.commit();
+			listener.onTemplateResolved(request, templateIdentification, artifact.asString(), null, System.nanoTime() - startNanos);
+
+			return new ArchiveZip(artifact, data);
+		}
+
+		private CompiledArtifactIdentification resolveTemplateArtifact(ArtifactTemplateRequest request, String templateIdentification,
+				CompiledDependencyIdentification cdi, PhaseRecorder phaseRecorder) {
+
+			Maybe<CompiledArtifactIdentification> maybeArtifact;
+			try (Phase p = phaseRecorder.begin(PHASE_RESOLUTION)) {
+				maybeArtifact = dependencyResolver.resolveDependency(cdi);
+			}
 			if (maybeArtifact.isUnsatisfied())
 				throw new IllegalStateException("Unable to resolve template " + templateIdentification + " of " + request.entityType().getShortName()
 						+ ". Reason: " + maybeArtifact.whyUnsatisfied().stringify());
 
-			CompiledArtifactIdentification artifact = maybeArtifact.get();
-			ArtifactDataResolution data = requireArchiveZip(artifact);
+			return maybeArtifact.get();
+		}
 
-			return new ArchiveZip(artifact, data);
+		/**
+		 * Pins the resolved template in the lockfile, or checks that the archive of the pinned template has not changed. The archive is only hashed
+		 * once while its file does not change, see {@link FileHelper#contentHash(Resource)}.
+		 */
+		private void checkOrPin(String templateIdentification, CompiledArtifactIdentification artifact, ArtifactDataResolution data, Pin pin) {
+			String archiveHash = contentHash(data.getResource());
+			if (pin == null) {
+				lockfile.pin(templateIdentification, artifact, archiveHash);
+				return;
+			}
+
+			if (!pin.archiveHash.equals(archiveHash))
+				throw new IllegalStateException("The archive of template " + artifact.asString() + " (pinned for " + templateIdentification
+						+ " by lockfile " + lockfile.file() + ") has changed. Expected SHA-256: " + pin.archiveHash + ", actual: " + archiveHash
+						+ ". If the change is intended, project with 'refreshLock' to pin the templates again.");
+		}
+
+		private ArchiveZip findSourceTemplate(CompiledDependencyIdentification cdi, PhaseRecorder phaseRecorder) {
+			if (templateSources == null)
+				return null;
+
+			Path sourceDir;
+			try (Phase p = phaseRecorder.begin(PHASE_RESOLUTION)) {
+				sourceDir = templateSources.findTemplate(devEnvRoot, cdi.getGroupId(), cdi.getArtifactId());
+			}
+			if (sourceDir == null)
+				return null;
+
+			CompiledArtifactIdentification artifact = CompiledArtifactIdentification.create(cdi.getGroupId(), cdi.getArtifactId(),
+					templateSources.version(sourceDir));
+
+			return new ArchiveZip(artifact, sourceDir);
 		}
 
 		private ArtifactDataResolution requireArchiveZip(CompiledArtifactIdentification cai) {
@@ -307,48 +1264,620 @@ public class ArtifactTemplateProcessor
 			return resolutionMaybe.get();
 		}
 
-		private List<ArtifactTemplateRequest> getTemplateDependencies(Path templatePath, ArtifactTemplateRequest request) {
-			Path depsScriptPath = templatePath.resolve(DEPENDENCIES_SCRIPT);
-			if (!depsScriptPath.toFile().exists())
-				return Collections.emptyList();
+		/** @param phaseRecorder {@link PhaseRecorder#NOOP} when called from the pipeline, as the timing is only recorded by the projecting thread */
+		public Path extract(ArchiveZip archiveZip, PhaseRecorder phaseRecorder) {
+			TemplateUnzipEvent unzipEvent = new TemplateUnzipEvent();
+			unzipEvent.begin();
+			long startNanos = System.nanoTime();
+			Path templatePath;
+			try (Phase p = phaseRecorder.begin(PHASE_UNZIP)) {
+				if (extractedTemplateCache != null)
+					templatePath = extractedTemplateCache.extract(archiveZip.artifact, archiveZip.data.getResource());
+				else
+					templatePath = unzipToTempDir(archiveZip.data.getResource(), "template-" + UUID.randomUUID());
+			}
+			listener.onTemplateExtracted(archiveZip.artifact.asString(), templatePath, System.nanoTime() - startNanos);
+			unzipEvent.end();
+			if (unzipEvent.shouldCommit()) {
+				unzipEvent.template = archiveZip.artifact.asString();
+				unzipEvent.setFiles(templatePath);
+				unzipEvent.commit();
+			}
+
+			return templatePath;
+		}
+
+		/** Returns true iff the template is extracted into a temp dir for a single use, which has to delete it. */
+		public boolean isTemporary(ArchiveZip archiveZip) {
+			return archiveZip.sourceDir == null && extractedTemplateCache == null;
+		}
 
+		/**
+		 * @param groovyEngine
+		 *            evaluates the script of a template which is neither a source template nor in the {@link ExtractedTemplateCache}
+		 */
+		public Object evaluateDependenciesScript(Path depsScriptPath, ArchiveZip archiveZip, Map<String, Object> dataModel,
+				GroovyEngine groovyEngine) {
+			// the compiled script of a source template is cached until the script changes
+			if (archiveZip.sourceDir != null)
+				return templateSources.evaluateDependenciesScript(archiveZip.sourceDir, dataModel);
+
+			// the compiled script of a template in the extracted template cache is reused, as the template never changes
+			Path templatePath = depsScriptPath.getParent();
+			if (extractedTemplateCache != null && extractedTemplateCache.contains(templatePath))
+				return GroovyScripts.run(extractedTemplateCache.compiledScript(templatePath), dataModel);
+
+			// NOTE unlike the compiled scripts above, such a script is not interrupted by the guard, it is only aborted at the next checkpoint
 			GroovyScript dependenciesScript = GroovyScript.T.create();
 			Resource scriptResource = Resource.createTransient(() -> new FileInputStream(depsScriptPath.toFile()));
 			dependenciesScript.setSource(scriptResource);
+
+			return groovyEngine.evaluate(dependenciesScript, dataModel).get();
+		}
+
+	}
+
+	/**
+	 * Projects the entries of a manifest, each as a separate {@link ArtifactTemplateProcess}, with bounded parallelism. The entries share the
+	 * resolvers and the {@link ProjectionCache}. The group's parent pom and build script are updated once, after all the entries are projected.
+	 * <p>
+	 * If the manifest request specifies a trace file, the projections of all the entries are written into that one trace, each on the track of the
+	 * thread which projected it.
+	 */
+	private class ManifestProcess {
+
+		private static final int PROGRESS_INTERVAL = 10;
+		private static final long PROGRESS_INTERVAL_NANOS = 2_000_000_000L;
+
+		private final ServiceRequestContext requestContext;
+		private final CreateArtifactsFromManifest request;
+		private final ArtifactDataResolverContract adrContract;
+		private final boolean verboseOutput;
+
+		private final AtomicInteger projectedCount = new AtomicInteger();
+		private final List<String> failures = Collections.synchronizedList(newList());
+		/* of the projected entries, if a trace is to be written */
+		private final List<ProjectionTimingRecorder> entryTimings = Collections.synchronizedList(newList());
+		/* shared by all the entries, so identical files of different artifacts are hardlinked */
+		private final ContentStore contentStore;
+
+		private long startNanos;
+		private volatile long lastProgressNanos;
+
+		public ManifestProcess(ServiceRequestContext requestContext, CreateArtifactsFromManifest request, ArtifactDataResolverContract adrContract) {
+			this.requestContext = requestContext;
+			this.request = request;
+			this.adrContract = adrContract;
+			this.verboseOutput = requestContext.getAspect(OutputConfigAspect.class, OutputConfig.empty).verbose();
+			this.contentStore = request.getForceCopy() ? null : new ContentStore();
+		}
+
+		public Maybe<ArtifactTemplateResponse> run() {
+			Path manifest = Paths.get(request.getManifest());
+			int parallelism = Math.max(1, request.getParallelism());
+
+			println("Projecting entries of manifest: " + manifest);
+
+			startNanos = lastProgressNanos = System.nanoTime();
+			projectEntries(new ManifestReader(manifest, request.getFormat()), parallelism);
+			writeTrace();
+
+			if (contentStore != null && contentStore.linkedFiles() > 0)
+				println("Installed " + contentStore.linkedFiles() + " identical file(s) as hardlinks, saving " + contentStore.linkedBytes() + " bytes.");
+			printProgress(true);
+
+			updateGroup();
+
+			if (!failures.isEmpty())
+				return InternalError.create(failures.size() + " manifest entries could not be projected:\n    " + String.join("\n    ", failures))
+						.asMaybe();
+
+			return Maybe.complete(ArtifactTemplateResponse.T.create());
+		}
+
+		private void projectEntries(ManifestReader manifestReader, int parallelism) {
+			ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+			// bounds the number of read but not yet projected entries, so that a large manifest is not read into memory at once
+			Semaphore pendingEntries = new Semaphore(2 * parallelism);
+
+			try {
+				manifestReader.read(entry -> {
+					applyDefaults(entry);
+					pendingEntries.acquireUninterruptibly();
+					executor.execute(() -> {
+						try {
+							projectEntry(entry);
+						} finally {
+							pendingEntries.release();
+						}
+					});
+				});
+
+			} finally {
+				executor.shutdown();
+				awaitTermination(executor);
+			}
+		}
+
+		private void applyDefaults(ArtifactTemplateRequest entry) {
+			if (entry.getInstallationPath() == null || entry.getInstallationPath().equals("."))
+				entry.setInstallationPath(request.getInstallationPath());
+			if (request.getOverwrite())
+				entry.setOverwrite(true);
+			if (request.getRefreshLock())
+				entry.setRefreshLock(true);
+			if (entry.getConsoleOutput() == null)
+				entry.setConsoleOutput(request.getConsoleOutput());
+		}
+
+		private void projectEntry(ArtifactTemplateRequest entry) {
+			try {
+				ArtifactTemplateProcess process = new ArtifactTemplateProcess(requestContext, entry, adrContract, false, contentStore);
+				if (request.getTraceFile() != null)
+					entryTimings.add(process.timing());
+
+				Maybe<ArtifactTemplateResponse> result = process.run();
+				if (result.isUnsatisfied())
+					failures.add(describe(entry) + ": " + result.whyUnsatisfied().getText());
+
+			} catch (RuntimeException e) {
+				failures.add(describe(entry) + ": " + e.getMessage());
+			}
+
+			projectedCount.incrementAndGet();
+			printProgress(false);
+		}
+
+		private void writeTrace() {
+			String traceFile = request.getTraceFile();
+			if (traceFile == null)
+				return;
+
+			Path tracePath = Paths.get(traceFile);
+			synchronized (entryTimings) {
+				ChromeTraceWriter.write(entryTimings, tracePath);
+			}
+			println("Projection trace written to: " + tracePath.toAbsolutePath());
+		}
+
+		private String describe(ArtifactTemplateRequest entry) {
+			String shortName = entry.entityType().getShortName();
+			return entry instanceof CreateArtifact ? shortName + " " + ((CreateArtifact) entry).getArtifactId() : shortName;
+		}
+
+		private void printProgress(boolean done) {
+			long now = System.nanoTime();
+			int count = projectedCount.get();
+			if (!done && !verboseOutput && count % PROGRESS_INTERVAL != 0 && now - lastProgressNanos < PROGRESS_INTERVAL_NANOS)
+				return;
+
+			lastProgressNanos = now;
+			double seconds = (now - startNanos) / 1_000_000_000d;
+			println((done ? "Projected " : "Progress: ") + count + " entries (" + failures.size() + " failed) in "
+					+ String.format(Locale.ROOT, "%.1f s, %.1f entries/s", seconds, count / Math.max(seconds, 0.001)));
+		}
+
+		private void updateGroup() {
+			Map<String, String> dependencyVersions = request.getDependencyVersions();
+			if (!dependencyVersions.isEmpty()) {
+				List<String> groupIdVersionPairs = newList();
+				dependencyVersions.forEach((groupId, version) -> {
+					groupIdVersionPairs.add(groupId);
+					groupIdVersionPairs.add(version);
+				});
+
+				println("Ensuring dependency versions in the parent pom.");
+				new TemplateSupport(request, modeledConfiguration).ensureDependencyVersions(groupIdVersionPairs.toArray(new String[0]));
+			}
+
+			String buildSystem = request.getGroupBuildScript();
+			if (buildSystem != null) {
+				CreateGroupBuildScript groupBuildScript = CreateGroupBuildScript.T.create();
+				groupBuildScript.setInstallationPath(request.getInstallationPath());
+				groupBuildScript.setBuildSystem(buildSystem);
+				groupBuildScript.setOverwrite(true);
+				groupBuildScript.setBuiltArtifactIds(groupArtifactIds());
+
+				println("Re-projecting the group build script.");
+				Maybe<ArtifactTemplateResponse> result = new ArtifactTemplateProcess(requestContext, groupBuildScript, adrContract, verboseOutput)
+						.run();
+				if (result.isUnsatisfied())
+					failures.add(describe(groupBuildScript) + ": " + result.whyUnsatisfied().getText());
+			}
+		}
+
+		/** The folders of the group with a pom.xml, sorted by name. */
+		private List<String> groupArtifactIds() {
+			File[] dirs = new File(request.getInstallationPath()).listFiles(dir -> new File(dir, "pom.xml").isFile());
+			if (dirs == null)
+				return newList();
+
+			return Stream.of(dirs) //
+					.map(File::getName) //
+					.sorted() //
+					.collect(Collectors.toList());
+		}
+
+		private void awaitTermination(ExecutorService executor) {
+			try {
+				while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+					// keep waiting, projections of large templates may take a while
+				}
+			} catch (InterruptedException e) {
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+				throw Exceptions.unchecked(e, "Interrupted while projecting the entries of manifest: " + request.getManifest());
+			}
+		}
+
+	}
+
+	/**
+	 * Re-projects the build system and project metadata of the artifacts of a group, each as a separate {@link ArtifactTemplateProcess} which is
+	 * only {@link ArtifactTemplateProcess#stage() staged}, with only the changed files being copied to the group afterwards.
+	 */
+	private class GroupReprojectionProcess {
+
+		private final ServiceRequestContext requestContext;
+		private final ReprojectGroup request;
+		private final ArtifactDataResolverContract adrContract;
+
+		private final Path groupPath;
+		private final ArtifactInputsReader inputsReader;
+
+		public GroupReprojectionProcess(ServiceRequestContext requestContext, ReprojectGroup request, ArtifactDataResolverContract adrContract) {
+			this.requestContext = requestContext;
+			this.request = request;
+			this.adrContract = adrContract;
+			this.groupPath = Paths.get(request.getInstallationPath()).toAbsolutePath().normalize();
+			this.inputsReader = new ArtifactInputsReader(request.getForce());
+		}
+
+		public Maybe<ArtifactTemplateResponse> run() {
+			List<Path> artifactDirs = findArtifactDirs();
+			println("Re-projecting " + artifactDirs.size() + " artifact(s) of group: " + groupPath);
+
+			ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(request.getParallelism(), artifactDirs.size())));
+			List<Future<ArtifactReprojection>> futures = newList();
+			try {
+				for (Path artifactDir : artifactDirs)
+					futures.add(executor.submit(() -> reproject(artifactDir)));
+
+				List<ArtifactReprojection> reprojections = newList();
+				for (int i = 0; i < futures.size(); i++)
+					reprojections.add(awaitReprojection(futures.get(i), artifactDirs.get(i)));
+
+				return summarize(reprojections);
+
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		private List<Path> findArtifactDirs() {
+			File[] dirs = groupPath.toFile().listFiles(dir -> new File(dir, ArtifactInputsReader.POM_XML).isFile()
+					|| new File(dir, ArtifactInputsReader.DOT_PROJECT).isFile());
+			if (dirs == null)
+				throw new IllegalArgumentException("Group folder does not exist: " + groupPath);
+
+			List<String> artifactIds = request.getArtifactIds();
+			return Stream.of(dirs) //
+					.filter(dir -> artifactIds.isEmpty() || artifactIds.contains(dir.getName())) //
+					.map(File::toPath) //
+					.sorted() //
+					.collect(Collectors.toList());
+		}
+
+		private ArtifactReprojection reproject(Path artifactDir) {
+			ArtifactReprojection result = new ArtifactReprojection(artifactDir.getFileName().toString());
+
+			CreateArtifacts transaction = CreateArtifacts.T.create();
+			transaction.setInstallationPath(groupPath.toString());
+			transaction.setOverwrite(true);
+
+			try {
+				CreateBuildSystemConfig buildSystemConfig = inputsReader.readBuildSystemConfig(artifactDir);
+				if (buildSystemConfig != null)
+					transaction.getRequests().add(prepare(buildSystemConfig, result.artifactId, request.getBuildSystemTemplate()));
+			} catch (UnsupportedContentException e) {
+				result.skipped.add(e.getMessage());
+			}
+
+			try {
+				CreateProjectMetadata projectMetadata = inputsReader.readProjectMetadata(artifactDir, ArtifactInputsReader.buildSystem(artifactDir));
+				if (projectMetadata != null)
+					transaction.getRequests().add(prepare(projectMetadata, result.artifactId, request.getProjectMetadataTemplate()));
+			} catch (UnsupportedContentException e) {
+				result.skipped.add(e.getMessage());
+			}
+
+			if (transaction.getRequests().isEmpty())
+				return result;
+
+			Path stagingPath = new ArtifactTemplateProcess(requestContext, transaction, adrContract, false).stage();
+			try (Locked locked = PathLocks.INSTANCE.lockForInstalling(stagingPath, groupPath)) {
+				result.changedFiles.addAll(copyChangedFiles(stagingPath, groupPath));
+			} finally {
+				deleteDir(stagingPath);
+			}
+
+			return result;
+		}
+
+		private ArtifactTemplateRequest prepare(ArtifactTemplateRequest templateRequest, String artifactId, String template) {
+			templateRequest.setInstallationPath(groupPath.toString());
+			templateRequest.setDirectoryName(artifactId);
+			templateRequest.setOverwrite(true);
+			if (template != null)
+				templateRequest.setTemplate(template);
+
+			return templateRequest;
+		}
+
+		private ArtifactReprojection awaitReprojection(Future<ArtifactReprojection> future, Path artifactDir) {
+			try {
+				return future.get();
+
+			} catch (ExecutionException e) {
+				log.warn("Failed to re-project: " + artifactDir, e.getCause());
+
+				ArtifactReprojection result = new ArtifactReprojection(artifactDir.getFileName().toString());
+				// NOTE not just the message, which might be null
+				result.failure = e.getCause().toString();
+				return result;
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw Exceptions.unchecked(e, "Interrupted while re-projecting group: " + groupPath);
+			}
+		}
+
+		private Maybe<ArtifactTemplateResponse> summarize(List<ArtifactReprojection> reprojections) {
+			int changedFiles = 0, changedArtifacts = 0, skippedFiles = 0, failedArtifacts = 0;
+
+			println("Re-projection summary:");
+			for (ArtifactReprojection r : reprojections) {
+				if (!r.changedFiles.isEmpty()) {
+					changedArtifacts++;
+					changedFiles += r.changedFiles.size();
+					println("    " + r.artifactId + ": " + r.changedFiles.stream() //
+							.map(p -> r.artifactId.equals(p.getName(0).toString()) ? p.subpath(1, p.getNameCount()) : p) //
+							.map(Path::toString) //
+							.collect(Collectors.joining(", ")));
+				}
+				for (String skipped : r.skipped) {
+					skippedFiles++;
+					println(ConsoleOutputs.yellow("    " + r.artifactId + ": skipped - " + skipped));
+				}
+				if (r.failure != null) {
+					failedArtifacts++;
+					println(ConsoleOutputs.brightRed("    " + r.artifactId + ": failed - " + r.failure));
+				}
+			}
+
+			println("Changed " + changedFiles + " file(s) in " + changedArtifacts + " of " + reprojections.size() + " artifact(s), skipped "
+					+ skippedFiles + " file(s), " + failedArtifacts + " artifact(s) failed.");
+
+			if (failedArtifacts > 0)
+				return InternalError.create("Failed to re-project " + failedArtifacts + " artifact(s) of group: " + groupPath).asMaybe();
+
+			return Maybe.complete(ArtifactTemplateResponse.T.create());
+		}
+
+	}
+
+	/**
+	 * Warms up the default templates of all the concrete template requests and the explicitly requested templates, with bounded parallelism - see
+	 * {@link #warmUp(String, ArtifactTemplateRequest)}. If transitive, the template dependencies of each template are warmed up as well, level by
+	 * level. The templates are only resolved and extracted (by one {@link TemplateResolver} shared by all the threads), nothing is projected.
+	 */
+	private class WarmUpProcess {
+
+		private final WarmUpTemplates request;
+		private final TemplateResolver resolver;
+
+		private final List<String> failures = newList();
+		private int warmedUpCount;
+
+		public WarmUpProcess(ServiceRequestContext requestContext, WarmUpTemplates request, ArtifactDataResolverContract adrContract) {
+			this.request = request;
+			this.resolver = new TemplateResolver(requestContext, request, adrContract);
+		}
+
+		public Maybe<ArtifactTemplateResponse> run() {
+			/* by template identification; the value is the (default) request the dependencies.groovy is evaluated for, or null */
+			Map<String, ArtifactTemplateRequest> level = defaultTemplates();
+			for (String template : request.getTemplates())
+				level.putIfAbsent(template, null);
+
+			Set<String> seen = new HashSet<>(level.keySet());
+
+			println("Warming up " + level.size() + " template(s)" + (extractedTemplateCache == null ? " (no extracted template cache configured)" : ""));
+
+			long startNanos = System.nanoTime();
+			ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, request.getParallelism()));
+			try {
+				while (!level.isEmpty())
+					level = warmUp(level, seen, executor);
+
+			} finally {
+				executor.shutdownNow();
+			}
+
+			double seconds = (System.nanoTime() - startNanos) / 1_000_000_000d;
+			println("Warmed up " + warmedUpCount + " template(s) (" + failures.size() + " failed) in "
+					+ String.format(Locale.ROOT, "%.1f s", seconds));
+
+			if (!failures.isEmpty())
+				return InternalError.create(failures.size() + " template(s) could not be warmed up:\n    " + String.join("\n    ", failures)).asMaybe();
+
+			return Maybe.complete(ArtifactTemplateResponse.T.create());
+		}
+
+		/** Warms up given templates in parallel and returns the not yet seen template dependencies to warm up next (if transitive). */
+		private Map<String, ArtifactTemplateRequest> warmUp(Map<String, ArtifactTemplateRequest> templates, Set<String> seen,
+				ExecutorService executor) {
+
+			Map<String, Future<List<ArtifactTemplateRequest>>> futures = new LinkedHashMap<>();
+			templates.forEach((template, templateRequest) -> futures.put(template,
+					executor.submit(() -> warmUp(template, request.getTransitive() ? templateRequest : null))));
+
+			Map<String, ArtifactTemplateRequest> result = new LinkedHashMap<>();
+			futures.forEach((template, future) -> {
+				List<ArtifactTemplateRequest> dependencies = awaitWarmUp(template, future);
+				if (dependencies == null)
+					return;
+
+				warmedUpCount++;
+				for (ArtifactTemplateRequest dependency : flatten(dependencies)) {
+					String dependencyTemplate = requireNonNullElse(dependency.getTemplate(), dependency.template());
+					if (dependencyTemplate != null && seen.add(dependencyTemplate))
+						result.put(dependencyTemplate, dependency);
+				}
+			});
+			return result;
+		}
+
+		/**
+		 * Resolves, fetches and extracts given template without projecting it. If the {@link ExtractedTemplateCache} is set, the template stays
+		 * extracted and its FreeMarker templates and dependencies.groovy are compiled as well. Called by multiple threads at once.
+		 *
+		 * @param templateRequest
+		 *            if not null, the dependencies.groovy of the template is evaluated for this request (without a request context, so it cannot
+		 *            evaluate other requests) and the template dependencies it returns are returned
+		 */
+		private List<ArtifactTemplateRequest> warmUp(String templateIdentification, ArtifactTemplateRequest templateRequest) {
+			ArchiveZip archiveZip = resolver.resolve(requireNonNullElse(templateRequest, request), templateIdentification, PhaseRecorder.NOOP);
+			Path templatePath = archiveZip.sourceDir != null ? archiveZip.sourceDir : resolver.extract(archiveZip, PhaseRecorder.NOOP);
+			try {
+				if (extractedTemplateCache != null && extractedTemplateCache.contains(templatePath))
+					extractedTemplateCache.precompile(templatePath);
+
+				if (templateRequest == null)
+					return Collections.emptyList();
+
+				return evaluateForWarmUp(templatePath, templateRequest, archiveZip);
+
+			} finally {
+				if (resolver.isTemporary(archiveZip))
+					deleteDir(templatePath);
+			}
+		}
+
+		private List<ArtifactTemplateRequest> evaluateForWarmUp(Path templatePath, ArtifactTemplateRequest templateRequest, ArchiveZip archiveZip) {
+			Path depsScriptPath = templatePath.resolve(DEPENDENCIES_SCRIPT);
+			if (!Files.exists(depsScriptPath))
+				return Collections.emptyList();
+
 			Map<String, Object> dataModel = asMap( //
-					"request", request, //
-					"requestContext", requestContext, //
-					"support", new TemplateSupport(request, modeledConfiguration) //
+					"request", templateRequest, //
+					"requestContext", null, //
+					"support", new TemplateSupport(templateRequest, modeledConfiguration) //
 			);
 
 			try {
-				Maybe<Object> evaluateDependencies = groovyEngine.evaluate(dependenciesScript, dataModel);
-				return (List<ArtifactTemplateRequest>) evaluateDependencies.get();
+				// NOTE a new engine, as the warm-ups run in parallel
+				List<ArtifactTemplateRequest> result = (List<ArtifactTemplateRequest>) resolver.evaluateDependenciesScript(depsScriptPath, archiveZip,
+						dataModel, new GroovyEngine());
+				return result == null ? Collections.emptyList() : result;
 			} catch (Exception e) {
-				throw Exceptions.unchecked(e, "Failed to evaluate the template " + DEPENDENCIES_SCRIPT + " script");
+				throw Exceptions.unchecked(e, "Failed to evaluate the " + DEPENDENCIES_SCRIPT + " script of template " + archiveZip.artifact.asString());
 			}
 		}
 
-		private AlreadyExists deleteProjectionIfInstallationExists() {
-			List<Path> overwrittenFilePaths = collectOverwritenRelativePaths(mainTempPath, installationPath);
-			if (overwrittenFilePaths.isEmpty())
+		private List<ArtifactTemplateRequest> awaitWarmUp(String template, Future<List<ArtifactTemplateRequest>> future) {
+			try {
+				return future.get();
+
+			} catch (ExecutionException e) {
+				log.warn("Failed to warm up template: " + template, e.getCause());
+				failures.add(template + ": " + e.getCause());
 				return null;
 
-			deleteDir(mainTempPath);
-			return AlreadyExists.create("Failed to install the template projection as the following files would be overwritten: "
-					+ overwrittenFilePaths + ". To enable overwritting, set request 'overwrite' flag to true.");
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw Exceptions.unchecked(e, "Interrupted while warming up template: " + template);
+			}
+		}
+
+		private List<ArtifactTemplateRequest> flatten(List<ArtifactTemplateRequest> requests) {
+			List<ArtifactTemplateRequest> result = newList();
+			for (ArtifactTemplateRequest r : requests)
+				if (r instanceof CreateArtifacts)
+					result.addAll(flatten(((CreateArtifacts) r).getRequests()));
+				else
+					result.add(r);
+			return result;
+		}
+
+		/** The default templates of all the concrete requests of the service model, each with a default instance of its request. */
+		private Map<String, ArtifactTemplateRequest> defaultTemplates() {
+			Map<String, ArtifactTemplateRequest> result = new TreeMap<>();
+
+			for (GmType gmType : ArtifactTemplateRequest.T.getModel().getMetaModel().getTypes()) {
+				if (!gmType.isGmEntity())
+					continue;
+
+				EntityType<?> type = GMF.getTypeReflection().findEntityType(gmType.getTypeSignature());
+				if (type == null || type.isAbstract() || !ArtifactTemplateRequest.T.isAssignableFrom(type))
+					continue;
+
+				ArtifactTemplateRequest templateRequest = (ArtifactTemplateRequest) type.create();
+				String template = templateRequest.template();
+				if (template != null)
+					result.putIfAbsent(template, templateRequest);
+			}
+
+			return result;
 		}
 
 	}
 
+	private static class ArtifactReprojection {
+		final String artifactId;
+		final List<Path> changedFiles = newList();
+		final List<String> skipped = newList();
+		String failure;
+
+		ArtifactReprojection(String artifactId) {
+			this.artifactId = artifactId;
+		}
+	}
+
+	private static class PrefetchedTemplate {
+		final CompletableFuture<ArchiveZip> resolution;
+		final CompletableFuture<Path> extraction;
+
+		PrefetchedTemplate(CompletableFuture<ArchiveZip> resolution, CompletableFuture<Path> extraction) {
+			this.resolution = resolution;
+			this.extraction = extraction;
+		}
+	}
+
 	private static class ArchiveZip {
 		public CompiledArtifactIdentification artifact;
 		public ArtifactDataResolution data;
+		/* set instead of data if the template is taken from a source folder, see TemplateSources */
+		public Path sourceDir;
+		/* set if the pipeline extracts the template ahead, see ArtifactTemplateProcess.prefetch(List) - the result is null if it does not */
+		public CompletableFuture<Path> extraction;
 
 		public ArchiveZip(CompiledArtifactIdentification artifact, ArtifactDataResolution data) {
 			this.artifact = artifact;
 			this.data = data;
 		}
+
+		public ArchiveZip(CompiledArtifactIdentification artifact, Path sourceDir) {
+			this.artifact = artifact;
+			this.sourceDir = sourceDir;
+		}
+
+		public ArchiveZip(ArchiveZip resolved, CompletableFuture<Path> extraction) {
+			this.artifact = resolved.artifact;
+			this.data = resolved.data;
+			this.sourceDir = resolved.sourceDir;
+			this.extraction = extraction;
+		}
 	}
 
 }
@@ -0,0 +1,65 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.cache;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.braintribe.template.processing.api.ProjectionOutput;
+import com.braintribe.template.processing.output.InMemoryProjectionOutput;
+
+/**
+ * The rendered file set of a template projection (including the projections of its dependencies), relative to the staging directory.
+ */
+public class CachedProjection {
+
+	private final List<String> dirs;
+	private final Map<String, byte[]> files;
+	private final long size;
+
+	private CachedProjection(List<String> dirs, Map<String, byte[]> files) {
+		this.dirs = dirs;
+		this.files = files;
+		this.size = files.values().stream().mapToLong(data -> data.length).sum();
+	}
+
+	/** Takes a snapshot of all the files and directories of given in-memory projection. */
+	public static CachedProjection capture(InMemoryProjectionOutput projection) {
+		return new CachedProjection(new ArrayList<>(projection.dirs()), new TreeMap<>(projection.files()));
+	}
+
+	/** Writes the cached files and directories into given output, overwriting existing files. */
+	public void replay(ProjectionOutput output) {
+		for (String dir : dirs)
+			output.createDir(dir);
+
+		for (Map.Entry<String, byte[]> e : files.entrySet())
+			output.writeFile(e.getKey(), new ByteArrayInputStream(e.getValue()));
+	}
+
+	/** Total number of bytes of the cached files. */
+	public long size() {
+		return size;
+	}
+
+	public int fileCount() {
+		return files.size();
+	}
+
+}
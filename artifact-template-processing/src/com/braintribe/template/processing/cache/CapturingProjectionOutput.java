@@ -0,0 +1,181 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.cache;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.braintribe.template.processing.api.ProjectionOutput;
+import com.braintribe.template.processing.output.InMemoryProjectionOutput;
+
+/**
+ * {@link ProjectionOutput} which captures a projection in memory, so that it can be {@link CachedProjection cached}, but only up to given number
+ * of bytes. Once the captured files are larger, they are spilled into the target output and all the following writes go there directly, as such a
+ * projection could not be cached anyway.
+ * <p>
+ * The views returned by {@link #resolve(String)} share the state of the output they were resolved from.
+ */
+public class CapturingProjectionOutput implements ProjectionOutput {
+
+	private final Capture capture;
+	private final ProjectionOutput memoryView;
+	private final ProjectionOutput targetView;
+
+	/**
+	 * @param target
+	 *            the output the projection is spilled into, with the same root as this output
+	 */
+	public CapturingProjectionOutput(ProjectionOutput target, long maxBytes) {
+		this(new Capture(target, maxBytes), null, null);
+	}
+
+	private CapturingProjectionOutput(Capture capture, ProjectionOutput memoryView, ProjectionOutput targetView) {
+		this.capture = capture;
+		this.memoryView = memoryView != null ? memoryView : capture.memory;
+		this.targetView = targetView != null ? targetView : capture.target;
+	}
+
+	/** Returns true iff the projection was too large and was thus spilled into the target output. */
+	public boolean isSpilled() {
+		return capture.memory == null;
+	}
+
+	/** Returns the captured projection, or null if it was {@link #isSpilled() spilled}. */
+	public CachedProjection captured() {
+		return isSpilled() ? null : CachedProjection.capture(capture.memory);
+	}
+
+	@Override
+	public ProjectionOutput resolve(String relativePath) {
+		return new CapturingProjectionOutput(capture, memoryView.resolve(relativePath), targetView.resolve(relativePath));
+	}
+
+	@Override
+	public void createDir(String relativePath) {
+		current().createDir(relativePath);
+	}
+
+	@Override
+	public OutputStream openFile(String relativePath) {
+		if (isSpilled())
+			return targetView.openFile(relativePath);
+
+		return new FilterOutputStream(memoryView.openFile(relativePath)) {
+			private long written;
+
+			@Override
+			public void write(int b) throws IOException {
+				out.write(b);
+				written++;
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+				written += len;
+			}
+
+			@Override
+			public void close() throws IOException {
+				super.close();
+				capture.onCaptured(written);
+			}
+		};
+	}
+
+	@Override
+	public void writeFile(String relativePath, InputStream content) {
+		if (isSpilled()) {
+			targetView.writeFile(relativePath, content);
+			return;
+		}
+
+		long[] read = { 0 };
+		memoryView.writeFile(relativePath, new FilterInputStream(content) {
+			@Override
+			public int read() throws IOException {
+				int b = super.read();
+				if (b >= 0)
+					read[0]++;
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int n = super.read(b, off, len);
+				if (n > 0)
+					read[0] += n;
+				return n;
+			}
+		});
+		capture.onCaptured(read[0]);
+	}
+
+	@Override
+	public boolean exists(String relativePath) {
+		return current().exists(relativePath);
+	}
+
+	@Override
+	public void deleteFile(String relativePath) {
+		current().deleteFile(relativePath);
+	}
+
+	@Override
+	public void moveFile(String sourcePath, String targetPath) {
+		current().moveFile(sourcePath, targetPath);
+	}
+
+	@Override
+	public void onRendering(long renderedBytes) {
+		current().onRendering(renderedBytes);
+	}
+
+	private ProjectionOutput current() {
+		return isSpilled() ? targetView : memoryView;
+	}
+
+	@Override
+	public String toString() {
+		return isSpilled() ? targetView.toString() : "captured projection (in memory)";
+	}
+
+	private static class Capture {
+		private final ProjectionOutput target;
+		private final long maxBytes;
+		/* null once spilled */
+		private InMemoryProjectionOutput memory = new InMemoryProjectionOutput();
+		/* NOTE a file written more than once is counted each time, which only makes the capture spill earlier */
+		private long capturedBytes;
+
+		Capture(ProjectionOutput target, long maxBytes) {
+			this.target = target;
+			this.maxBytes = maxBytes;
+		}
+
+		void onCaptured(long bytes) {
+			capturedBytes += bytes;
+			if (memory != null && capturedBytes > maxBytes) {
+				CachedProjection.capture(memory).replay(target);
+				memory = null;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,218 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.cache;
+
+import static com.braintribe.template.processing.helper.FileHelper.collectRelativePaths;
+import static com.braintribe.template.processing.helper.FileHelper.contentHash;
+import static com.braintribe.template.processing.helper.FileHelper.deleteDir;
+import static com.braintribe.template.processing.helper.FileHelper.ensureDirExists;
+import static com.braintribe.template.processing.helper.FileHelper.unzip;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.braintribe.exception.Exceptions;
+import com.braintribe.model.artifact.compiled.CompiledArtifactIdentification;
+import com.braintribe.model.resource.Resource;
+import com.braintribe.template.processing.ArtifactTemplateConsts;
+import com.braintribe.template.processing.helper.GroovyScripts;
+import com.braintribe.template.processing.projection.engine.PlaceholderTemplate;
+import com.braintribe.template.processing.projection.engine.PlaceholderTemplateEngine;
+
+import freemarker.template.Configuration;
+import freemarker.template.Version;
+import groovy.lang.Script;
+
+/**
+ * Persistent cache of extracted template archives - each template artifact is extracted once into a folder named by its identification and the hash
+ * of its archive, and then used directly by all the projections (instead of being unzipped into a temp folder every time). As the extracted
+ * templates never change, their compiled FreeMarker and placeholder templates and dependencies.groovy scripts are kept in memory as well (for the most recently used
+ * templates).
+ * <p>
+ * The folders are created atomically, so multiple processes (e.g. parallel builds on one machine) can share the cache.
+ */
+public class ExtractedTemplateCache implements ArtifactTemplateConsts {
+
+	private static final int MAX_COMPILED_TEMPLATES = 64;
+
+	private final Path root;
+	private final Version freeMarkerVersion;
+
+	private final Map<Path, CompiledTemplate> compiledTemplates = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Path, CompiledTemplate> eldest) {
+			return size() > MAX_COMPILED_TEMPLATES;
+		}
+	});
+
+	public ExtractedTemplateCache(Path root, Version freeMarkerVersion) {
+		this.root = root.toAbsolutePath().normalize();
+		this.freeMarkerVersion = freeMarkerVersion;
+	}
+
+	/** Returns the folder with the extracted archive of given template, extracting it first if needed. The folder must not be modified. */
+	public Path extract(CompiledArtifactIdentification artifact, Resource archive) {
+		String identification = artifact.asString();
+		String version = identification.substring(identification.indexOf('#') + 1);
+		Path dir = root.resolve(artifact.getGroupId()).resolve(artifact.getArtifactId()).resolve(version + "-" + contentHash(archive).substring(0, 16));
+		if (Files.isDirectory(dir))
+			return dir;
+
+		Path tmp = dir.resolveSibling(dir.getFileName() + ".tmp-" + UUID.randomUUID());
+		ensureDirExists(tmp);
+		try {
+			unzip(archive, tmp);
+			Files.move(tmp, dir, StandardCopyOption.ATOMIC_MOVE);
+
+		} catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+			// extracted concurrently, by another thread or process
+			deleteDir(tmp);
+
+		} catch (IOException | RuntimeException e) {
+			deleteDir(tmp);
+			throw Exceptions.unchecked(e, "Failed to extract template " + identification + " into: " + dir);
+		}
+
+		return dir;
+	}
+
+	/** Returns true iff given folder is a template extracted by this cache. */
+	public boolean contains(Path templateDir) {
+		return templateDir.toAbsolutePath().normalize().startsWith(root);
+	}
+
+	/** Returns the (reused) FreeMarker configuration for the dynamic dir of a cached template, or null if the dir is not in this cache. */
+	public Configuration freeMarkerConfiguration(Path dynamicDir) {
+		Path templateDir = dynamicDir.toAbsolutePath().normalize().getParent().getParent();
+		return contains(templateDir) ? compiledTemplate(templateDir).freeMarkerConfiguration() : null;
+	}
+
+	/** Returns the (reused) compiled placeholder template with given name of the dynamic dir of a cached template. */
+	public PlaceholderTemplate placeholderTemplate(Path dynamicDir, String templateName) {
+		Path templateDir = dynamicDir.toAbsolutePath().normalize().getParent().getParent();
+		return compiledTemplate(templateDir).placeholderTemplate(templateName);
+	}
+
+	/** Returns the compiled dependencies.groovy of given cached template. */
+	public Class<? extends Script> compiledScript(Path templateDir) {
+		return compiledTemplate(templateDir).compiledScript();
+	}
+
+	/**
+	 * Compiles the dependencies.groovy and all the FreeMarker and placeholder templates of given cached template, so the first projection does not have to, and
+	 * to make sure they do compile.
+	 */
+	public void precompile(Path templateDir) {
+		CompiledTemplate compiled = compiledTemplate(templateDir);
+		if (Files.exists(templateDir.resolve(DEPENDENCIES_SCRIPT)))
+			compiled.compiledScript();
+
+		Path dynamicDir = templateDir.resolve(DYNAMIC_DIR_FULL);
+		if (!Files.exists(dynamicDir))
+			return;
+
+		Configuration config = compiled.freeMarkerConfiguration();
+		List<Path> files = collectRelativePaths(dynamicDir);
+		for (Path file : files) {
+			String name = file.toString().replace(File.separatorChar, '/');
+			if (Files.isDirectory(dynamicDir.resolve(file)))
+				continue;
+
+			if (name.endsWith(PlaceholderTemplateEngine.EXTENSION)) {
+				compiled.placeholderTemplate(name);
+				continue;
+			}
+
+			try {
+				config.getTemplate(name);
+			} catch (IOException e) {
+				throw Exceptions.unchecked(e, "Failed to compile FreeMarker template " + name + " of: " + templateDir);
+			}
+		}
+	}
+
+	private CompiledTemplate compiledTemplate(Path templateDir) {
+		return compiledTemplates.computeIfAbsent(templateDir.toAbsolutePath().normalize(), CompiledTemplate::new);
+	}
+
+	private class CompiledTemplate {
+		private final Path templateDir;
+		private Configuration freeMarkerConfig;
+		private Class<? extends Script> scriptClass;
+		private final Map<String, PlaceholderTemplate> placeholderTemplates = new ConcurrentHashMap<>();
+
+		CompiledTemplate(Path templateDir) {
+			this.templateDir = templateDir;
+		}
+
+		synchronized Configuration freeMarkerConfiguration() {
+			if (freeMarkerConfig == null) {
+				Path dynamicDir = templateDir.resolve(DYNAMIC_DIR_FULL);
+				try {
+					Configuration config = new Configuration(freeMarkerVersion);
+					config.setDirectoryForTemplateLoading(dynamicDir.toFile());
+					// the cached templates never change
+					config.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+					freeMarkerConfig = config;
+				} catch (IOException e) {
+					throw Exceptions.unchecked(e, "Failed to configure FreeMarker for: " + dynamicDir);
+				}
+			}
+			return freeMarkerConfig;
+		}
+
+		PlaceholderTemplate placeholderTemplate(String templateName) {
+			return placeholderTemplates.computeIfAbsent(templateName, this::compilePlaceholderTemplate);
+		}
+
+		private PlaceholderTemplate compilePlaceholderTemplate(String templateName) {
+			Path file = templateDir.resolve(DYNAMIC_DIR_FULL).resolve(templateName);
+			try {
+				return PlaceholderTemplateEngine.compile(file);
+			} catch (IOException e) {
+				throw Exceptions.unchecked(e, "Failed to read placeholder template: " + file);
+			}
+		}
+
+		synchronized Class<? extends Script> compiledScript() {
+			if (scriptClass == null) {
+				Path scriptPath = templateDir.resolve(DEPENDENCIES_SCRIPT);
+				try {
+					String source = new String(Files.readAllBytes(scriptPath), StandardCharsets.UTF_8);
+					scriptClass = GroovyScripts.compile(source, DEPENDENCIES_SCRIPT);
+				} catch (IOException e) {
+					throw Exceptions.unchecked(e, "Failed to read: " + scriptPath);
+				}
+			}
+			return scriptClass;
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.braintribe.cfg.Configurable;
+import com.braintribe.model.artifact.compiled.CompiledArtifactIdentification;
+
+/**
+ * Size-bounded (least recently used) cache of {@link CachedProjection projections}, keyed by the resolved template and the fingerprint of the
+ * projected request.
+ * <p>
+ * This cache lives as long as the processor which owns it, i.e. it is shared by all the requests of a session.
+ */
+public class ProjectionCache {
+
+	private final long maxBytes;
+	private long currentBytes;
+	private Set<String> excludedTemplates = Collections.emptySet();
+
+	private final Map<String, CachedProjection> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	public ProjectionCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/** Templates (in the form of "groupId:artifactId") whose projections are never cached, e.g. because they are not deterministic. */
+	@Configurable
+	public void setExcludedTemplates(Set<String> excludedTemplates) {
+		this.excludedTemplates = excludedTemplates;
+	}
+
+	/** Projections larger than this are never cached. */
+	public long maxBytes() {
+		return maxBytes;
+	}
+
+	public boolean isCacheable(CompiledArtifactIdentification template) {
+		return !excludedTemplates.contains(template.getGroupId() + ":" + template.getArtifactId());
+	}
+
+	public static String cacheKey(CompiledArtifactIdentification template, String requestFingerprint) {
+		return template.asString() + " " + requestFingerprint;
+	}
+
+	public synchronized CachedProjection get(String key) {
+		return entries.get(key);
+	}
+
+	public synchronized void put(String key, CachedProjection projection) {
+		if (projection.size() > maxBytes)
+			return;
+
+		CachedProjection previous = entries.put(key, projection);
+		if (previous != null)
+			currentBytes -= previous.size();
+		currentBytes += projection.size();
+
+		evictIfNeeded();
+	}
+
+	private void evictIfNeeded() {
+		Iterator<CachedProjection> it = entries.values().iterator();
+		while (currentBytes > maxBytes && it.hasNext()) {
+			currentBytes -= it.next().size();
+			it.remove();
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		currentBytes = 0;
+	}
+
+}
@@ -0,0 +1,110 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.console;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+import com.braintribe.logging.Logger;
+
+/**
+ * Renders console events on a single background thread, in the order they were submitted, so the threads emitting them do not wait for the console.
+ * <p>
+ * The queue of pending events is bounded - if the console cannot keep up, the emitting threads block until there is space again.
+ */
+public class AsyncConsoleRenderer {
+
+	private static final Logger log = Logger.getLogger(AsyncConsoleRenderer.class);
+
+	/** Renderer shared by the entire JVM, as the console is. */
+	public static final AsyncConsoleRenderer INSTANCE = new AsyncConsoleRenderer(4096);
+
+	private final BlockingQueue<Runnable> events;
+	private volatile Thread thread;
+
+	public AsyncConsoleRenderer(int capacity) {
+		this.events = new ArrayBlockingQueue<>(capacity);
+	}
+
+	/** Submits given event for rendering, blocking only if the queue is full. */
+	public void submit(Runnable event) {
+		Thread renderingThread = ensureStarted();
+		if (Thread.currentThread() == renderingThread) {
+			// an event emitting further events must not wait for itself
+			render(event);
+			return;
+		}
+
+		try {
+			events.put(event);
+		} catch (InterruptedException e) {
+			// e.g. an aborted projection, the event is still rendered, just not asynchronously
+			Thread.currentThread().interrupt();
+			render(event);
+		}
+	}
+
+	/** Waits until all the events submitted so far are rendered. */
+	public void flush() {
+		if (Thread.currentThread() == thread)
+			return;
+
+		CountDownLatch rendered = new CountDownLatch(1);
+		submit(rendered::countDown);
+
+		try {
+			rendered.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private Thread ensureStarted() {
+		Thread result = thread;
+		if (result != null)
+			return result;
+
+		synchronized (this) {
+			if (thread == null) {
+				Thread t = new Thread(this::renderEvents, "template-console-renderer");
+				t.setDaemon(true);
+				t.start();
+				thread = t;
+			}
+			return thread;
+		}
+	}
+
+	private void renderEvents() {
+		try {
+			while (true)
+				render(events.take());
+
+		} catch (InterruptedException e) {
+			// shutting down
+		}
+	}
+
+	private static void render(Runnable event) {
+		try {
+			event.run();
+		} catch (RuntimeException e) {
+			log.warn("Failed to render console event.", e);
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.console;
+
+import static com.braintribe.console.output.ConsoleOutputFiles.outputProjectionDirectoryTree;
+import static java.util.Objects.requireNonNullElse;
+
+import java.nio.file.Path;
+
+import com.braintribe.console.ConsoleOutputs;
+import com.braintribe.console.output.ConsoleOutput;
+import com.braintribe.devrock.templates.model.ConsoleOutputMode;
+import com.braintribe.template.processing.api.console.ProjectionConsoleSink;
+
+/**
+ * The console output of a single projection, as a stream of events which are rendered by the {@link AsyncConsoleRenderer}.
+ * <p>
+ * The {@link #tree(Path) trees} are read from the disk only when rendered, so a dir must not be deleted before the console is {@link #flush()
+ * flushed}. In {@link ConsoleOutputMode#quiet quiet} mode no tree is read at all.
+ * <p>
+ * If a {@link ProjectionConsoleSink sink} is given, the events are submitted to it instead, and it is up to the sink when they are rendered. The
+ * trees are then read right away and in {@link ConsoleOutputMode#full full} mode printed as a plain list of all the files, and {@link #flush()}
+ * does nothing.
+ */
+public class ProjectionConsole {
+
+	private final ConsoleOutputMode mode;
+	private final AsyncConsoleRenderer renderer;
+	private final ProjectionConsoleSink sink;
+
+	/** @param mode null means {@link ConsoleOutputMode#full full} */
+	public ProjectionConsole(ConsoleOutputMode mode) {
+		this(mode, AsyncConsoleRenderer.INSTANCE);
+	}
+
+	public ProjectionConsole(ConsoleOutputMode mode, AsyncConsoleRenderer renderer) {
+		this(mode, renderer, null);
+	}
+
+	/**
+	 * @param sink
+	 *            null means the events are rendered by the {@link AsyncConsoleRenderer#INSTANCE shared renderer}
+	 */
+	public ProjectionConsole(ConsoleOutputMode mode, ProjectionConsoleSink sink) {
+		this(mode, AsyncConsoleRenderer.INSTANCE, sink);
+	}
+
+	private ProjectionConsole(ConsoleOutputMode mode, AsyncConsoleRenderer renderer, ProjectionConsoleSink sink) {
+		this.mode = requireNonNullElse(mode, ConsoleOutputMode.full);
+		this.renderer = renderer;
+		this.sink = sink;
+	}
+
+	public ConsoleOutputMode mode() {
+		return mode;
+	}
+
+	/** Returns true iff only the essential output (e.g. warnings) is to be printed, not the progress of the individual templates. */
+	public boolean isQuiet() {
+		return mode == ConsoleOutputMode.quiet;
+	}
+
+	public void println(String text) {
+		submit(() -> ConsoleOutputs.println(text));
+	}
+
+	public void println(ConsoleOutput output) {
+		submit(() -> ConsoleOutputs.println(output));
+	}
+
+	/** Renders arbitrary output, e.g. of a helper which prints directly. Whatever the rendering reads must not change until it is rendered. */
+	public void render(Runnable rendering) {
+		submit(rendering);
+	}
+
+	/** Prints the files of given dir, according to the {@link #mode() mode}. */
+	public void tree(Path dir) {
+		switch (mode) {
+			case full:
+				submit(sink == null ? () -> outputProjectionDirectoryTree(dir) : ProjectionTreeSummary.snapshot(dir, false));
+				break;
+			case summary:
+				submit(sink == null ? () -> ProjectionTreeSummary.print(dir) : ProjectionTreeSummary.snapshot(dir, true));
+				break;
+			case quiet:
+				break;
+		}
+	}
+
+	/** Waits until all the output of this (and any other) projection emitted so far is rendered. Does nothing if a sink is given. */
+	public void flush() {
+		if (sink == null)
+			renderer.flush();
+	}
+
+	private void submit(Runnable rendering) {
+		if (sink != null)
+			sink.submit(rendering);
+		else
+			renderer.submit(rendering);
+	}
+
+}
@@ -0,0 +1,129 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.console;
+
+import static com.braintribe.console.ConsoleOutputs.println;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.braintribe.exception.Exceptions;
+
+/**
+ * Prints a dir as a tree in which large folders are collapsed into a single line with their file count, so that a projection with thousands of
+ * files prints a few dozen lines.
+ * <p>
+ * The top level folders (i.e. the projected artifacts) are always expanded. Deeper folders with more than {@value #MAX_EXPANDED_FILES} files
+ * (recursively) are collapsed, and of the folders with more than {@value #MAX_LISTED_ENTRIES} entries only the first ones are listed.
+ * <p>
+ * A {@link #snapshot(Path, boolean) snapshot} reads the dir right away, so it can be printed after the dir was deleted.
+ */
+class ProjectionTreeSummary {
+
+	static final int MAX_EXPANDED_FILES = 16;
+	static final int MAX_LISTED_ENTRIES = 32;
+
+	private static final String INDENT = "    ";
+
+	private final Node root;
+	private final boolean collapse;
+
+	private ProjectionTreeSummary(Node root, boolean collapse) {
+		this.root = root;
+		this.collapse = collapse;
+	}
+
+	static void print(Path dir) {
+		snapshot(dir, true).run();
+	}
+
+	/**
+	 * Reads given dir now and returns the rendering which prints it.
+	 * 
+	 * @param collapse
+	 *            whether large folders are collapsed, otherwise every file is listed
+	 */
+	static Runnable snapshot(Path dir, boolean collapse) {
+		return new ProjectionTreeSummary(read(dir), collapse)::print;
+	}
+
+	private void print() {
+		printChildren(root, INDENT, 1);
+		println(INDENT + "(" + root.fileCount + " files)");
+	}
+
+	private void print(Node node, String indent, int depth) {
+		if (node.children == null) {
+			println(indent + node.name);
+
+		} else if (collapse && depth > 1 && node.fileCount > MAX_EXPANDED_FILES) {
+			println(indent + node.name + "/ (" + node.fileCount + " files)");
+
+		} else {
+			println(indent + node.name + "/");
+			printChildren(node, indent + INDENT, depth + 1);
+		}
+	}
+
+	private void printChildren(Node node, String indent, int depth) {
+		int listed = collapse ? Math.min(node.children.size(), MAX_LISTED_ENTRIES) : node.children.size();
+		for (int i = 0; i < listed; i++)
+			print(node.children.get(i), indent, depth);
+
+		if (listed < node.children.size())
+			println(indent + "... (" + (node.children.size() - listed) + " more)");
+	}
+
+	private static Node read(Path path) {
+		Node result = new Node(path.getFileName() == null ? path.toString() : path.getFileName().toString());
+		if (!Files.isDirectory(path)) {
+			result.fileCount = 1;
+			return result;
+		}
+
+		result.children = new ArrayList<>();
+		try (Stream<Path> entries = Files.list(path)) {
+			entries.forEach(entry -> {
+				Node child = read(entry);
+				result.children.add(child);
+				result.fileCount += child.fileCount;
+			});
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to list: " + path);
+		}
+
+		// folders first, so the collapsed ones are not cut off by the listed files
+		result.children.sort(Comparator.comparing((Node n) -> n.children == null).thenComparing(n -> n.name));
+		return result;
+	}
+
+	private static class Node {
+		final String name;
+		/* null for a file */
+		List<Node> children;
+		int fileCount;
+
+		Node(String name) {
+			this.name = name;
+		}
+	}
+
+}
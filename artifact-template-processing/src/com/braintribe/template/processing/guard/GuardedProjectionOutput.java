@@ -0,0 +1,124 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.guard;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.braintribe.template.processing.api.ProjectionOutput;
+
+/**
+ * {@link ProjectionOutput} which reports all the writes to a {@link ProjectionGuard}, thus enforcing its quotas.
+ */
+/* package */ class GuardedProjectionOutput implements ProjectionOutput {
+
+	private final ProjectionOutput delegate;
+	private final ProjectionGuard guard;
+
+	public GuardedProjectionOutput(ProjectionOutput delegate, ProjectionGuard guard) {
+		this.delegate = delegate;
+		this.guard = guard;
+	}
+
+	public ProjectionOutput delegate() {
+		return delegate;
+	}
+
+	public ProjectionGuard guard() {
+		return guard;
+	}
+
+	@Override
+	public ProjectionOutput resolve(String relativePath) {
+		return new GuardedProjectionOutput(delegate.resolve(relativePath), guard);
+	}
+
+	@Override
+	public void createDir(String relativePath) {
+		guard.checkpoint();
+		delegate.createDir(relativePath);
+	}
+
+	@Override
+	public OutputStream openFile(String relativePath) {
+		guard.onFileWritten();
+		return new FilterOutputStream(delegate.openFile(relativePath)) {
+			@Override
+			public void write(int b) throws IOException {
+				guard.onBytesWritten(1);
+				out.write(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				guard.onBytesWritten(len);
+				out.write(b, off, len);
+			}
+		};
+	}
+
+	@Override
+	public void writeFile(String relativePath, InputStream content) {
+		guard.onFileWritten();
+		delegate.writeFile(relativePath, new FilterInputStream(content) {
+			@Override
+			public int read() throws IOException {
+				int b = super.read();
+				if (b >= 0)
+					guard.onBytesWritten(1);
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int n = super.read(b, off, len);
+				if (n > 0)
+					guard.onBytesWritten(n);
+				return n;
+			}
+		});
+	}
+
+	@Override
+	public boolean exists(String relativePath) {
+		return delegate.exists(relativePath);
+	}
+
+	@Override
+	public void deleteFile(String relativePath) {
+		delegate.deleteFile(relativePath);
+	}
+
+	@Override
+	public void moveFile(String sourcePath, String targetPath) {
+		guard.checkpoint();
+		delegate.moveFile(sourcePath, targetPath);
+	}
+
+	@Override
+	public void onRendering(long renderedBytes) {
+		guard.onRendering(renderedBytes);
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+
+}
@@ -0,0 +1,217 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.guard;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.braintribe.template.processing.api.ProjectionOutput;
+import com.braintribe.template.processing.api.exception.ProjectionAbortedException;
+
+/**
+ * Enforces the deadline and the quotas of one projection (i.e. one processed request), so that a misbehaving template fails fast instead of blocking
+ * a worker or filling the disk.
+ * <p>
+ * The checks are cooperative - the projection calls {@link #checkpoint()} between its steps, and the {@link #wrap(ProjectionOutput) guarded output}
+ * checks the quotas with every write. Additionally, when the deadline passes, the projecting thread is interrupted, which stops a projection blocked
+ * on I/O, or a dependencies.groovy stuck in a loop if it was compiled by {@link com.braintribe.template.processing.helper.GroovyScripts} (i.e. of
+ * a cached or a source template).
+ * <p>
+ * Zero (or a negative number) means no limit, for all the limits.
+ */
+public class ProjectionGuard {
+
+	private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "template-projection-watchdog");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final long timeoutMillis;
+	private final int maxFiles;
+	private final long maxBytes;
+	private final int maxDepth;
+
+	private final AtomicInteger files = new AtomicInteger();
+	private final AtomicLong bytes = new AtomicLong();
+	private int depth;
+
+	private long deadlineNanos;
+	private ScheduledFuture<?> deadlineTask;
+	private volatile String abortReason;
+
+	/* guarded by this, so that no cancel(...) interrupts the thread once stop() has returned */
+	private Thread thread;
+	private boolean interrupted;
+
+	public ProjectionGuard(long timeoutMillis, int maxFiles, long maxBytes, int maxDepth) {
+		this.timeoutMillis = timeoutMillis;
+		this.maxFiles = maxFiles;
+		this.maxBytes = maxBytes;
+		this.maxDepth = maxDepth;
+	}
+
+	/** Starts the deadline for the current thread. Must be followed by {@link #stop()}, on the same thread. */
+	public void start() {
+		synchronized (this) {
+			thread = Thread.currentThread();
+			interrupted = false;
+		}
+		if (timeoutMillis <= 0)
+			return;
+
+		deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		deadlineTask = watchdog.schedule(() -> cancel("the deadline of " + timeoutMillis + " ms was exceeded"), timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the deadline. Once this returns, the thread is not interrupted by this guard anymore, and an interruption previously caused by this guard
+	 * is cleared, as the thread goes on with other work.
+	 */
+	public void stop() {
+		if (deadlineTask != null)
+			deadlineTask.cancel(false);
+
+		boolean clearInterrupt;
+		synchronized (this) {
+			// a deadline task which is already running waits here, and then does not interrupt anymore
+			clearInterrupt = interrupted && thread == Thread.currentThread();
+			thread = null;
+			interrupted = false;
+		}
+
+		if (clearInterrupt)
+			Thread.interrupted();
+	}
+
+	/** Cancels the projection, which then fails at the next checkpoint. May be called from any thread. */
+	public void cancel(String reason) {
+		if (abortReason != null)
+			return;
+
+		synchronized (this) {
+			if (abortReason != null)
+				return;
+
+			abortReason = reason;
+			if (thread != null) {
+				thread.interrupt();
+				interrupted = true;
+			}
+		}
+	}
+
+	/** Throws a {@link ProjectionAbortedException} if the projection was canceled, has exceeded its deadline, or its thread was interrupted. */
+	public void checkpoint() {
+		if (abortReason == null) {
+			if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos > 0)
+				abortReason = "the deadline of " + timeoutMillis + " ms was exceeded";
+			else if (Thread.currentThread().isInterrupted())
+				abortReason = "the projecting thread was interrupted";
+			else
+				return;
+		}
+
+		throw aborted();
+	}
+
+	public void enterTemplate() {
+		checkpoint();
+		if (maxDepth > 0 && ++depth > maxDepth)
+			abort("the template dependencies are nested deeper than the maximum of " + maxDepth);
+	}
+
+	public void exitTemplate() {
+		if (maxDepth > 0)
+			depth--;
+	}
+
+	public void onFileWritten() {
+		checkpoint();
+		if (files.incrementAndGet() > maxFiles && maxFiles > 0)
+			abort("more than the maximum of " + maxFiles + " files were projected");
+	}
+
+	public void onBytesWritten(long n) {
+		if (bytes.addAndGet(n) > maxBytes && maxBytes > 0)
+			abort("more than the maximum of " + maxBytes + " bytes were projected");
+	}
+
+	/** Number of files projected so far (a file written more than once is counted each time). */
+	public int filesWritten() {
+		return files.get();
+	}
+
+	/** Number of bytes projected so far. */
+	public long bytesWritten() {
+		return bytes.get();
+	}
+
+	/** Checks a file being rendered, see {@link ProjectionOutput#onRendering(long)}. */
+	public void onRendering(long renderedBytes) {
+		checkpoint();
+		if (maxBytes > 0 && bytes.get() + renderedBytes > maxBytes)
+			abort("more than the maximum of " + maxBytes + " bytes were projected");
+	}
+
+	private void abort(String reason) {
+		if (abortReason == null)
+			abortReason = reason;
+		throw aborted();
+	}
+
+	private ProjectionAbortedException aborted() {
+		return new ProjectionAbortedException("Projection aborted, as " + abortReason + ".");
+	}
+
+	/**
+	 * Returns the {@link ProjectionAbortedException} describing why the projection was aborted, if given exception (thrown by the projection) is a
+	 * consequence of the abort, or null otherwise.
+	 */
+	public ProjectionAbortedException abortedBy(Throwable t) {
+		for (Throwable cause = t; cause != null; cause = cause.getCause())
+			if (cause instanceof ProjectionAbortedException)
+				return (ProjectionAbortedException) cause;
+
+		// e.g. an InterruptedException or ClosedByInterruptException caused by cancel(...)
+		return abortReason == null ? null : aborted();
+	}
+
+	/** Returns given output with the quotas of this guard enforced. */
+	public ProjectionOutput wrap(ProjectionOutput output) {
+		return new GuardedProjectionOutput(output, this);
+	}
+
+	/**
+	 * Returns the output given output delegates to if it was {@link #wrap(ProjectionOutput) wrapped} by this guard, or given output otherwise. This
+	 * is used to write files which were already counted, e.g. when copying a sub-tree which was staged separately through a guarded output, so that
+	 * the quotas are not charged twice.
+	 */
+	public ProjectionOutput unwrap(ProjectionOutput output) {
+		if (output instanceof GuardedProjectionOutput) {
+			GuardedProjectionOutput guarded = (GuardedProjectionOutput) output;
+			if (guarded.guard() == this)
+				return guarded.delegate();
+		}
+
+		return output;
+	}
+
+}
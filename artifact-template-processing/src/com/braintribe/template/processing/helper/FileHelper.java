@@ -23,8 +23,12 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.braintribe.exception.Exceptions;
 import com.braintribe.model.resource.FileResource;
@@ -35,6 +39,17 @@ import com.braintribe.utils.ZipTools;
 
 public final class FileHelper {
 
+	private static final int MAX_FILE_HASHES = 256;
+
+	private static final Map<File, FileHash> fileHashes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<File, FileHash> eldest) {
+			return size() > MAX_FILE_HASHES;
+		}
+	});
+
 	private FileHelper() {
 		// noop
 	}
@@ -54,15 +69,63 @@ public final class FileHelper {
 	}
 
 	public static Path unzipToTempDir(Resource zip, String dirPrefix) {
-		File target = createTempDir(dirPrefix);
+		Path target = createTempDir(dirPrefix).toPath();
+		unzip(zip, target);
+		return target;
+	}
 
+	public static void unzip(Resource zip, Path target) {
 		try (InputStream is = zip.openStream()) {
-			ZipTools.unzip(is, target);
-			return target.toPath();
+			ZipTools.unzip(is, target.toFile());
+
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Error while unzipping " + zipLocation(zip) + " into folder: " + target.toAbsolutePath());
+		}
+	}
+
+	/**
+	 * Returns the SHA-256 (hex) of the content of given resource, e.g. of a template's archive zip. The hash of a {@link FileResource} is only
+	 * computed once, until the file changes (i.e. its size or last modified time).
+	 */
+	public static String contentHash(Resource resource) {
+		if (!(resource instanceof FileResource))
+			return computeContentHash(resource);
+
+		File file = new File(((FileResource) resource).getPath());
+		long lastModified = file.lastModified();
+		long size = file.length();
+
+		FileHash result = fileHashes.get(file);
+		if (result == null || result.lastModified != lastModified || result.size != size) {
+			result = new FileHash(lastModified, size, computeContentHash(resource));
+			fileHashes.put(file, result);
+		}
+		return result.hash;
+	}
+
+	private static class FileHash {
+		final long lastModified;
+		final long size;
+		final String hash;
+
+		FileHash(long lastModified, long size, String hash) {
+			this.lastModified = lastModified;
+			this.size = size;
+			this.hash = hash;
+		}
+	}
 
+	private static String computeContentHash(Resource resource) {
+		MessageDigest digest = RequestFingerprints.newSha256();
+		byte[] buffer = new byte[64 * 1024];
+		try (InputStream in = resource.openStream()) {
+			int n;
+			while ((n = in.read(buffer)) > 0)
+				digest.update(buffer, 0, n);
 		} catch (IOException e) {
-			throw Exceptions.unchecked(e, "Error while unzipping " + zipLocation(zip) + " into folder: " + target.getAbsolutePath());
+			throw Exceptions.unchecked(e, "Failed to read " + zipLocation(resource));
 		}
+		return RequestFingerprints.toHex(digest.digest());
 	}
 
 	private static String zipLocation(Resource r) {
@@ -96,6 +159,40 @@ public final class FileHelper {
 		}
 	}
 
+	/**
+	 * Copies those files of the source dir which do not exist in the target dir or have a different content.
+	 * 
+	 * @return the paths (relative to the dirs) of the copied files
+	 */
+	public static List<Path> copyChangedFiles(Path source, Path target) {
+		List<Path> result = newList();
+		for (Path relativePath : collectRelativePaths(source)) {
+			Path sourceFile = source.resolve(relativePath);
+			if (Files.isDirectory(sourceFile))
+				continue;
+
+			Path targetFile = target.resolve(relativePath);
+			if (isSameContent(sourceFile, targetFile))
+				continue;
+
+			copyFile(sourceFile, targetFile);
+			result.add(relativePath);
+		}
+
+		return result;
+	}
+
+	private static boolean isSameContent(Path file, Path otherFile) {
+		if (!Files.isRegularFile(otherFile))
+			return false;
+
+		try {
+			return Files.mismatch(file, otherFile) == -1;
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to compare file '" + file + "' with '" + otherFile + "'");
+		}
+	}
+
 	public static void deleteFile(Path file) {
 		FileTools.deleteFile(file.toFile());
 	}
@@ -0,0 +1,53 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.helper;
+
+import java.util.Map;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+import groovy.transform.ThreadInterrupt;
+
+/**
+ * Compiles and runs the dependencies.groovy scripts of templates.
+ * <p>
+ * The scripts are compiled with the {@link ThreadInterrupt} transformation, i.e. every loop, closure and method checks the thread's interrupted flag,
+ * so a script stuck in an endless loop stops (with an {@link InterruptedException}) when the projection is canceled.
+ */
+public final class GroovyScripts {
+
+	private GroovyScripts() {
+		// noop
+	}
+
+	public static Class<? extends Script> compile(String source, String scriptName) {
+		CompilerConfiguration config = new CompilerConfiguration();
+		config.addCompilationCustomizers(new ASTTransformationCustomizer(ThreadInterrupt.class));
+
+		return new GroovyShell(GroovyScripts.class.getClassLoader(), config).parse(source, scriptName).getClass();
+	}
+
+	public static Object run(Class<? extends Script> scriptClass, Map<String, Object> variables) {
+		Script script = InvokerHelper.createScript(scriptClass, new Binding(variables));
+		return script.run();
+	}
+
+}
@@ -0,0 +1,155 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.braintribe.model.generic.GenericEntity;
+import com.braintribe.model.generic.reflection.Property;
+
+/**
+ * Computes canonical fingerprints of (projected) artifact template requests.
+ * <p>
+ * Two requests have the same fingerprint iff they are of the same entity type and all their property values are equal, where entities are compared
+ * by value (recursively) and sets and maps are compared regardless of their iteration order. The id, partition and globalId are ignored.
+ * <p>
+ * The canonical string is unambiguous - every scalar is prefixed with its type and length (e.g. {@code String:5:value}) and every collection with
+ * its size, so values containing separators cannot make two different requests equal. An entity referencing an entity it is (transitively) a
+ * property value of is written as a back-reference to it, so cyclic entity graphs are supported.
+ */
+public final class RequestFingerprints {
+
+	private RequestFingerprints() {
+		// noop
+	}
+
+	/** Returns a SHA-256 hex digest of the {@link #canonicalString(GenericEntity) canonical string} of given entity and given (optional) salt. */
+	public static String fingerprint(GenericEntity entity, String salt) {
+		String canonical = canonicalString(entity);
+		if (salt != null)
+			canonical = canonical + "@" + salt;
+
+		return sha256Hex(canonical.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static String canonicalString(GenericEntity entity) {
+		StringBuilder sb = new StringBuilder();
+		appendValue(sb, entity, new ArrayList<>());
+		return sb.toString();
+	}
+
+	public static String sha256Hex(byte[] data) {
+		MessageDigest digest = newSha256();
+		return toHex(digest.digest(data));
+	}
+
+	public static MessageDigest newSha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+		}
+	}
+
+	public static String toHex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+			sb.append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
+	/** @param path the entities currently being appended, i.e. the owners of given value */
+	private static void appendValue(StringBuilder sb, Object value, List<GenericEntity> path) {
+		if (value == null) {
+			sb.append('~');
+
+		} else if (value instanceof GenericEntity) {
+			appendEntity(sb, (GenericEntity) value, path);
+
+		} else if (value instanceof List) {
+			List<?> list = (List<?>) value;
+			sb.append('[').append(list.size()).append(':');
+			for (Object element : list)
+				appendValue(sb, element, path);
+			sb.append(']');
+
+		} else if (value instanceof Collection) {
+			Collection<?> set = (Collection<?>) value;
+			TreeSet<String> elements = new TreeSet<>();
+			for (Object element : set)
+				elements.add(valueString(element, path));
+			sb.append('{').append(set.size()).append(':');
+			elements.forEach(sb::append);
+			sb.append('}');
+
+		} else if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			TreeMap<String, String> entries = new TreeMap<>();
+			for (Map.Entry<?, ?> e : map.entrySet())
+				entries.put(valueString(e.getKey(), path), valueString(e.getValue(), path));
+			sb.append('<').append(map.size()).append(':');
+			entries.forEach((k, v) -> sb.append(k).append(v));
+			sb.append('>');
+
+		} else {
+			String s = value.toString();
+			sb.append(value.getClass().getSimpleName()).append(':').append(s.length()).append(':').append(s);
+		}
+	}
+
+	private static String valueString(Object value, List<GenericEntity> path) {
+		StringBuilder sb = new StringBuilder();
+		appendValue(sb, value, path);
+		return sb.toString();
+	}
+
+	private static void appendEntity(StringBuilder sb, GenericEntity entity, List<GenericEntity> path) {
+		for (int i = 0; i < path.size(); i++)
+			if (path.get(i) == entity) {
+				// cycle - refer to the owner by its depth
+				sb.append('^').append(i).append(';');
+				return;
+			}
+
+		path.add(entity);
+		sb.append(entity.entityType().getTypeSignature()).append('(');
+		for (Property property : entity.entityType().getProperties()) {
+			String name = property.getName();
+			if (isTechnicalProperty(name))
+				continue;
+
+			sb.append(name).append('=');
+			appendValue(sb, property.get(entity), path);
+		}
+		sb.append(')');
+		path.remove(path.size() - 1);
+	}
+
+	private static boolean isTechnicalProperty(String name) {
+		return GenericEntity.id.equals(name) || GenericEntity.partition.equals(name) || GenericEntity.globalId.equals(name);
+	}
+
+}
@@ -0,0 +1,138 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.install;
+
+import static com.braintribe.template.processing.helper.FileHelper.ensureDirExists;
+import static com.braintribe.template.processing.helper.RequestFingerprints.newSha256;
+import static com.braintribe.template.processing.helper.RequestFingerprints.toHex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.braintribe.exception.Exceptions;
+import com.braintribe.logging.Logger;
+
+/**
+ * Installs staged projections, keeping track of the content of every installed file, so that a file identical to an already installed one is
+ * materialized as a hardlink to that file rather than a copy.
+ * <p>
+ * One store is meant to be used for one run of the processor (e.g. all the entries of a manifest), so that the identical files of many projected
+ * artifacts (IDE settings, .gitignore files...) are only written once. If the file system does not support hardlinks (or the files are on
+ * different file stores), files are simply copied.
+ * <p>
+ * This class is thread-safe.
+ */
+public class ContentStore {
+
+	private static final Logger log = Logger.getLogger(ContentStore.class);
+
+	/* content hash -> an installed file with that content */
+	private final Map<String, Path> installedFiles = new ConcurrentHashMap<>();
+
+	private final AtomicInteger linkedFiles = new AtomicInteger();
+	private final AtomicLong linkedBytes = new AtomicLong();
+	private volatile boolean linksSupported = true;
+
+	/** Installs all the files and directories of given staging dir into given installation dir, replacing the existing files. */
+	public void installDir(Path stagingDir, Path installationDir) {
+		try (Stream<Path> paths = Files.walk(stagingDir)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				Path target = installationDir.resolve(stagingDir.relativize(path).toString());
+				if (Files.isDirectory(path))
+					ensureDirExists(target);
+				else
+					installFile(path, target);
+			}
+
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to install '" + stagingDir + "' to '" + installationDir + "'");
+		}
+	}
+
+	/** Installs given staged file at given target, as a hardlink to an identical installed file if possible. */
+	public void installFile(Path stagedFile, Path target) throws IOException {
+		String hash = hash(stagedFile);
+
+		Path identicalFile = linksSupported ? installedFiles.get(hash) : null;
+		if (identicalFile != null && !isIdentical(stagedFile, identicalFile)) {
+			// the installed file has been overwritten since, e.g. by a later projection into the same dir, so we remember the new one instead
+			installedFiles.remove(hash, identicalFile);
+			identicalFile = null;
+		}
+
+		if (identicalFile != null && link(stagedFile, identicalFile, target))
+			return;
+
+		Files.copy(stagedFile, target, StandardCopyOption.REPLACE_EXISTING);
+		installedFiles.putIfAbsent(hash, target);
+	}
+
+	private static boolean isIdentical(Path stagedFile, Path installedFile) throws IOException {
+		return Files.isRegularFile(installedFile) && Files.mismatch(stagedFile, installedFile) == -1;
+	}
+
+	private boolean link(Path stagedFile, Path identicalFile, Path target) throws IOException {
+		if (Files.exists(target) && Files.isSameFile(target, identicalFile))
+			return true;
+
+		try {
+			Files.deleteIfExists(target);
+			Files.createLink(target, identicalFile);
+
+		} catch (UnsupportedOperationException | FileSystemException e) {
+			log.debug("Cannot create hardlink '" + target + "' -> '" + identicalFile + "', copying instead. Reason: " + e.getMessage());
+			if (e instanceof UnsupportedOperationException)
+				linksSupported = false;
+			return false;
+		}
+
+		linkedFiles.incrementAndGet();
+		linkedBytes.addAndGet(Files.size(target));
+		return true;
+	}
+
+	private static String hash(Path file) throws IOException {
+		MessageDigest digest = newSha256();
+		try (InputStream in = Files.newInputStream(file)) {
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = in.read(buffer)) > 0)
+				digest.update(buffer, 0, n);
+		}
+		return toHex(digest.digest());
+	}
+
+	/** Number of files installed as hardlinks. */
+	public int linkedFiles() {
+		return linkedFiles.get();
+	}
+
+	/** Total size of the files installed as hardlinks, i.e. bytes not written. */
+	public long linkedBytes() {
+		return linkedBytes.get();
+	}
+
+}
@@ -0,0 +1,117 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.install;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.braintribe.exception.Exceptions;
+
+/**
+ * Striped locks for file system paths, so that concurrent requests writing into overlapping locations serialize, while writes into disjoint
+ * locations proceed in parallel.
+ * <p>
+ * {@link #lockForWriting(Collection) Locking} a path for writing locks the path itself exclusively and all its ancestors shared. Thus writes into two
+ * sibling folders of a group do not block each other, but a write into a folder blocks writes into that folder's sub-folders and vice versa.
+ * <p>
+ * Paths are mapped to a fixed number of stripes by their hash, so unrelated paths may occasionally share a stripe (and thus serialize), but the
+ * number of locks is bounded. The stripes are always acquired in the same order, so acquiring locks for multiple paths cannot deadlock.
+ */
+public class PathLocks {
+
+	/** Locks shared by the entire JVM, as the file system is. */
+	public static final PathLocks INSTANCE = new PathLocks(256);
+
+	private final ReentrantReadWriteLock[] stripes;
+
+	public PathLocks(int stripeCount) {
+		stripes = new ReentrantReadWriteLock[stripeCount];
+		for (int i = 0; i < stripeCount; i++)
+			stripes[i] = new ReentrantReadWriteLock();
+	}
+
+	/** Handle of acquired locks, closing it releases them. */
+	public interface Locked extends AutoCloseable {
+		@Override
+		void close();
+	}
+
+	public Locked lockForWriting(Path path) {
+		return lockForWriting(Collections.singletonList(path));
+	}
+
+	/** Locks given paths for writing, see class documentation. Blocks until all the locks are acquired. */
+	public Locked lockForWriting(Collection<Path> paths) {
+		// stripe index -> true iff exclusive
+		Map<Integer, Boolean> stripeModes = new TreeMap<>();
+		for (Path path : paths) {
+			Path normalized = path.toAbsolutePath().normalize();
+			stripeModes.put(stripeIndex(normalized), Boolean.TRUE);
+
+			for (Path ancestor = normalized.getParent(); ancestor != null; ancestor = ancestor.getParent())
+				stripeModes.putIfAbsent(stripeIndex(ancestor), Boolean.FALSE);
+		}
+
+		List<Lock> acquired = new ArrayList<>(stripeModes.size());
+		try {
+			for (Map.Entry<Integer, Boolean> e : stripeModes.entrySet()) {
+				ReentrantReadWriteLock stripe = stripes[e.getKey()];
+				Lock lock = e.getValue() ? stripe.writeLock() : stripe.readLock();
+				lock.lock();
+				acquired.add(lock);
+			}
+		} catch (RuntimeException | Error e) {
+			unlock(acquired);
+			throw e;
+		}
+
+		return () -> unlock(acquired);
+	}
+
+	/** Locks all the entries of given staging dir, resolved against given installation dir, i.e. all the top-level paths an install writes. */
+	public Locked lockForInstalling(Path stagingDir, Path installationDir) {
+		List<Path> targets;
+		try (Stream<Path> entries = Files.list(stagingDir)) {
+			targets = entries.map(entry -> installationDir.resolve(entry.getFileName().toString())).collect(Collectors.toList());
+
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to list staged entries of: " + stagingDir);
+		}
+
+		return lockForWriting(targets);
+	}
+
+	private static void unlock(List<Lock> locks) {
+		for (int i = locks.size() - 1; i >= 0; i--)
+			locks.get(i).unlock();
+	}
+
+	private int stripeIndex(Path path) {
+		return Math.floorMod(path.hashCode(), stripes.length);
+	}
+
+}
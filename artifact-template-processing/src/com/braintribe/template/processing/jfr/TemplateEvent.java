@@ -0,0 +1,33 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of the Java Flight Recorder events emitted while processing artifact templates.
+ * <p>
+ * All the events are cheap when JFR is not recording, any extra statistics (e.g. counting files) are only computed if {@link #shouldCommit()}.
+ */
+@Category({ "Devrock", "Artifact Templates" })
+public abstract class TemplateEvent extends Event {
+
+	@Label("Template")
+	public String template;
+
+}
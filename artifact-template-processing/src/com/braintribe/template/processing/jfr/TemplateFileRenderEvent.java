@@ -0,0 +1,41 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.braintribe.template.FileRender")
+@Label("Template File Render")
+@Description("Rendering of a single projected FreeMarker template file.")
+public class TemplateFileRenderEvent extends TemplateEvent {
+
+	@Label("Template File")
+	public String templateFile;
+
+	@Label("Projected File")
+	public String projectedFile;
+
+	@Label("Size")
+	@DataAmount
+	public long bytes;
+
+	@Label("Ignored")
+	public boolean ignored;
+
+}
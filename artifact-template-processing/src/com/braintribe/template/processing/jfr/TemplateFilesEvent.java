@@ -0,0 +1,54 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+
+/**
+ * Base of the template events which concern a set of files, e.g. unzipping a template or installing the projection.
+ */
+public abstract class TemplateFilesEvent extends TemplateEvent {
+
+	@Label("File Count")
+	public int fileCount;
+
+	@Label("Size")
+	@DataAmount
+	public long bytes;
+
+	/** Sets {@link #fileCount} and {@link #bytes} based on the files in given directory (recursively). */
+	public void setFiles(Path dir) {
+		if (!Files.exists(dir))
+			return;
+
+		try (Stream<Path> paths = Files.walk(dir)) {
+			paths.filter(Files::isRegularFile).forEach(path -> {
+				fileCount++;
+				bytes += path.toFile().length();
+			});
+
+		} catch (IOException e) {
+			// statistics only, the event is still worth committing
+		}
+	}
+
+}
@@ -0,0 +1,35 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.braintribe.template.DependenciesScript")
+@Label("Template Dependencies Script")
+@Description("Evaluation of a template's dependencies.groovy script.")
+public class TemplateScriptEvent extends TemplateEvent {
+
+	@Label("Script Size")
+	@DataAmount
+	public long scriptBytes;
+
+	@Label("Dependency Count")
+	public int dependencyCount;
+
+}
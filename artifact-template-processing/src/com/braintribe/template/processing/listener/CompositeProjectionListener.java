@@ -0,0 +1,93 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.listener;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
+import com.braintribe.logging.Logger;
+import com.braintribe.template.processing.api.listener.ProjectionListener;
+
+/**
+ * Notifies all the {@link #add(ProjectionListener) registered} listeners, in the order of registration. Listeners may be registered at any time.
+ * <p>
+ * A failing listener does not fail the projection, the failure is only logged.
+ */
+public class CompositeProjectionListener implements ProjectionListener {
+
+	private static final Logger log = Logger.getLogger(CompositeProjectionListener.class);
+
+	private final List<ProjectionListener> listeners = new CopyOnWriteArrayList<>();
+
+	public void add(ProjectionListener listener) {
+		listeners.add(listener);
+	}
+
+	public void remove(ProjectionListener listener) {
+		listeners.remove(listener);
+	}
+
+	@Override
+	public void onTemplateResolved(ArtifactTemplateRequest request, String templateIdentification, String template, Path sourceDir,
+			long durationNanos) {
+		fire(l -> l.onTemplateResolved(request, templateIdentification, template, sourceDir, durationNanos));
+	}
+
+	@Override
+	public void onTemplateExtracted(String template, Path templateDir, long durationNanos) {
+		fire(l -> l.onTemplateExtracted(template, templateDir, durationNanos));
+	}
+
+	@Override
+	public void onDependenciesEvaluated(ArtifactTemplateRequest request, String template, List<ArtifactTemplateRequest> dependencies,
+			long durationNanos) {
+		fire(l -> l.onDependenciesEvaluated(request, template, dependencies, durationNanos));
+	}
+
+	@Override
+	public void onFileRendered(ArtifactTemplateRequest request, String templateFile, String projectedFile, long bytes, long durationNanos) {
+		fire(l -> l.onFileRendered(request, templateFile, projectedFile, bytes, durationNanos));
+	}
+
+	@Override
+	public void onFileIgnored(ArtifactTemplateRequest request, String file) {
+		fire(l -> l.onFileIgnored(request, file));
+	}
+
+	@Override
+	public void onFileRelocated(ArtifactTemplateRequest request, String file, String targetFile) {
+		fire(l -> l.onFileRelocated(request, file, targetFile));
+	}
+
+	@Override
+	public void onInstallCommitted(ArtifactTemplateRequest request, Path installationDir, int files, long bytes, long durationNanos) {
+		fire(l -> l.onInstallCommitted(request, installationDir, files, bytes, durationNanos));
+	}
+
+	private void fire(Consumer<ProjectionListener> notification) {
+		for (ProjectionListener listener : listeners) {
+			try {
+				notification.accept(listener);
+			} catch (RuntimeException e) {
+				log.warn("Projection listener " + listener + " failed.", e);
+			}
+		}
+	}
+
+}
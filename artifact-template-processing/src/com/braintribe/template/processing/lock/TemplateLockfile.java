@@ -0,0 +1,173 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.lock;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.braintribe.exception.Exceptions;
+import com.braintribe.model.artifact.compiled.CompiledArtifactIdentification;
+
+/**
+ * Lockfile of a dev environment, which pins each template (as given by a request, e.g. "com.braintribe.devrock.templates:build-system-template#2.0")
+ * to the concrete artifact it was resolved to and the SHA-256 of its archive zip.
+ * <p>
+ * A pinned template is not resolved again (i.e. no repository metadata is looked up), and its archive must still have the pinned hash, so a dev
+ * environment keeps scaffolding with exactly the same templates until the lockfile is refreshed. The file is a sorted list of lines
+ * {@code <template> = <groupId>:<artifactId>#<version> <sha256>}, so it can be reviewed and committed.
+ * <p>
+ * The lockfile is re-read when it is changed on the disk, and it is written (atomically) whenever a pin is added or changed. Thread-safe.
+ */
+public class TemplateLockfile {
+
+	private static final String HEADER = "# Artifact template lockfile - pins the templates used in this dev environment to concrete versions.\n"
+			+ "# Delete a line (or the file) or project with 'refreshLock' to resolve the templates again.\n";
+
+	private final Path file;
+	private Map<String, Pin> pins = new TreeMap<>();
+	private FileTime loadedTime;
+
+	public TemplateLockfile(Path file) {
+		this.file = file;
+	}
+
+	public Path file() {
+		return file;
+	}
+
+	/** Returns the pin of given template, or null if it is not pinned. */
+	public synchronized Pin get(String template) {
+		loadIfChanged();
+		return pins.get(template);
+	}
+
+	/** Pins given template to given artifact and archive hash, writing the lockfile if this changes the pin. */
+	public synchronized void pin(String template, CompiledArtifactIdentification artifact, String archiveHash) {
+		loadIfChanged();
+
+		Pin pin = new Pin(artifact, archiveHash);
+		if (pin.equals(pins.get(template)))
+			return;
+
+		pins.put(template, pin);
+		write();
+	}
+
+	private void loadIfChanged() {
+		FileTime time;
+		try {
+			time = Files.getLastModifiedTime(file);
+		} catch (NoSuchFileException e) {
+			pins.clear();
+			loadedTime = null;
+			return;
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to read the template lockfile: " + file);
+		}
+
+		if (time.equals(loadedTime))
+			return;
+
+		Map<String, Pin> loaded = new TreeMap<>();
+		try {
+			List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+			for (String line : lines) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+
+				int eq = line.indexOf('=');
+				String[] value = eq < 0 ? new String[0] : line.substring(eq + 1).trim().split("\\s+");
+				if (value.length != 2)
+					throw new IllegalStateException("Invalid line in the template lockfile " + file + ": " + line);
+
+				loaded.put(line.substring(0, eq).trim(), new Pin(parseArtifact(value[0]), value[1]));
+			}
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to read the template lockfile: " + file);
+		}
+
+		pins = loaded;
+		loadedTime = time;
+	}
+
+	private static CompiledArtifactIdentification parseArtifact(String s) {
+		int colon = s.indexOf(':');
+		int hash = s.indexOf('#');
+		if (colon < 0 || hash < colon)
+			throw new IllegalStateException("Invalid artifact in the template lockfile: " + s);
+
+		return CompiledArtifactIdentification.create(s.substring(0, colon), s.substring(colon + 1, hash), s.substring(hash + 1));
+	}
+
+	private void write() {
+		Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+				writer.write(HEADER);
+				for (Map.Entry<String, Pin> e : pins.entrySet())
+					writer.write(e.getKey() + " = " + e.getValue().artifact.asString() + " " + e.getValue().archiveHash + "\n");
+			}
+
+			try {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			loadedTime = Files.getLastModifiedTime(file);
+
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to write the template lockfile: " + file);
+		}
+	}
+
+	/** A template pinned to an artifact. */
+	public static class Pin {
+		public final CompiledArtifactIdentification artifact;
+		public final String archiveHash;
+
+		public Pin(CompiledArtifactIdentification artifact, String archiveHash) {
+			this.artifact = artifact;
+			this.archiveHash = archiveHash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Pin))
+				return false;
+
+			Pin other = (Pin) obj;
+			return artifact.asString().equals(other.artifact.asString()) && archiveHash.equals(other.archiveHash);
+		}
+
+		@Override
+		public int hashCode() {
+			return artifact.asString().hashCode() * 31 + archiveHash.hashCode();
+		}
+	}
+
+}
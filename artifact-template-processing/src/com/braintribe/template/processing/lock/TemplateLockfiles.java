@@ -0,0 +1,45 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.lock;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link TemplateLockfile lockfiles} of the dev environments, one file with given name in the root of each dev environment. Shared by all the
+ * requests of a processor, so that concurrent requests of the same dev environment share the same lockfile instance.
+ */
+public class TemplateLockfiles {
+
+	private final String fileName;
+	private final Map<Path, TemplateLockfile> lockfiles = new ConcurrentHashMap<>();
+
+	public TemplateLockfiles(String fileName) {
+		this.fileName = fileName;
+	}
+
+	/** Returns the lockfile of given dev environment, or null if there is no dev environment. */
+	public TemplateLockfile forDevEnv(File devEnvRoot) {
+		if (devEnvRoot == null)
+			return null;
+
+		Path file = devEnvRoot.toPath().toAbsolutePath().normalize().resolve(fileName);
+		return lockfiles.computeIfAbsent(file, TemplateLockfile::new);
+	}
+
+}
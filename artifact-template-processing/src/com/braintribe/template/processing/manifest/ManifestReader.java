@@ -0,0 +1,286 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.manifest;
+
+import static com.braintribe.utils.lcd.CollectionTools2.newList;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+
+import com.braintribe.codec.marshaller.yaml.YamlMarshaller;
+import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
+import com.braintribe.exception.Exceptions;
+import com.braintribe.model.generic.GMF;
+import com.braintribe.model.generic.GenericEntity;
+import com.braintribe.model.generic.reflection.CollectionType;
+import com.braintribe.model.generic.reflection.EntityType;
+import com.braintribe.model.generic.reflection.GenericModelType;
+import com.braintribe.model.generic.reflection.Property;
+import com.braintribe.model.generic.reflection.ScalarType;
+
+/**
+ * Reads the entries of a manifest of {@link com.braintribe.devrock.templates.model.CreateArtifactsFromManifest} and converts each to the
+ * described {@link ArtifactTemplateRequest}.
+ * <p>
+ * CSV manifests are streamed line by line, so arbitrarily large manifests can be processed. YAML and JSON manifests are parsed as a whole (JSON
+ * being parsed as YAML), as the entries are small compared to the projections they describe.
+ */
+public class ManifestReader {
+
+	public static final String FORMAT_CSV = "csv";
+	public static final String FORMAT_YAML = "yaml";
+	public static final String FORMAT_JSON = "json";
+
+	public static final String TYPE_KEY = "type";
+
+	private static final String DEFAULT_TYPE_PACKAGE = "com.braintribe.devrock.templates.model.artifact.";
+	private static final String COLLECTION_SEPARATOR = ";";
+
+	private final Path manifest;
+	private final String format;
+
+	public ManifestReader(Path manifest, String format) {
+		this.manifest = manifest;
+		this.format = format != null ? format.toLowerCase() : formatFromExtension(manifest);
+	}
+
+	private static String formatFromExtension(Path manifest) {
+		String fileName = manifest.getFileName().toString().toLowerCase();
+		if (fileName.endsWith(".csv"))
+			return FORMAT_CSV;
+		if (fileName.endsWith(".yaml") || fileName.endsWith(".yml"))
+			return FORMAT_YAML;
+		if (fileName.endsWith(".json"))
+			return FORMAT_JSON;
+
+		throw new IllegalArgumentException("Cannot derive the format of manifest " + manifest + " from its extension. Specify the format explicitly.");
+	}
+
+	/** Passes each entry of the manifest to given consumer, in the order of the manifest. */
+	public void read(Consumer<ArtifactTemplateRequest> consumer) {
+		switch (format) {
+			case FORMAT_CSV:
+				readCsv(consumer);
+				return;
+			case FORMAT_YAML:
+			case FORMAT_JSON:
+				readYaml(consumer);
+				return;
+			default:
+				throw new IllegalArgumentException("Unsupported manifest format '" + format + "'. Supported formats are: csv, yaml, json.");
+		}
+	}
+
+	private void readCsv(Consumer<ArtifactTemplateRequest> consumer) {
+		try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+			String headerLine = reader.readLine();
+			if (headerLine == null)
+				return;
+
+			List<String> header = parseCsvLine(headerLine);
+
+			String line;
+			int lineNumber = 1;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank())
+					continue;
+
+				List<String> values = parseCsvLine(line);
+				if (values.size() > header.size())
+					throw new IllegalArgumentException(location(lineNumber) + "Expected at most " + header.size() + " values, but got: " + values.size());
+
+				Map<String, Object> entry = new LinkedHashMap<>();
+				for (int i = 0; i < values.size(); i++)
+					if (!values.get(i).isEmpty())
+						entry.put(header.get(i), values.get(i));
+
+				consumer.accept(toRequest(entry, lineNumber));
+			}
+
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Error while reading manifest: " + manifest);
+		}
+	}
+
+	/** Splits a CSV line into values, supporting values in double quotes (with "" as an escaped quote). */
+	private static List<String> parseCsvLine(String line) {
+		List<String> result = newList();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c != '"')
+					value.append(c);
+				else if (i + 1 < line.length() && line.charAt(i + 1) == '"')
+					value.append(line.charAt(++i));
+				else
+					quoted = false;
+
+			} else if (c == '"') {
+				quoted = true;
+
+			} else if (c == ',') {
+				result.add(value.toString().trim());
+				value.setLength(0);
+
+			} else {
+				value.append(c);
+			}
+		}
+
+		result.add(value.toString().trim());
+		return result;
+	}
+
+	private void readYaml(Consumer<ArtifactTemplateRequest> consumer) {
+		Object parsed;
+		try (InputStream in = Files.newInputStream(manifest)) {
+			parsed = new YamlMarshaller().unmarshall(in);
+
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Error while reading manifest: " + manifest);
+		}
+
+		if (parsed == null)
+			return;
+
+		if (!(parsed instanceof List))
+			throw new IllegalArgumentException("Manifest " + manifest + " must contain a list of entries, but contains: " + parsed.getClass().getName());
+
+		int index = 0;
+		for (Object entry : (List<?>) parsed) {
+			index++;
+			if (!(entry instanceof Map))
+				throw new IllegalArgumentException(location(index) + "Entry must be a map, but is: " + entry);
+
+			consumer.accept(toRequest((Map<String, Object>) entry, index));
+		}
+	}
+
+	private ArtifactTemplateRequest toRequest(Map<String, Object> entry, int position) {
+		Object typeName = entry.get(TYPE_KEY);
+		if (typeName == null)
+			throw new IllegalArgumentException(location(position) + "Entry has no '" + TYPE_KEY + "'.");
+
+		EntityType<GenericEntity> entityType = resolveRequestType(typeName.toString(), position);
+
+		try {
+			return (ArtifactTemplateRequest) toEntity(entityType, entry);
+
+		} catch (RuntimeException e) {
+			throw Exceptions.contextualize(e, location(position) + "Invalid entry of type " + entityType.getShortName());
+		}
+	}
+
+	private EntityType<GenericEntity> resolveRequestType(String typeName, int position) {
+		String typeSignature = typeName.contains(".") ? typeName : DEFAULT_TYPE_PACKAGE + typeName;
+
+		EntityType<GenericEntity> result = GMF.getTypeReflection().findEntityType(typeSignature);
+		if (result == null)
+			throw new IllegalArgumentException(location(position) + "Unknown request type: " + typeName);
+
+		if (!ArtifactTemplateRequest.T.isAssignableFrom(result) || result.isAbstract())
+			throw new IllegalArgumentException(location(position) + "Type " + typeName + " is not a concrete " + ArtifactTemplateRequest.T.getShortName());
+
+		return result;
+	}
+
+	private static GenericEntity toEntity(EntityType<?> entityType, Map<String, Object> values) {
+		GenericEntity result = entityType.create();
+
+		for (Entry<String, Object> e : values.entrySet()) {
+			String propertyName = e.getKey();
+			if (propertyName.equals(TYPE_KEY))
+				continue;
+
+			Property property = entityType.findProperty(propertyName);
+			if (property == null)
+				throw new IllegalArgumentException("Unknown property: " + propertyName);
+
+			property.set(result, convert(property.getType(), e.getValue(), propertyName));
+		}
+
+		return result;
+	}
+
+	private static Object convert(GenericModelType type, Object value, String propertyName) {
+		if (value == null)
+			return null;
+
+		if (type.isScalar()) {
+			if (value instanceof String)
+				return ((ScalarType) type).instanceFromString((String) value);
+			if (type.isInstance(value))
+				return value;
+
+			return ((ScalarType) type).instanceFromString(value.toString());
+		}
+
+		if (type.isEntity()) {
+			if (!(value instanceof Map))
+				throw new IllegalArgumentException("Property '" + propertyName + "' expects a map, but got: " + value);
+
+			return toEntity((EntityType<?>) type, (Map<String, Object>) value);
+		}
+
+		if (type.isCollection()) {
+			CollectionType collectionType = (CollectionType) type;
+			if (collectionType.getCollectionKind() == CollectionType.CollectionKind.map)
+				return convertMap(collectionType, value, propertyName);
+
+			Collection<Object> result = (Collection<Object>) collectionType.createPlain();
+			GenericModelType elementType = collectionType.getCollectionElementType();
+
+			Iterable<?> elements = value instanceof String ? List.of(((String) value).split(COLLECTION_SEPARATOR)) : (Iterable<?>) value;
+			for (Object element : elements)
+				result.add(convert(elementType, element instanceof String ? ((String) element).trim() : element, propertyName));
+
+			return result;
+		}
+
+		return value;
+	}
+
+	private static Object convertMap(CollectionType mapType, Object value, String propertyName) {
+		if (!(value instanceof Map))
+			throw new IllegalArgumentException("Property '" + propertyName + "' expects a map, but got: " + value);
+
+		GenericModelType[] parameters = mapType.getParameterization();
+		Map<Object, Object> result = (Map<Object, Object>) mapType.createPlain();
+		for (Entry<?, ?> e : ((Map<?, ?>) value).entrySet())
+			result.put(convert(parameters[0], e.getKey(), propertyName), convert(parameters[1], e.getValue(), propertyName));
+
+		return result;
+	}
+
+	private String location(int position) {
+		return manifest.getFileName() + (FORMAT_CSV.equals(format) ? ":" + position : " entry " + position) + ": ";
+	}
+
+}
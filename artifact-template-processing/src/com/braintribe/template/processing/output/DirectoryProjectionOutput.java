@@ -0,0 +1,112 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.output;
+
+import static com.braintribe.template.processing.helper.FileHelper.ensureDirExists;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import com.braintribe.exception.Exceptions;
+import com.braintribe.template.processing.api.ProjectionOutput;
+
+/**
+ * {@link ProjectionOutput} writing into a directory.
+ */
+public class DirectoryProjectionOutput implements ProjectionOutput {
+
+	private final Path root;
+
+	public DirectoryProjectionOutput(Path root) {
+		this.root = root;
+	}
+
+	public Path root() {
+		return root;
+	}
+
+	@Override
+	public ProjectionOutput resolve(String relativePath) {
+		return new DirectoryProjectionOutput(root.resolve(relativePath));
+	}
+
+	@Override
+	public void createDir(String relativePath) {
+		ensureDirExists(root.resolve(relativePath));
+	}
+
+	@Override
+	public OutputStream openFile(String relativePath) {
+		Path file = root.resolve(relativePath);
+		try {
+			ensureDirExists(file.getParent());
+			return Files.newOutputStream(file);
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to open file for writing: " + file);
+		}
+	}
+
+	@Override
+	public void writeFile(String relativePath, InputStream content) {
+		Path file = root.resolve(relativePath);
+		try {
+			ensureDirExists(file.getParent());
+			Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to write file: " + file);
+		}
+	}
+
+	@Override
+	public boolean exists(String relativePath) {
+		return Files.exists(root.resolve(relativePath));
+	}
+
+	@Override
+	public void deleteFile(String relativePath) {
+		Path file = root.resolve(relativePath);
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to delete file: " + file);
+		}
+	}
+
+	@Override
+	public void moveFile(String sourcePath, String targetPath) {
+		Path source = root.resolve(sourcePath);
+		Path target = root.resolve(targetPath);
+		try {
+			if (Files.exists(target) && Files.isSameFile(source, target))
+				return;
+
+			ensureDirExists(target.getParent());
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to move file '" + source + "' to '" + target + "'");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return root.toString();
+	}
+
+}
@@ -0,0 +1,151 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.braintribe.exception.Exceptions;
+import com.braintribe.template.processing.api.ProjectionOutput;
+
+/**
+ * {@link ProjectionOutput} keeping the projected files in memory, i.e. nothing is written to the file system.
+ * <p>
+ * The views returned by {@link #resolve(String)} share the file tree of the output they were resolved from.
+ */
+public class InMemoryProjectionOutput implements ProjectionOutput {
+
+	private final NavigableMap<String, byte[]> files;
+	private final NavigableSet<String> dirs;
+	private final String prefix;
+
+	public InMemoryProjectionOutput() {
+		this(new TreeMap<>(), new TreeSet<>(), "");
+	}
+
+	private InMemoryProjectionOutput(NavigableMap<String, byte[]> files, NavigableSet<String> dirs, String prefix) {
+		this.files = files;
+		this.dirs = dirs;
+		this.prefix = prefix;
+	}
+
+	@Override
+	public InMemoryProjectionOutput resolve(String relativePath) {
+		String path = path(relativePath);
+		return new InMemoryProjectionOutput(files, dirs, path.isEmpty() ? "" : path + "/");
+	}
+
+	@Override
+	public void createDir(String relativePath) {
+		addDirs(path(relativePath));
+	}
+
+	@Override
+	public OutputStream openFile(String relativePath) {
+		String path = path(relativePath);
+		return new ByteArrayOutputStream() {
+			@Override
+			public void close() {
+				putFile(path, toByteArray());
+			}
+		};
+	}
+
+	@Override
+	public void writeFile(String relativePath, InputStream content) {
+		try {
+			putFile(path(relativePath), content.readAllBytes());
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to read content of: " + relativePath);
+		}
+	}
+
+	@Override
+	public boolean exists(String relativePath) {
+		String path = path(relativePath);
+		return files.containsKey(path) || dirs.contains(path);
+	}
+
+	@Override
+	public void deleteFile(String relativePath) {
+		files.remove(path(relativePath));
+	}
+
+	@Override
+	public void moveFile(String sourcePath, String targetPath) {
+		String source = path(sourcePath);
+		String target = path(targetPath);
+		if (source.equals(target))
+			return;
+
+		byte[] data = files.remove(source);
+		if (data == null)
+			throw new IllegalArgumentException("Cannot move non-existent file: " + source);
+
+		putFile(target, data);
+	}
+
+	private void putFile(String path, byte[] data) {
+		int i = path.lastIndexOf('/');
+		if (i > 0)
+			addDirs(path.substring(0, i));
+
+		files.put(path, data);
+	}
+
+	private void addDirs(String dir) {
+		while (!dir.isEmpty() && dirs.add(dir)) {
+			int i = dir.lastIndexOf('/');
+			dir = i < 0 ? "" : dir.substring(0, i);
+		}
+	}
+
+	private String path(String relativePath) {
+		StringBuilder sb = new StringBuilder(prefix);
+		for (String segment : relativePath.replace('\\', '/').split("/"))
+			if (!segment.isEmpty() && !segment.equals("."))
+				sb.append(segment).append('/');
+
+		return sb.length() == 0 ? "" : sb.substring(0, sb.length() - 1);
+	}
+
+	/** Returns the files of the entire tree (i.e. not only of this view), with paths relative to the tree root. */
+	public NavigableMap<String, byte[]> files() {
+		return Collections.unmodifiableNavigableMap(files);
+	}
+
+	/** Returns the directories of the entire tree (i.e. not only of this view), with paths relative to the tree root. */
+	public NavigableSet<String> dirs() {
+		return Collections.unmodifiableNavigableSet(dirs);
+	}
+
+	public long size() {
+		return files.values().stream().mapToLong(data -> data.length).sum();
+	}
+
+	@Override
+	public String toString() {
+		return "memory:/" + prefix;
+	}
+
+}
@@ -0,0 +1,211 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.braintribe.devrock.templates.model.ProjectionArchiveFormat;
+import com.braintribe.model.resource.Resource;
+
+/**
+ * Packs an {@link InMemoryProjectionOutput in-memory projection} as a zip or tar archive, entry by entry while the stream is being read. Thus only
+ * the archive data of a single entry is buffered at a time, not the entire archive.
+ */
+public class ProjectionArchiveInputStream extends InputStream {
+
+	private static final int TAR_BLOCK_SIZE = 512;
+
+	private final Iterator<Map.Entry<String, byte[]>> entries;
+	private final ExposedByteArrayOutputStream buffer = new ExposedByteArrayOutputStream();
+	private final EntryWriter entryWriter;
+
+	private int position;
+	private boolean finished;
+
+	public ProjectionArchiveInputStream(InMemoryProjectionOutput projection, ProjectionArchiveFormat format) {
+		// directories are mapped to null, so that empty directories are part of the archive too
+		NavigableMap<String, byte[]> archiveEntries = new TreeMap<>();
+		for (String dir : projection.dirs())
+			archiveEntries.put(dir + "/", null);
+		archiveEntries.putAll(projection.files());
+
+		this.entries = archiveEntries.entrySet().iterator();
+		this.entryWriter = format == ProjectionArchiveFormat.tar ? new TarEntryWriter() : new ZipEntryWriter();
+	}
+
+	/** Returns a {@link Resource} whose every {@link Resource#openStream() opened stream} packs given projection anew. */
+	public static Resource toResource(InMemoryProjectionOutput projection, ProjectionArchiveFormat format, String baseName) {
+		Resource result = Resource.createTransient(() -> new ProjectionArchiveInputStream(projection, format));
+		result.setName(baseName + "." + format);
+		result.setMimeType(format == ProjectionArchiveFormat.tar ? "application/x-tar" : "application/zip");
+		return result;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!ensureBuffered())
+			return -1;
+
+		return buffer.data()[position++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		if (!ensureBuffered())
+			return -1;
+
+		int n = Math.min(len, buffer.size() - position);
+		System.arraycopy(buffer.data(), position, b, off, n);
+		position += n;
+		return n;
+	}
+
+	private boolean ensureBuffered() throws IOException {
+		while (position >= buffer.size()) {
+			if (finished)
+				return false;
+
+			buffer.reset();
+			position = 0;
+
+			if (entries.hasNext()) {
+				Map.Entry<String, byte[]> entry = entries.next();
+				entryWriter.write(entry.getKey(), entry.getValue());
+			} else {
+				entryWriter.finish();
+				finished = true;
+			}
+		}
+		return true;
+	}
+
+	private interface EntryWriter {
+		/** @param data null for a directory */
+		void write(String name, byte[] data) throws IOException;
+		void finish() throws IOException;
+	}
+
+	private class ZipEntryWriter implements EntryWriter {
+		private final ZipOutputStream zos = new ZipOutputStream(buffer);
+
+		@Override
+		public void write(String name, byte[] data) throws IOException {
+			zos.putNextEntry(new ZipEntry(name));
+			if (data != null)
+				zos.write(data);
+			zos.closeEntry();
+		}
+
+		@Override
+		public void finish() throws IOException {
+			zos.finish();
+		}
+	}
+
+	/** Writes the POSIX ustar format, which is enough for the paths and plain files and directories of a projection. */
+	private class TarEntryWriter implements EntryWriter {
+		private final long mtime = System.currentTimeMillis() / 1000;
+
+		@Override
+		public void write(String name, byte[] data) throws IOException {
+			buffer.write(header(name, data));
+			if (data == null)
+				return;
+
+			buffer.write(data);
+			int padding = (TAR_BLOCK_SIZE - data.length % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE;
+			buffer.write(new byte[padding]);
+		}
+
+		@Override
+		public void finish() throws IOException {
+			buffer.write(new byte[2 * TAR_BLOCK_SIZE]);
+		}
+
+		private byte[] header(String name, byte[] data) {
+			byte[] header = new byte[TAR_BLOCK_SIZE];
+
+			byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+			if (nameBytes.length <= 100) {
+				put(header, 0, nameBytes);
+			} else {
+				// the path is split into a prefix (max 155 bytes) and name (max 100 bytes) at a '/'
+				int split = name.lastIndexOf('/', name.length() - 2);
+				while (split > 0 && name.substring(split + 1).getBytes(StandardCharsets.UTF_8).length <= 100
+						&& name.substring(0, split).getBytes(StandardCharsets.UTF_8).length > 155)
+					split = name.lastIndexOf('/', split - 1);
+
+				if (split <= 0 || name.substring(split + 1).getBytes(StandardCharsets.UTF_8).length > 100)
+					throw new IllegalArgumentException("Path is too long for a tar archive: " + name);
+
+				put(header, 0, name.substring(split + 1).getBytes(StandardCharsets.UTF_8));
+				put(header, 345, name.substring(0, split).getBytes(StandardCharsets.UTF_8));
+			}
+
+			putOctal(header, 100, 8, data == null ? 0755 : 0644);
+			putOctal(header, 108, 8, 0);
+			putOctal(header, 116, 8, 0);
+			putOctal(header, 124, 12, data == null ? 0 : data.length);
+			putOctal(header, 136, 12, mtime);
+			header[156] = (byte) (data == null ? '5' : '0');
+			put(header, 257, "ustar\0".getBytes(StandardCharsets.US_ASCII));
+			put(header, 263, "00".getBytes(StandardCharsets.US_ASCII));
+
+			// the checksum is computed with the checksum field itself filled with spaces
+			for (int i = 148; i < 156; i++)
+				header[i] = ' ';
+			long checksum = 0;
+			for (byte b : header)
+				checksum += b & 0xff;
+			putOctal(header, 148, 7, checksum);
+
+			return header;
+		}
+
+		private void put(byte[] header, int offset, byte[] value) {
+			System.arraycopy(value, 0, header, offset, value.length);
+		}
+
+		/** Writes the value as zero-padded octal number followed by a NUL, filling the given length. */
+		private void putOctal(byte[] header, int offset, int length, long value) {
+			String octal = Long.toOctalString(value);
+			if (octal.length() > length - 1)
+				throw new IllegalArgumentException("Value " + value + " does not fit into a tar header field of length " + length);
+
+			String padded = "0".repeat(length - 1 - octal.length()) + octal;
+			put(header, offset, padded.getBytes(StandardCharsets.US_ASCII));
+			header[offset + length - 1] = 0;
+		}
+	}
+
+	private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+		byte[] data() {
+			return buf;
+		}
+	}
+
+}
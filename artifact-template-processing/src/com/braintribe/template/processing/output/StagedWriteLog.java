@@ -0,0 +1,182 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.output;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.braintribe.template.processing.api.ProjectionOutput;
+
+/**
+ * Records which staged files the projections of one request write, so that a repeated identical template request can be skipped as long as none of
+ * the files its previous projection wrote was written again since.
+ * <p>
+ * A projection is recorded between {@link #begin()} and {@link #end()}. Projections nest (a template and its template dependencies), the files
+ * written by a nested projection count for the enclosing ones as well. Only the writes through a {@link #wrap(ProjectionOutput) wrapped} output are
+ * recorded, with paths relative to the root of that output.
+ * <p>
+ * Not thread-safe, all the writes must happen on the projecting thread.
+ */
+public class StagedWriteLog {
+
+	/* by path, the number of the last write of that path */
+	private final Map<String, Long> lastWrites = new HashMap<>();
+	private final Deque<Set<String>> activeProjections = new ArrayDeque<>();
+	private long writeCount;
+
+	/** Starts recording a projection. */
+	public void begin() {
+		activeProjections.push(new HashSet<>());
+	}
+
+	/** Stops recording the innermost projection and returns the files it wrote. */
+	public StagedWrites end() {
+		Set<String> paths = activeProjections.pop();
+		Set<String> enclosing = activeProjections.peek();
+		if (enclosing != null)
+			enclosing.addAll(paths);
+
+		return new StagedWrites(paths, writeCount);
+	}
+
+	/** Returns true iff none of the files written by given projection was written (or deleted) since that projection ended. */
+	public boolean isIntact(StagedWrites writes) {
+		for (String path : writes.paths)
+			if (lastWrites.get(path) > writes.writeCount)
+				return false;
+
+		return true;
+	}
+
+	/** Returns given output with all its writes recorded by this log. */
+	public ProjectionOutput wrap(ProjectionOutput output) {
+		return new LoggedProjectionOutput(output, "");
+	}
+
+	/**
+	 * Returns the output given output delegates to if it was {@link #wrap(ProjectionOutput) wrapped} by this log, or given output otherwise. This is
+	 * used to write files which were already recorded, e.g. when copying a sub-tree which was staged separately through a logged output.
+	 */
+	public ProjectionOutput unwrap(ProjectionOutput output) {
+		if (output instanceof LoggedProjectionOutput) {
+			LoggedProjectionOutput logged = (LoggedProjectionOutput) output;
+			if (logged.log() == this)
+				return logged.delegate;
+		}
+
+		return output;
+	}
+
+	private void onWritten(String path) {
+		lastWrites.put(path, ++writeCount);
+
+		Set<String> innermost = activeProjections.peek();
+		if (innermost != null)
+			innermost.add(path);
+	}
+
+	/** The files written by one projection, see {@link StagedWriteLog#end()}. */
+	public static class StagedWrites {
+		private final Set<String> paths;
+		private final long writeCount;
+
+		StagedWrites(Set<String> paths, long writeCount) {
+			this.paths = paths;
+			this.writeCount = writeCount;
+		}
+	}
+
+	private class LoggedProjectionOutput implements ProjectionOutput {
+		private final ProjectionOutput delegate;
+		private final String prefix;
+
+		LoggedProjectionOutput(ProjectionOutput delegate, String prefix) {
+			this.delegate = delegate;
+			this.prefix = prefix;
+		}
+
+		StagedWriteLog log() {
+			return StagedWriteLog.this;
+		}
+
+		@Override
+		public ProjectionOutput resolve(String relativePath) {
+			String path = path(relativePath);
+			return new LoggedProjectionOutput(delegate.resolve(relativePath), path.isEmpty() ? "" : path + "/");
+		}
+
+		@Override
+		public void createDir(String relativePath) {
+			delegate.createDir(relativePath);
+		}
+
+		@Override
+		public OutputStream openFile(String relativePath) {
+			onWritten(path(relativePath));
+			return delegate.openFile(relativePath);
+		}
+
+		@Override
+		public void writeFile(String relativePath, InputStream content) {
+			onWritten(path(relativePath));
+			delegate.writeFile(relativePath, content);
+		}
+
+		@Override
+		public boolean exists(String relativePath) {
+			return delegate.exists(relativePath);
+		}
+
+		@Override
+		public void deleteFile(String relativePath) {
+			onWritten(path(relativePath));
+			delegate.deleteFile(relativePath);
+		}
+
+		@Override
+		public void moveFile(String sourcePath, String targetPath) {
+			onWritten(path(sourcePath));
+			onWritten(path(targetPath));
+			delegate.moveFile(sourcePath, targetPath);
+		}
+
+		@Override
+		public void onRendering(long renderedBytes) {
+			delegate.onRendering(renderedBytes);
+		}
+
+		private String path(String relativePath) {
+			StringBuilder sb = new StringBuilder(prefix);
+			for (String segment : relativePath.replace('\\', '/').split("/"))
+				if (!segment.isEmpty() && !segment.equals("."))
+					sb.append(segment).append('/');
+
+			return sb.length() == 0 ? "" : sb.substring(0, sb.length() - 1);
+		}
+
+		@Override
+		public String toString() {
+			return delegate.toString();
+		}
+	}
+
+}
@@ -0,0 +1,198 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.braintribe.devrock.templates.model.PipelineStageStats;
+import com.braintribe.exception.Exceptions;
+
+/**
+ * One stage of the projection pipeline - a fixed number of worker threads processing the tasks of a bounded queue.
+ * <p>
+ * When the queue is full, {@link #submit(Callable) submitting} blocks, so a fast producer is slowed down to the pace of the stage (and the memory
+ * held by the queued tasks stays bounded). With a single worker, the tasks are processed in the order in which they were submitted.
+ * <p>
+ * The stage records the number of processed tasks, the maximum queue depth, the time its workers were busy and the time the producers were
+ * blocked, see {@link #stats()}.
+ */
+public class PipelineStage implements AutoCloseable {
+
+	private final String name;
+	private final BlockingQueue<Task<?>> queue;
+	private final List<Thread> workers = new ArrayList<>();
+	private final Task<?> poison = new Task<>(() -> null);
+
+	private final LongAdder items = new LongAdder();
+	private final LongAdder busyNanos = new LongAdder();
+	private final LongAdder blockedNanos = new LongAdder();
+	private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+	private volatile boolean closed;
+
+	public PipelineStage(String name, int workerCount, int capacity) {
+		this.name = name;
+		this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+
+		for (int i = 0; i < workerCount; i++) {
+			Thread worker = new Thread(this::work, "template-pipeline-" + name + "-" + i);
+			worker.setDaemon(true);
+			worker.start();
+			workers.add(worker);
+		}
+	}
+
+	public String name() {
+		return name;
+	}
+
+	/** Queues given task, waiting for space in the queue if needed. */
+	public <T> CompletableFuture<T> submit(Callable<T> task) {
+		Task<T> t = new Task<>(task);
+		if (closed) {
+			t.future.cancel(false);
+			return t.future;
+		}
+
+		if (!queue.offer(t)) {
+			long start = System.nanoTime();
+			try {
+				queue.put(t);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw Exceptions.unchecked(e, "Interrupted while waiting for the '" + name + "' stage of the projection pipeline");
+			} finally {
+				blockedNanos.add(System.nanoTime() - start);
+			}
+		}
+
+		maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+		return t.future;
+	}
+
+	private void work() {
+		while (true) {
+			Task<?> task;
+			try {
+				task = queue.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+
+			if (task == poison)
+				return;
+
+			task.run();
+		}
+	}
+
+	/**
+	 * Stops the stage. The queued tasks are canceled, the running tasks are finished (i.e. when this method returns, no task of this stage runs
+	 * anymore).
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		cancelQueued();
+
+		try {
+			for (int i = 0; i < workers.size(); i++)
+				queue.put(poison);
+
+			for (Thread worker : workers)
+				worker.join();
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			workers.forEach(Thread::interrupt);
+		}
+
+		cancelQueued();
+	}
+
+	private void cancelQueued() {
+		Task<?> task;
+		while ((task = queue.poll()) != null)
+			if (task != poison)
+				task.future.cancel(false);
+	}
+
+	public PipelineStageStats stats() {
+		PipelineStageStats result = PipelineStageStats.T.create();
+		result.setName(name);
+		result.setItems(items.intValue());
+		result.setMaxQueueDepth(maxQueueDepth.get());
+		result.setBusyMillis(busyNanos.sum() / 1_000_000d);
+		result.setBlockedMillis(blockedNanos.sum() / 1_000_000d);
+		return result;
+	}
+
+	private class Task<T> implements Runnable {
+		final Callable<T> callable;
+		final CompletableFuture<T> future = new CompletableFuture<>();
+
+		Task(Callable<T> callable) {
+			this.callable = callable;
+		}
+
+		@Override
+		public void run() {
+			if (future.isDone()) // canceled
+				return;
+
+			long start = System.nanoTime();
+			T result = null;
+			Throwable failure = null;
+			try {
+				result = callable.call();
+			} catch (Throwable e) {
+				failure = e;
+			} finally {
+				busyNanos.add(System.nanoTime() - start);
+				items.increment();
+			}
+
+			// NOTE completed after the time is recorded, as completing runs the dependent actions, e.g. submitting to the next stage
+			if (failure != null)
+				future.completeExceptionally(failure);
+			else
+				future.complete(result);
+		}
+	}
+
+	/** Returns the value of given future, waiting for it if needed, and rethrowing its failure unchecked. */
+	public static <T> T await(CompletableFuture<T> future) {
+		try {
+			return future.get();
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw Exceptions.unchecked(e, "Interrupted while waiting for the projection pipeline");
+
+		} catch (ExecutionException e) {
+			throw Exceptions.unchecked(e.getCause(), e.getCause().getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.pipeline;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.braintribe.exception.Exceptions;
+import com.braintribe.template.processing.api.ProjectionOutput;
+
+/**
+ * {@link ProjectionOutput} which writes into its delegate asynchronously, on the single worker of a "write" {@link PipelineStage}, so that the
+ * projecting thread goes on rendering while the previous files are being written. The operations are applied in the order in which they were
+ * called, and the queue of pending operations is bounded.
+ * <p>
+ * The first failure of a write is rethrown by the next operation (or by {@link #flush()}), all the subsequent writes are skipped. The
+ * {@link #exists(String)} check waits for all the pending writes.
+ */
+public class WriteBehindProjectionOutput implements ProjectionOutput, AutoCloseable {
+
+	private final ProjectionOutput delegate;
+	private final WriteStage stage;
+
+	public WriteBehindProjectionOutput(ProjectionOutput delegate, int capacity) {
+		this(delegate, new WriteStage(new PipelineStage("write", 1, capacity)));
+	}
+
+	private WriteBehindProjectionOutput(ProjectionOutput delegate, WriteStage stage) {
+		this.delegate = delegate;
+		this.stage = stage;
+	}
+
+	public PipelineStage stage() {
+		return stage.stage;
+	}
+
+	@Override
+	public ProjectionOutput resolve(String relativePath) {
+		return new WriteBehindProjectionOutput(delegate.resolve(relativePath), stage);
+	}
+
+	@Override
+	public void createDir(String relativePath) {
+		stage.write(() -> delegate.createDir(relativePath));
+	}
+
+	@Override
+	public OutputStream openFile(String relativePath) {
+		return new ByteArrayOutputStream() {
+			private boolean closed;
+
+			@Override
+			public void close() {
+				if (!closed) {
+					closed = true;
+					byte[] data = toByteArray();
+					stage.write(() -> delegate.writeFile(relativePath, new ByteArrayInputStream(data)));
+				}
+			}
+		};
+	}
+
+	@Override
+	public void writeFile(String relativePath, InputStream content) {
+		// NOTE read right away, as the caller closes the stream when this method returns
+		byte[] data;
+		try {
+			data = content.readAllBytes();
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to read content of: " + relativePath);
+		}
+
+		stage.write(() -> delegate.writeFile(relativePath, new ByteArrayInputStream(data)));
+	}
+
+	@Override
+	public boolean exists(String relativePath) {
+		flush();
+		return delegate.exists(relativePath);
+	}
+
+	@Override
+	public void deleteFile(String relativePath) {
+		stage.write(() -> delegate.deleteFile(relativePath));
+	}
+
+	@Override
+	public void moveFile(String sourcePath, String targetPath) {
+		stage.write(() -> delegate.moveFile(sourcePath, targetPath));
+	}
+
+	@Override
+	public void onRendering(long renderedBytes) {
+		delegate.onRendering(renderedBytes);
+	}
+
+	/** Waits until all the pending writes are done, rethrowing the first failure of a write if any. */
+	public void flush() {
+		PipelineStage.await(stage.stage.submit(() -> null));
+		stage.rethrowFailure();
+	}
+
+	/** Stops the writing, discarding the pending writes. Call {@link #flush()} first to write them. */
+	@Override
+	public void close() {
+		stage.stage.close();
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+
+	/* shared by an output and all its resolved outputs */
+	private static class WriteStage {
+		final PipelineStage stage;
+		volatile RuntimeException failure;
+
+		WriteStage(PipelineStage stage) {
+			this.stage = stage;
+		}
+
+		void write(Runnable write) {
+			rethrowFailure();
+			stage.submit(() -> {
+				if (failure == null)
+					try {
+						write.run();
+					} catch (RuntimeException e) {
+						failure = e;
+					}
+				return null;
+			});
+		}
+
+		void rethrowFailure() {
+			RuntimeException e = failure;
+			if (e != null)
+				throw Exceptions.unchecked(e, "Writing the projection failed");
+		}
+	}
+
+}
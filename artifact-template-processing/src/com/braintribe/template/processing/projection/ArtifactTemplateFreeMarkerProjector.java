@@ -16,37 +16,47 @@
 package com.braintribe.template.processing.projection;
 
 import static com.braintribe.template.processing.helper.FileHelper.collectRelativePaths;
-import static com.braintribe.template.processing.helper.FileHelper.copyFile;
-import static com.braintribe.template.processing.helper.FileHelper.deleteFile;
-import static com.braintribe.template.processing.helper.FileHelper.ensureDirExists;
 import static com.braintribe.utils.lcd.CollectionTools2.asMap;
+import static java.util.Objects.requireNonNullElse;
 
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import com.braintribe.cfg.Configurable;
 import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
 import com.braintribe.exception.Exceptions;
 import com.braintribe.gm.config.api.ModeledConfiguration;
 import com.braintribe.template.processing.ArtifactTemplateConsts;
 import com.braintribe.template.processing.api.ArtifactTemplateProjector;
-import com.braintribe.template.processing.helper.FileHelper;
+import com.braintribe.template.processing.api.PhaseRecorder;
+import com.braintribe.template.processing.api.PhaseRecorder.Phase;
+import com.braintribe.template.processing.api.ProjectionOutput;
+import com.braintribe.template.processing.api.engine.TemplateEngine;
+import com.braintribe.template.processing.api.engine.TemplateRenderer;
+import com.braintribe.template.processing.api.listener.ProjectionListener;
+import com.braintribe.template.processing.cache.ExtractedTemplateCache;
+import com.braintribe.template.processing.jfr.TemplateFileRenderEvent;
+import com.braintribe.template.processing.output.DirectoryProjectionOutput;
+import com.braintribe.template.processing.projection.engine.FreeMarkerTemplateEngine;
+import com.braintribe.template.processing.projection.engine.PlaceholderTemplateEngine;
 import com.braintribe.template.processing.projection.support.StaticHandler;
 import com.braintribe.template.processing.projection.support.TemplateHandler;
 import com.braintribe.template.processing.projection.support.TemplateSupport;
-import com.braintribe.utils.FileTools;
+import com.braintribe.template.processing.source.TemplateSources;
 
-import freemarker.template.Configuration;
-import freemarker.template.Template;
 import freemarker.template.TemplateModelException;
 import freemarker.template.Version;
 
@@ -56,29 +66,82 @@ import freemarker.template.Version;
  * <br>
  * 
  * It implements different functionalities of the artifact templates, like projected file relocation, ignoring template, creating directory etc. <br>
+ * <br>
+ * 
+ * The projected files are rendered by the {@link TemplateEngine} registered for their extension - FreeMarker for ".ftl" and the
+ * {@link PlaceholderTemplateEngine} for ".ptl", other engines can be {@link #setTemplateEngines(Map) registered}. Files with no registered
+ * extension are rendered by FreeMarker, keeping their name.
  *
  */
 public class ArtifactTemplateFreeMarkerProjector implements ArtifactTemplateProjector, ArtifactTemplateConsts {
 
-	private final Version freeMarkerVersion;
 	private final ModeledConfiguration modelConfiguration;
+	private final FreeMarkerTemplateEngine freeMarkerEngine;
+	private final PlaceholderTemplateEngine placeholderEngine = new PlaceholderTemplateEngine();
+	/* by extension (including the dot) */
+	private final Map<String, TemplateEngine> templateEngines = new LinkedHashMap<>();
+	private ProjectionListener listener = ProjectionListener.NOOP;
 
 	public ArtifactTemplateFreeMarkerProjector(Version freeMarkerVersion,  ModeledConfiguration modelConfiguration) {
-		this.freeMarkerVersion = freeMarkerVersion;
 		this.modelConfiguration = modelConfiguration;
+		this.freeMarkerEngine = new FreeMarkerTemplateEngine(freeMarkerVersion);
+
+		templateEngines.put(FreeMarkerTemplateEngine.EXTENSION, freeMarkerEngine);
+		templateEngines.put(PlaceholderTemplateEngine.EXTENSION, placeholderEngine);
+	}
+
+	/** If set, templates projected from a source folder reuse their compiled templates, see {@link TemplateSources}. */
+	@Configurable
+	public void setTemplateSources(TemplateSources templateSources) {
+		freeMarkerEngine.setTemplateSources(templateSources);
+		placeholderEngine.setTemplateSources(templateSources);
+	}
+
+	/** If set, templates extracted into this cache reuse their compiled templates, see {@link ExtractedTemplateCache}. */
+	@Configurable
+	public void setExtractedTemplateCache(ExtractedTemplateCache extractedTemplateCache) {
+		freeMarkerEngine.setExtractedTemplateCache(extractedTemplateCache);
+		placeholderEngine.setExtractedTemplateCache(extractedTemplateCache);
+	}
+
+	/**
+	 * Additional template engines by the extension (including the dot, e.g. ".mustache") of the files they render. An engine registered for ".ftl"
+	 * or ".ptl" replaces the built-in one for those files.
+	 */
+	@Configurable
+	public void setTemplateEngines(Map<String, TemplateEngine> templateEngines) {
+		this.templateEngines.putAll(templateEngines);
+	}
+
+	/** Notified about each rendered, ignored and relocated file. */
+	@Configurable
+	public void setListener(ProjectionListener listener) {
+		this.listener = listener;
 	}
 
 	@Override
 	public void project(ArtifactTemplateRequest request, Path templateDir, Path installationDir) {
+		project(request, templateDir, installationDir, PhaseRecorder.NOOP);
+	}
+
+	@Override
+	public void project(ArtifactTemplateRequest request, Path templateDir, Path installationDir, PhaseRecorder phaseRecorder) {
+		project(request, templateDir, new DirectoryProjectionOutput(installationDir), phaseRecorder);
+	}
+
+	@Override
+	public void project(ArtifactTemplateRequest request, Path templateDir, ProjectionOutput output, PhaseRecorder phaseRecorder) {
 		try {
-			projectStaticDir(templateDir, installationDir);
-			projectDynamicDir(request, templateDir, installationDir);
+			try (Phase p = phaseRecorder.begin(PHASE_STATIC_COPY)) {
+				projectStaticDir(templateDir, output);
+			}
+			projectDynamicDir(request, templateDir, output, phaseRecorder);
 		} catch (Exception e) {
 			throw Exceptions.unchecked(e, e.getMessage());
 		}
 	}
 
-	private void projectStaticDir(Path templateDir, Path installationDir) throws Exception {
+	private void projectStaticDir(Path templateDir, ProjectionOutput output) throws Exception {
 		Path staticDir = templateDir.resolve(STATIC_DIR_FULL);
 		if (!Files.exists(staticDir)) {
 			return;
@@ -87,107 +150,198 @@ public class ArtifactTemplateFreeMarkerProjector implements ArtifactTemplateProj
 		List<Path> staticFiles = collectRelativePaths(staticDir);
 		for (Path staticFile : staticFiles) {
 			Path source = staticDir.resolve(staticFile);
-			Path target = installationDir.resolve(staticFile);
-			copyFile(source, target);
+			String target = outputPath(staticFile);
+			if (Files.isDirectory(source)) {
+				output.createDir(target);
+				continue;
+			}
+
+			try (InputStream in = Files.newInputStream(source)) {
+				output.writeFile(target, in);
+			}
 		}
 	}
 
-	private void projectDynamicDir(ArtifactTemplateRequest request, Path templateDir, Path installationDir) throws Exception {
+	private void projectDynamicDir(ArtifactTemplateRequest request, Path templateDir, ProjectionOutput output, PhaseRecorder phaseRecorder)
+			throws Exception {
 		Path dynamicDir = templateDir.resolve(DYNAMIC_DIR_FULL);
 		if (!Files.exists(dynamicDir)) {
 			return;
 		}
 
 		Map<String, Object> dataModel = asMap("request", request, "support", new TemplateSupport(request, modelConfiguration));
+		Renderers renderers = new Renderers(dynamicDir);
 
-		Configuration freeMarkerConfig = new Configuration(freeMarkerVersion);
-		freeMarkerConfig.setDirectoryForTemplateLoading(dynamicDir.toFile());
-
-		processStaticTemplate(templateDir, installationDir, dataModel, freeMarkerConfig);
-		processProjectedTemplates(templateDir, installationDir, dataModel, freeMarkerConfig);
+		try (Phase p = phaseRecorder.begin(PHASE_RENDERING)) {
+			processStaticTemplate(request, templateDir, output, dataModel, renderers.of(freeMarkerEngine));
+		}
+		processProjectedTemplates(templateDir, output, dataModel, renderers, phaseRecorder);
 	}
 
-	private void processStaticTemplate(Path templateDir, Path installationDir, Map<String, Object> dataModel, Configuration freeMarkerConfig)
-			throws Exception {
+	private void processStaticTemplate(ArtifactTemplateRequest request, Path templateDir, ProjectionOutput output, Map<String, Object> dataModel,
+			TemplateRenderer freeMarker) throws Exception {
 		Path staticHandlerFile = templateDir.resolve(STATIC_TEMPLATE_FULL);
 		if (!Files.exists(staticHandlerFile)) {
 			return;
 		}
 
 		StaticHandler staticHandler = new StaticHandler();
-		dataModel.put("static", staticHandler);
-		projectFreeMarkerTemplate(staticHandlerFile.getFileName().toString(), dataModel, new NullOutputStream(), freeMarkerConfig);
-		dataModel.remove("static");
+		renderTemplate(staticHandlerFile.getFileName().toString(), with(dataModel, "static", staticHandler), new NullOutputStream(), freeMarker);
 
 		for (String dirToCreate : staticHandler.getDirsToCreate()) {
-			ensureDirExists(installationDir.resolve(dirToCreate));
+			output.createDir(dirToCreate);
 		}
 		for (String fileToIgnore : staticHandler.getIgnoredFiles()) {
-			deleteFile(installationDir.resolve(fileToIgnore));
+			output.deleteFile(fileToIgnore);
+			listener.onFileIgnored(request, fileToIgnore);
 		}
 		for (Entry<String, String> fileToRelocate : staticHandler.getFileRelocations().entrySet()) {
-			Path source = installationDir.resolve(fileToRelocate.getKey());
-			Path target = installationDir.resolve(fileToRelocate.getValue());
-			copyFile(source, target);
-			if (!Files.isSameFile(source, target)) {
-				deleteFile(source);
-			}
+			output.moveFile(fileToRelocate.getKey(), fileToRelocate.getValue());
+			listener.onFileRelocated(request, fileToRelocate.getKey(), fileToRelocate.getValue());
 		}
 	}
 
-	private void processProjectedTemplates(Path templateDir, Path installationDir, Map<String, Object> dataModel, Configuration freeMarkerConfig)
-			throws Exception, FileNotFoundException, IOException {
+	private void processProjectedTemplates(Path templateDir, ProjectionOutput output, Map<String, Object> dataModel, Renderers renderers,
+			PhaseRecorder phaseRecorder) throws Exception {
 		Path projectedDir = templateDir.resolve(PROJECTED_DIR_FULL);
 		if (!Files.exists(projectedDir))
 			return;
 
 		List<Path> projectedTemplates = collectRelativePaths(projectedDir);
 		for (Path projectedTemplate : projectedTemplates) {
-			Path tempProjection = FileHelper.createTempFile("projection", "tmp").toPath();
-			Path projectedTemplateWithoutExt = removeFtlExtension(projectedTemplate);
-
-			TemplateHandler templateHandler = new TemplateHandler();
-			dataModel.put("template", templateHandler);
-			try {
-				projectFreeMarkerTemplate(projectedDir.getFileName().toString() + "/" + projectedTemplate, dataModel,
-						new FileOutputStream(tempProjection.toFile()), freeMarkerConfig);
-
-			} catch (TemplateModelException e) {
-				if (e.getCause() instanceof StopTemplateProjectionException)
-					continue; // this means skipping the subsequent copying
-				else
-					throw e;
-
-			} finally {
-				dataModel.remove("template");
+			try (Phase p = phaseRecorder.begin(PHASE_RENDERING)) {
+				processProjectedTemplate(projectedDir, projectedTemplate, output, dataModel, renderers);
 			}
+		}
+	}
+
+	private void processProjectedTemplate(Path projectedDir, Path projectedTemplate, ProjectionOutput output, Map<String, Object> dataModel,
+			Renderers renderers) throws Exception {
+		TemplateFileRenderEvent event = new TemplateFileRenderEvent();
+		event.begin();
+		long startNanos = System.nanoTime();
+
+		// NOTE rendered into memory first, as the template may relocate its projection while being rendered
+		RenderBuffer rendered = new RenderBuffer(output);
+		String templatePath = outputPath(projectedTemplate);
+		String extension = engineExtension(templatePath);
+		String projectedTemplateWithoutExt = extension == null ? templatePath : templatePath.substring(0, templatePath.length() - extension.length());
+		TemplateEngine engine = extension == null ? freeMarkerEngine : templateEngines.get(extension);
+
+		TemplateHandler templateHandler = new TemplateHandler();
+		try {
+			renderTemplate(projectedDir.getFileName().toString() + "/" + templatePath, with(dataModel, "template", templateHandler), rendered,
+					renderers.of(engine));
 
-			Path projection = resolveProjection(installationDir, projectedTemplateWithoutExt, templateHandler);
-			copyFile(tempProjection, projection);
-			deleteFile(tempProjection);
+		} catch (TemplateModelException e) {
+			if (e.getCause() instanceof StopTemplateProjectionException) {
+				commitRenderEvent(event, dataModel, projectedTemplate, null, 0);
+				listener.onFileIgnored((ArtifactTemplateRequest) dataModel.get("request"), projectedTemplateWithoutExt);
+				return; // this means skipping the subsequent copying
+			}
+			else
+				throw e;
 		}
+
+		String projection = resolveProjection(projectedTemplateWithoutExt, templateHandler);
+		output.writeFile(projection, new ByteArrayInputStream(rendered.toByteArray()));
+		commitRenderEvent(event, dataModel, projectedTemplate, projection, rendered.size());
+
+		ArtifactTemplateRequest request = (ArtifactTemplateRequest) dataModel.get("request");
+		if (!projection.equals(projectedTemplateWithoutExt))
+			listener.onFileRelocated(request, projectedTemplateWithoutExt, projection);
+		listener.onFileRendered(request, outputPath(projectedTemplate), projection, rendered.size(), System.nanoTime() - startNanos);
 	}
 
-	private Path removeFtlExtension(Path projectedTemplate) {
-		if (projectedTemplate.toString().endsWith(DOT_FTL))
-			return Paths.get(FileTools.getNameWithoutExtension(projectedTemplate.toString()));
-		else
-			return Paths.get(projectedTemplate.toString());
+	/** Returns a copy of given data model with the additional entry, so the data model itself is never modified while rendering. */
+	private static Map<String, Object> with(Map<String, Object> dataModel, String key, Object value) {
+		Map<String, Object> result = new HashMap<>(dataModel);
+		result.put(key, value);
+		return result;
+	}
+
+	private void commitRenderEvent(TemplateFileRenderEvent event, Map<String, Object> dataModel, Path projectedTemplate, String projection,
+			long bytes) {
+		event.end();
+		if (!event.shouldCommit())
+			return;
+
+		ArtifactTemplateRequest request = (ArtifactTemplateRequest) dataModel.get("request");
+		event.template = requireNonNullElse(request.getTemplate(), request.template());
+		event.templateFile = projectedTemplate.toString();
+		event.projectedFile = projection;
+		event.ignored = projection == null;
+		event.bytes = bytes;
+		event.commit();
 	}
 
-	private Path resolveProjection(Path installationDir, Path projectedTemplateWithoutExt, TemplateHandler templateHandler) {
+	/** Returns the registered extension of given file, or null if no engine is registered for it. */
+	private String engineExtension(String fileName) {
+		for (String extension : templateEngines.keySet())
+			if (fileName.endsWith(extension) && fileName.length() > extension.length())
+				return extension;
+		return null;
+	}
+
+	private String resolveProjection(String projectedTemplateWithoutExt, TemplateHandler templateHandler) {
 		if (templateHandler.getRelocationTarget() != null)
-			return installationDir.resolve(templateHandler.getRelocationTarget());
+			return templateHandler.getRelocationTarget();
 		else
-			return installationDir.resolve(projectedTemplateWithoutExt);
+			return projectedTemplateWithoutExt;
 	}
 
-	private void projectFreeMarkerTemplate(String templateName, Map<String, Object> dataModel, OutputStream output, Configuration freeMarkerConfig)
-			throws Exception {
+	private static String outputPath(Path relativePath) {
+		return relativePath.toString().replace('\\', '/');
+	}
 
-		Template fileTemplate = freeMarkerConfig.getTemplate(templateName);
+	private void renderTemplate(String templateName, Map<String, Object> dataModel, OutputStream output, TemplateRenderer renderer) throws Exception {
 		try (Writer outputWriter = new OutputStreamWriter(output)) {
-			fileTemplate.process(dataModel, outputWriter);
+			renderer.render(templateName, dataModel, outputWriter);
+		}
+	}
+
+	/** The renderers of one projection, created on demand, as most projections only use FreeMarker. */
+	private static class Renderers {
+		private final Path dynamicDir;
+		private final Map<TemplateEngine, TemplateRenderer> renderers = new IdentityHashMap<>();
+
+		Renderers(Path dynamicDir) {
+			this.dynamicDir = dynamicDir;
+		}
+
+		TemplateRenderer of(TemplateEngine engine) {
+			return renderers.computeIfAbsent(engine, e -> e.renderer(dynamicDir));
+		}
+	}
+
+	/** Reports the progress of the rendering to the output (see {@link ProjectionOutput#onRendering(long)}), roughly every 8 KB. */
+	private static class RenderBuffer extends ByteArrayOutputStream {
+		private static final int REPORT_INTERVAL = 8 * 1024;
+
+		private final ProjectionOutput output;
+		private int reported;
+
+		RenderBuffer(ProjectionOutput output) {
+			this.output = output;
+		}
+
+		@Override
+		public synchronized void write(int b) {
+			super.write(b);
+			report();
+		}
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len) {
+			super.write(b, off, len);
+			report();
+		}
+
+		private void report() {
+			if (count - reported >= REPORT_INTERVAL) {
+				reported = count;
+				output.onRendering(count);
+			}
 		}
 	}
 
@@ -0,0 +1,86 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.projection.engine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.braintribe.cfg.Configurable;
+import com.braintribe.exception.Exceptions;
+import com.braintribe.template.processing.ArtifactTemplateConsts;
+import com.braintribe.template.processing.api.engine.TemplateEngine;
+import com.braintribe.template.processing.api.engine.TemplateRenderer;
+import com.braintribe.template.processing.cache.ExtractedTemplateCache;
+import com.braintribe.template.processing.source.TemplateSources;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.Version;
+
+/**
+ * {@link TemplateEngine} for FreeMarker templates, the default engine for the dynamic files of artifact templates.
+ * <p>
+ * Templates of {@link TemplateSources source folders} and of the {@link ExtractedTemplateCache} reuse their compiled FreeMarker templates across
+ * projections, other templates are compiled for each projection.
+ */
+public class FreeMarkerTemplateEngine implements TemplateEngine {
+
+	public static final String EXTENSION = ArtifactTemplateConsts.DOT_FTL;
+
+	private final Version freeMarkerVersion;
+	private TemplateSources templateSources;
+	private ExtractedTemplateCache extractedTemplateCache;
+
+	public FreeMarkerTemplateEngine(Version freeMarkerVersion) {
+		this.freeMarkerVersion = freeMarkerVersion;
+	}
+
+	@Configurable
+	public void setTemplateSources(TemplateSources templateSources) {
+		this.templateSources = templateSources;
+	}
+
+	@Configurable
+	public void setExtractedTemplateCache(ExtractedTemplateCache extractedTemplateCache) {
+		this.extractedTemplateCache = extractedTemplateCache;
+	}
+
+	@Override
+	public TemplateRenderer renderer(Path dynamicDir) {
+		Configuration freeMarkerConfig = configuration(dynamicDir);
+		return (templateName, dataModel, writer) -> {
+			Template template = freeMarkerConfig.getTemplate(templateName);
+			template.process(dataModel, writer);
+		};
+	}
+
+	private Configuration configuration(Path dynamicDir) {
+		Configuration result = templateSources == null ? null : templateSources.freeMarkerConfiguration(dynamicDir);
+		if (result == null && extractedTemplateCache != null)
+			result = extractedTemplateCache.freeMarkerConfiguration(dynamicDir);
+		if (result != null)
+			return result;
+
+		result = new Configuration(freeMarkerVersion);
+		try {
+			result.setDirectoryForTemplateLoading(dynamicDir.toFile());
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Failed to configure FreeMarker for: " + dynamicDir);
+		}
+		return result;
+	}
+
+}
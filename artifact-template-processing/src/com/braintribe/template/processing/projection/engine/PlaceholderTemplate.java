@@ -0,0 +1,168 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.projection.engine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.braintribe.model.generic.GenericEntity;
+import com.braintribe.model.generic.reflection.Property;
+
+/**
+ * A compiled {@link PlaceholderTemplateEngine placeholder template} - the literal segments of the template with the property paths of the
+ * placeholders between them. Immutable, thus can be rendered by multiple threads at once.
+ */
+public class PlaceholderTemplate {
+
+	private final String name;
+	private final long lastModified;
+	private final long size;
+
+	/* one more than placeholders - the segment before each placeholder and the one after the last */
+	private final String[] literals;
+	private final String[][] placeholders;
+
+	private PlaceholderTemplate(String name, long lastModified, long size, String[] literals, String[][] placeholders) {
+		this.name = name;
+		this.lastModified = lastModified;
+		this.size = size;
+		this.literals = literals;
+		this.placeholders = placeholders;
+	}
+
+	long lastModified() {
+		return lastModified;
+	}
+
+	long size() {
+		return size;
+	}
+
+	/**
+	 * @param name
+	 *            the name of the template, used in error messages
+	 * @throws IllegalArgumentException
+	 *             if a placeholder is not a property path or is not closed
+	 */
+	public static PlaceholderTemplate compile(String source, String name, long lastModified, long size) {
+		List<String> literals = new ArrayList<>();
+		List<String[]> placeholders = new ArrayList<>();
+
+		StringBuilder literal = new StringBuilder();
+		int pos = 0;
+		while (true) {
+			int start = source.indexOf("${", pos);
+			if (start < 0) {
+				literal.append(source, pos, source.length());
+				break;
+			}
+
+			// "$${" is an escaped "${"
+			if (start > 0 && source.charAt(start - 1) == '$') {
+				literal.append(source, pos, start - 1).append("${");
+				pos = start + 2;
+				continue;
+			}
+
+			int end = source.indexOf('}', start + 2);
+			if (end < 0)
+				throw new IllegalArgumentException("Unclosed placeholder at line " + line(source, start) + " of template: " + name);
+
+			literal.append(source, pos, start);
+			literals.add(literal.toString());
+			literal.setLength(0);
+
+			placeholders.add(parsePath(source.substring(start + 2, end).trim(), source, start, name));
+			pos = end + 1;
+		}
+		literals.add(literal.toString());
+
+		return new PlaceholderTemplate(name, lastModified, size, literals.toArray(new String[0]), placeholders.toArray(new String[0][]));
+	}
+
+	private static String[] parsePath(String expression, String source, int start, String name) {
+		String[] result = expression.split("\\.", -1);
+		for (String element : result)
+			if (!isIdentifier(element))
+				throw new IllegalArgumentException("Unsupported placeholder '${" + expression + "}' at line " + line(source, start) + " of template: "
+						+ name + ". Only property paths (e.g. ${request.artifactId}) are supported, use a FreeMarker template for anything else.");
+		return result;
+	}
+
+	private static boolean isIdentifier(String s) {
+		if (s.isEmpty() || !Character.isJavaIdentifierStart(s.charAt(0)))
+			return false;
+		for (int i = 1; i < s.length(); i++)
+			if (!Character.isJavaIdentifierPart(s.charAt(i)))
+				return false;
+		return true;
+	}
+
+	private static int line(String source, int index) {
+		int result = 1;
+		for (int i = 0; i < index; i++)
+			if (source.charAt(i) == '\n')
+				result++;
+		return result;
+	}
+
+	public void render(Map<String, Object> dataModel, Writer writer) throws IOException {
+		writer.write(literals[0]);
+		for (int i = 0; i < placeholders.length; i++) {
+			writer.write(valueString(resolve(placeholders[i], dataModel)));
+			writer.write(literals[i + 1]);
+		}
+	}
+
+	private Object resolve(String[] path, Map<String, Object> dataModel) {
+		Object result = dataModel.get(path[0]);
+		for (int i = 1; i < path.length && result != null; i++)
+			result = property(result, path, i);
+
+		if (result == null)
+			throw new IllegalStateException("Placeholder '${" + String.join(".", path) + "}' is null or missing in template: " + name);
+
+		return result;
+	}
+
+	private Object property(Object owner, String[] path, int i) {
+		if (owner instanceof GenericEntity) {
+			GenericEntity entity = (GenericEntity) owner;
+			Property property = entity.entityType().findProperty(path[i]);
+			return property == null ? null : property.get(entity);
+		}
+
+		if (owner instanceof Map)
+			return ((Map<?, ?>) owner).get(path[i]);
+
+		throw new IllegalStateException("Cannot resolve '" + path[i] + "' of placeholder '${" + String.join(".", path) + "}' in template " + name
+				+ ", as the value of '" + String.join(".", Arrays.copyOf(path, i)) + "' is neither an entity nor a map, but: "
+				+ owner.getClass().getName());
+	}
+
+	private static String valueString(Object value) {
+		if (value instanceof String)
+			return (String) value;
+		if (value instanceof Enum)
+			return ((Enum<?>) value).name();
+		return String.valueOf(value);
+	}
+
+}
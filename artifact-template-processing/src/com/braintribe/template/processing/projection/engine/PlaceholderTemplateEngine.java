@@ -0,0 +1,121 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.projection.engine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.braintribe.cfg.Configurable;
+import com.braintribe.template.processing.api.engine.TemplateEngine;
+import com.braintribe.template.processing.api.engine.TemplateRenderer;
+import com.braintribe.template.processing.cache.ExtractedTemplateCache;
+import com.braintribe.template.processing.source.TemplateSources;
+
+/**
+ * Lightweight {@link TemplateEngine} for templates which only substitute values, e.g. {@code <name>${request.artifactId}</name>}. A template is
+ * compiled once into a {@link PlaceholderTemplate plan} of literal segments and property paths, so rendering it only writes the segments and looks
+ * up the values.
+ * <p>
+ * A placeholder is a property path, resolved against the data model - its first element is a variable (e.g. "request"), the following elements are
+ * properties of entities or keys of maps. A value which is null or missing fails the rendering. "$${" is rendered as a literal "${". There are no
+ * directives, defaults, built-ins or method calls - templates which need those are FreeMarker templates.
+ * <p>
+ * Each renderer compiles a template at most once. Templates of the {@link ExtractedTemplateCache} never change, so they are compiled once and kept
+ * by the cache. Only templates of {@link TemplateSources source folders} are checked for changes (once per renderer) and re-compiled if changed.
+ */
+public class PlaceholderTemplateEngine implements TemplateEngine {
+
+	public static final String EXTENSION = ".ptl";
+
+	private static final int MAX_CACHED_TEMPLATES = 256;
+
+	private TemplateSources templateSources;
+	private ExtractedTemplateCache extractedTemplateCache;
+
+	/* templates of source folders only */
+	private final Map<Path, PlaceholderTemplate> sourceTemplates = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Path, PlaceholderTemplate> eldest) {
+			return size() > MAX_CACHED_TEMPLATES;
+		}
+	});
+
+	@Configurable
+	public void setTemplateSources(TemplateSources templateSources) {
+		this.templateSources = templateSources;
+	}
+
+	@Configurable
+	public void setExtractedTemplateCache(ExtractedTemplateCache extractedTemplateCache) {
+		this.extractedTemplateCache = extractedTemplateCache;
+	}
+
+	@Override
+	public TemplateRenderer renderer(Path dynamicDir) {
+		Path templateDir = dynamicDir.toAbsolutePath().normalize().getParent().getParent();
+		boolean sourceTemplate = templateSources != null && templateSources.contains(templateDir);
+		boolean cachedTemplate = !sourceTemplate && extractedTemplateCache != null && extractedTemplateCache.contains(templateDir);
+
+		// a renderer is used by a single projection, so no synchronization is needed
+		Map<String, PlaceholderTemplate> resolved = new HashMap<>();
+		return (templateName, dataModel, writer) -> {
+			PlaceholderTemplate template = resolved.get(templateName);
+			if (template == null) {
+				if (sourceTemplate)
+					template = sourceTemplate(dynamicDir.resolve(templateName));
+				else if (cachedTemplate)
+					template = extractedTemplateCache.placeholderTemplate(dynamicDir, templateName);
+				else
+					template = compile(dynamicDir.resolve(templateName));
+				resolved.put(templateName, template);
+			}
+			template.render(dataModel, writer);
+		};
+	}
+
+	/** Returns the compiled template of given source folder file, compiling it if it is not cached or has changed since. */
+	private PlaceholderTemplate sourceTemplate(Path file) throws IOException {
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+
+		PlaceholderTemplate result = sourceTemplates.get(file);
+		if (result != null && result.lastModified() == attributes.lastModifiedTime().toMillis() && result.size() == attributes.size())
+			return result;
+
+		result = compile(file, attributes);
+		sourceTemplates.put(file, result);
+		return result;
+	}
+
+	/** Compiles given template file. */
+	public static PlaceholderTemplate compile(Path file) throws IOException {
+		return compile(file, Files.readAttributes(file, BasicFileAttributes.class));
+	}
+
+	private static PlaceholderTemplate compile(Path file, BasicFileAttributes attributes) throws IOException {
+		String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		return PlaceholderTemplate.compile(source, file.toString(), attributes.lastModifiedTime().toMillis(), attributes.size());
+	}
+
+}
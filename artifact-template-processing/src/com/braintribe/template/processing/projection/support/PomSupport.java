@@ -35,6 +35,8 @@ import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
 import com.braintribe.exception.Exceptions;
 import com.braintribe.model.artifact.declared.DeclaredArtifact;
 import com.braintribe.model.version.Version;
+import com.braintribe.template.processing.install.PathLocks;
+import com.braintribe.template.processing.install.PathLocks.Locked;
 import com.braintribe.utils.DOMTools;
 import com.braintribe.utils.FileTools;
 import com.braintribe.utils.template.Template;
@@ -78,9 +80,12 @@ import com.braintribe.utils.template.Template;
 
 		Path parentPom = parentPomPath();
 
-		Map<String, String> missingVars = findMissingGroupVars(parentPom, dependencies);
+		// parts of a composite request (or concurrent requests) may be projected in parallel, and each may update the parent pom
+		try (Locked locked = PathLocks.INSTANCE.lockForWriting(parentPom)) {
+			Map<String, String> missingVars = findMissingGroupVars(parentPom, dependencies);
 
-		addGroupVarsToPom(parentPom, missingVars);
+			addGroupVarsToPom(parentPom, missingVars);
+		}
 	}
 
 	private Map<String, String> findMissingGroupVars(Path parentPom, String... dependencies) {
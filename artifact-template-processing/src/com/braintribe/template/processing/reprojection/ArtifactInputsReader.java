@@ -0,0 +1,361 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.reprojection;
+
+import static com.braintribe.utils.lcd.CollectionTools2.newList;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.ProcessingInstruction;
+
+import com.braintribe.devrock.templates.model.Dependency;
+import com.braintribe.devrock.templates.model.Property;
+import com.braintribe.devrock.templates.model.artifact.CreateBuildSystemConfig;
+import com.braintribe.devrock.templates.model.artifact.CreateProjectMetadata;
+import com.braintribe.exception.Exceptions;
+
+/**
+ * Reconstructs the inputs of the build system and project metadata templates (i.e. {@link CreateBuildSystemConfig} and
+ * {@link CreateProjectMetadata}) from the files these templates have projected into an existing artifact - pom.xml, build.xml, .project and
+ * .classpath.
+ * <p>
+ * Files with content the templates cannot produce (e.g. additional pom elements, custom ant targets or comments) are rejected with an
+ * {@link UnsupportedContentException}, unless the reader is lenient, as re-projecting such a file would lose that content.
+ */
+public class ArtifactInputsReader {
+
+	public static final String POM_XML = "pom.xml";
+	public static final String BUILD_XML = "build.xml";
+	public static final String DOT_PROJECT = ".project";
+	public static final String DOT_CLASSPATH = ".classpath";
+
+	public static final String BUILD_SYSTEM_BT_ANT = "bt-ant";
+	public static final String BUILD_SYSTEM_MAVEN = "maven";
+
+	private static final Set<String> POM_ELEMENTS = Set.of("modelVersion", "parent", "groupId", "artifactId", "version", "packaging", "properties",
+			"build", "dependencies", "dependencyManagement");
+	private static final Set<String> DEPENDENCY_ELEMENTS = Set.of("groupId", "artifactId", "version", "scope", "classifier", "type", "exclusions");
+
+	private static final Pattern ANT_SCRIPT_PATTERN = Pattern.compile(":([^:#]+)-ant-script#");
+
+	// added by the project metadata template based on the build system
+	private static final Set<String> BUILD_SYSTEM_CLASSPATH_CONTAINERS = Set.of("Braintribe.ArtifactClasspathContainer",
+			"org.eclipse.m2e.MAVEN2_CLASSPATH_CONTAINER");
+	private static final String M2E_BUILDER = "org.eclipse.m2e.core.maven2Builder";
+	private static final String M2E_NATURE = "org.eclipse.m2e.core.maven2Nature";
+
+	private final boolean lenient;
+
+	public ArtifactInputsReader(boolean lenient) {
+		this.lenient = lenient;
+	}
+
+	/** Thrown if a file contains something its template cannot produce. */
+	public static class UnsupportedContentException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public UnsupportedContentException(String message) {
+			super(message);
+		}
+	}
+
+	/** Returns the build system of the artifact - "bt-ant" if it has a build.xml, "maven" otherwise. */
+	public static String buildSystem(Path artifactDir) {
+		return Files.exists(artifactDir.resolve(BUILD_XML)) ? BUILD_SYSTEM_BT_ANT : BUILD_SYSTEM_MAVEN;
+	}
+
+	/** Reads the pom.xml (and build.xml, if present) of given artifact. Returns null if the artifact has no pom.xml. */
+	public CreateBuildSystemConfig readBuildSystemConfig(Path artifactDir) {
+		Path pomPath = artifactDir.resolve(POM_XML);
+		if (!Files.exists(pomPath))
+			return null;
+
+		CreateBuildSystemConfig result = CreateBuildSystemConfig.T.create();
+		result.setBuildSystem(buildSystem(artifactDir));
+
+		Element project = parse(pomPath);
+		for (Element e : childElements(project))
+			if (!POM_ELEMENTS.contains(e.getTagName()))
+				unsupported(pomPath, "element <" + e.getTagName() + ">");
+
+		Element parent = child(project, "parent");
+		result.setHasParent(parent != null);
+		if (parent != null) {
+			result.setParentArtifactId(text(parent, "artifactId"));
+			result.setGroupId(text(parent, "groupId"));
+		}
+
+		String groupId = text(project, "groupId");
+		if (groupId != null)
+			result.setGroupId(groupId);
+
+		result.setArtifactId(text(project, "artifactId"));
+		result.setVersion(text(project, "version"));
+		result.setPackaging(text(project, "packaging"));
+
+		if (result.getVersion() == null || result.getVersion().contains("${"))
+			unsupported(pomPath, "version '" + result.getVersion() + "' (a literal version is expected)");
+
+		Element properties = child(project, "properties");
+		if (properties != null)
+			for (Element e : childElements(properties))
+				result.getProperties().add(property(e.getTagName(), e.getTextContent().trim()));
+
+		result.getDependencies().addAll(readDependencies(pomPath, child(project, "dependencies"), result));
+
+		Element dependencyManagement = child(project, "dependencyManagement");
+		if (dependencyManagement != null)
+			result.getManagedDependencies().addAll(readDependencies(pomPath, child(dependencyManagement, "dependencies"), result));
+
+		Element build = child(project, "build");
+		if (build != null)
+			readMavenResources(pomPath, build, result);
+
+		if (BUILD_SYSTEM_BT_ANT.equals(result.getBuildSystem()))
+			readBuildXml(artifactDir.resolve(BUILD_XML), result);
+		else
+			result.setArtifactType(result.getHasParent() ? "library" : "parent");
+
+		return result;
+	}
+
+	private List<Dependency> readDependencies(Path pomPath, Element dependencies, CreateBuildSystemConfig request) {
+		List<Dependency> result = newList();
+		if (dependencies == null)
+			return result;
+
+		for (Element e : childElements(dependencies)) {
+			for (Element de : childElements(e))
+				if (!DEPENDENCY_ELEMENTS.contains(de.getTagName()))
+					unsupported(pomPath, "dependency element <" + de.getTagName() + ">");
+
+			Dependency dependency = dependency(text(e, "groupId"), text(e, "artifactId"));
+			dependency.setScope(text(e, "scope"));
+			dependency.setClassifier(text(e, "classifier"));
+			dependency.setType(text(e, "type"));
+
+			// the template uses the group's version variable for dependencies without an explicit version
+			String version = text(e, "version");
+			boolean groupVersion = request.getHasParent() && ("${V." + dependency.getGroupId() + "}").equals(version);
+			dependency.setVersion(groupVersion ? null : version);
+
+			for (Node n = e.getFirstChild(); n != null; n = n.getNextSibling())
+				if (n instanceof ProcessingInstruction pi && pi.getTarget().equals("tag"))
+					dependency.getTags().add(pi.getData().trim());
+
+			Element exclusions = child(e, "exclusions");
+			if (exclusions != null)
+				for (Element ex : childElements(exclusions))
+					dependency.getExclusions().add(dependency(text(ex, "groupId"), text(ex, "artifactId")));
+
+			result.add(dependency);
+		}
+
+		return result;
+	}
+
+	private void readMavenResources(Path pomPath, Element build, CreateBuildSystemConfig request) {
+		for (Element e : childElements(build))
+			if (!e.getTagName().equals("resources"))
+				unsupported(pomPath, "build element <" + e.getTagName() + ">");
+
+		Element resources = child(build, "resources");
+		if (resources == null)
+			return;
+
+		for (Element resource : childElements(resources)) {
+			Element includes = child(resource, "includes");
+			if (includes != null)
+				for (Element include : childElements(includes))
+					request.getResources().add(include.getTextContent().trim());
+		}
+	}
+
+	private void readBuildXml(Path buildXmlPath, CreateBuildSystemConfig request) {
+		Element project = parse(buildXmlPath);
+
+		for (Element e : childElements(project)) {
+			switch (e.getTagName()) {
+				case "bt:import":
+					Matcher matcher = ANT_SCRIPT_PATTERN.matcher(e.getAttribute("artifact"));
+					if (matcher.find())
+						request.setArtifactType(matcher.group(1));
+					else
+						unsupported(buildXmlPath, "import of '" + e.getAttribute("artifact") + "'");
+					break;
+
+				case "target":
+					readInstallTarget(buildXmlPath, e, request);
+					break;
+
+				default:
+					unsupported(buildXmlPath, "element <" + e.getTagName() + ">");
+			}
+		}
+
+		if (request.getArtifactType() == null) {
+			unsupported(buildXmlPath, "no ant script import");
+			request.setArtifactType("library");
+		}
+	}
+
+	/** The only target the template produces is "install" attaching the resources of a "common" artifact. */
+	private void readInstallTarget(Path buildXmlPath, Element target, CreateBuildSystemConfig request) {
+		Element install = child(target, "bt:install");
+		if (!"install".equals(target.getAttribute("name")) || install == null || childElements(target).size() != 1)
+			unsupported(buildXmlPath, "target '" + target.getAttribute("name") + "'");
+
+		for (Element e : childElements(install))
+			if (e.getTagName().equals("attach"))
+				request.getResources().add(e.getAttribute("file"));
+			else if (!e.getTagName().equals("pom"))
+				unsupported(buildXmlPath, "install element <" + e.getTagName() + ">");
+	}
+
+	/** Reads the .project and .classpath of given artifact. Returns null if the artifact has no .project. */
+	public CreateProjectMetadata readProjectMetadata(Path artifactDir, String buildSystem) {
+		Path projectPath = artifactDir.resolve(DOT_PROJECT);
+		if (!Files.exists(projectPath))
+			return null;
+
+		CreateProjectMetadata result = CreateProjectMetadata.T.create();
+		result.setIde("eclipse");
+		result.setBuildSystem(buildSystem);
+
+		Element projectDescription = parse(projectPath);
+		result.setProjectName(text(projectDescription, "name"));
+
+		Element buildSpec = child(projectDescription, "buildSpec");
+		if (buildSpec != null)
+			for (Element buildCommand : childElements(buildSpec)) {
+				String builder = text(buildCommand, "name");
+				if (!M2E_BUILDER.equals(builder))
+					result.getBuilders().add(builder);
+			}
+
+		Element natures = child(projectDescription, "natures");
+		if (natures != null)
+			for (Element nature : childElements(natures)) {
+				String natureName = nature.getTextContent().trim();
+				if (!M2E_NATURE.equals(natureName))
+					result.getNatures().add(natureName);
+			}
+
+		Path classpathPath = artifactDir.resolve(DOT_CLASSPATH);
+		if (Files.exists(classpathPath))
+			readClasspath(classpathPath, result);
+
+		return result;
+	}
+
+	private void readClasspath(Path classpathPath, CreateProjectMetadata request) {
+		for (Element entry : childElements(parse(classpathPath))) {
+			String kind = entry.getAttribute("kind");
+			String path = entry.getAttribute("path");
+
+			switch (kind) {
+				case "src":
+					if (request.getSourceDirectory() != null)
+						unsupported(classpathPath, "second source directory '" + path + "'");
+					request.setSourceDirectory(path);
+					break;
+				case "con":
+					if (!BUILD_SYSTEM_CLASSPATH_CONTAINERS.contains(path))
+						request.getClassPathEntries().add(path);
+					break;
+				case "output":
+					request.setOutputDirectory(path);
+					break;
+				case "lib":
+					request.getBuilderOutputLibs().add(path);
+					break;
+				default:
+					unsupported(classpathPath, "entry of kind '" + kind + "'");
+			}
+		}
+	}
+
+	private Element parse(Path path) {
+		Document document;
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setNamespaceAware(false);
+			document = factory.newDocumentBuilder().parse(path.toFile());
+
+		} catch (Exception e) {
+			throw Exceptions.unchecked(e, "Failed to parse: " + path);
+		}
+
+		if (!lenient)
+			for (Node n = document.getFirstChild(); n != null; n = n.getNextSibling())
+				if (n.getNodeType() == Node.COMMENT_NODE)
+					unsupported(path, "comment");
+
+		return document.getDocumentElement();
+	}
+
+	private void unsupported(Path path, String what) {
+		if (!lenient)
+			throw new UnsupportedContentException(path.getFileName() + " contains " + what + ", which the template does not produce");
+	}
+
+	private static Element child(Element parent, String tagName) {
+		for (Element e : childElements(parent))
+			if (e.getTagName().equals(tagName))
+				return e;
+
+		return null;
+	}
+
+	private static List<Element> childElements(Element parent) {
+		List<Element> result = newList();
+		for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling())
+			if (n instanceof Element)
+				result.add((Element) n);
+
+		return result;
+	}
+
+	private static String text(Element parent, String tagName) {
+		Element e = child(parent, tagName);
+		return e == null ? null : e.getTextContent().trim();
+	}
+
+	private static Property property(String name, String value) {
+		Property result = Property.T.create();
+		result.setName(name);
+		result.setValue(value);
+		return result;
+	}
+
+	private static Dependency dependency(String groupId, String artifactId) {
+		Dependency result = Dependency.T.create();
+		result.setGroupId(groupId);
+		result.setArtifactId(artifactId);
+		return result;
+	}
+
+}
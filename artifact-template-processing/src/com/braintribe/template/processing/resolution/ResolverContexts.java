@@ -0,0 +1,191 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.resolution;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.braintribe.devrock.mc.core.wirings.resolver.contract.ArtifactDataResolverContract;
+import com.braintribe.logging.Logger;
+import com.braintribe.wire.api.context.WireContext;
+
+/**
+ * Cache of the resolver contexts (i.e. the located and parsed repository configuration together with the resolvers based on it) of the dev
+ * environments, so that a request does not probe the file system for the repository configuration and parse it again.
+ * <p>
+ * A context is cached per dev environment root and the candidate files of the repository configuration (which reflect the use-case location and the
+ * relevant environment variables). It is replaced when any of the candidate files appears, disappears or is modified, when it is older than the
+ * {@link #ResolverContexts(Function, long) maximum age} (which bounds how long the resolvers may keep stale repository metadata), or on request.
+ * A replaced context is closed once the last request using it has finished.
+ */
+public class ResolverContexts {
+
+	private static final Logger log = Logger.getLogger(ResolverContexts.class);
+
+	private final Function<File, WireContext<ArtifactDataResolverContract>> contextFactory;
+	private final long maxAgeNanos;
+
+	private final Map<Key, CachedContext> contexts = new HashMap<>();
+
+	/**
+	 * @param contextFactory
+	 *            creates the context for a dev environment root (which may be null)
+	 * @param maxAgeMillis
+	 *            maximum age of a cached context; zero or negative means contexts are not cached at all
+	 */
+	public ResolverContexts(Function<File, WireContext<ArtifactDataResolverContract>> contextFactory, long maxAgeMillis) {
+		this.contextFactory = contextFactory;
+		this.maxAgeNanos = maxAgeMillis * 1_000_000L;
+	}
+
+	/**
+	 * Returns the context for given dev environment and repository configuration candidates, which must be {@link Lease#close() released} after
+	 * use.
+	 * 
+	 * @param refresh
+	 *            if true, a new context is created even if the cached one is still valid
+	 */
+	public Lease acquire(File devEnvRoot, List<File> configurationCandidates, boolean refresh) {
+		if (maxAgeNanos <= 0)
+			return new Lease(new CachedContext(contextFactory.apply(devEnvRoot), null));
+
+		Key key = new Key(devEnvRoot, configurationCandidates);
+		List<Long> stamp = stamp(configurationCandidates);
+
+		synchronized (this) {
+			CachedContext cached = contexts.get(key);
+			if (cached != null && !refresh && cached.isValid(stamp))
+				return new Lease(cached);
+
+			if (cached != null)
+				retire(cached);
+
+			cached = new CachedContext(contextFactory.apply(devEnvRoot), stamp);
+			contexts.put(key, cached);
+			return new Lease(cached);
+		}
+	}
+
+	/** Closes all the cached contexts which are not in use, and the others once they are released. */
+	public synchronized void clear() {
+		contexts.values().forEach(this::retire);
+		contexts.clear();
+	}
+
+	/* must be called while synchronized */
+	private void retire(CachedContext cached) {
+		cached.retired = true;
+		if (cached.leases == 0)
+			cached.close();
+	}
+
+	private synchronized void release(CachedContext cached) {
+		if (--cached.leases == 0 && cached.retired)
+			cached.close();
+	}
+
+	private static List<Long> stamp(List<File> files) {
+		List<Long> result = new ArrayList<>(files.size());
+		for (File file : files)
+			result.add(file.isFile() ? file.lastModified() : -1L);
+		return result;
+	}
+
+	/** A context in use by a request. */
+	public class Lease implements AutoCloseable {
+		private final CachedContext cached;
+		private boolean closed;
+
+		Lease(CachedContext cached) {
+			this.cached = cached;
+			synchronized (ResolverContexts.this) {
+				cached.leases++;
+			}
+		}
+
+		public ArtifactDataResolverContract contract() {
+			return cached.context.contract();
+		}
+
+		@Override
+		public void close() {
+			if (closed)
+				return;
+
+			closed = true;
+			if (cached.stamp == null)
+				cached.close();
+			else
+				release(cached);
+		}
+	}
+
+	private class CachedContext {
+		final WireContext<ArtifactDataResolverContract> context;
+		/* modification times of the configuration candidates, null if not cached */
+		final List<Long> stamp;
+		final long createdNanos = System.nanoTime();
+		int leases;
+		boolean retired;
+
+		CachedContext(WireContext<ArtifactDataResolverContract> context, List<Long> stamp) {
+			this.context = context;
+			this.stamp = stamp;
+		}
+
+		boolean isValid(List<Long> currentStamp) {
+			return stamp.equals(currentStamp) && System.nanoTime() - createdNanos < maxAgeNanos;
+		}
+
+		void close() {
+			try {
+				context.close();
+			} catch (RuntimeException e) {
+				log.warn("Failed to close resolver context", e);
+			}
+		}
+	}
+
+	private static class Key {
+		final File devEnvRoot;
+		final List<File> configurationCandidates;
+
+		Key(File devEnvRoot, List<File> configurationCandidates) {
+			this.devEnvRoot = devEnvRoot;
+			this.configurationCandidates = configurationCandidates;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+
+			Key other = (Key) obj;
+			return Objects.equals(devEnvRoot, other.devEnvRoot) && configurationCandidates.equals(other.configurationCandidates);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(devEnvRoot) * 31 + configurationCandidates.hashCode();
+		}
+	}
+
+}
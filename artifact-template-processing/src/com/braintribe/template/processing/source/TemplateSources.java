@@ -0,0 +1,310 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.source;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.braintribe.artifact.declared.marshaller.DeclaredArtifactMarshaller;
+import com.braintribe.cfg.DestructionAware;
+import com.braintribe.exception.Exceptions;
+import com.braintribe.logging.Logger;
+import com.braintribe.model.artifact.declared.DeclaredArtifact;
+import com.braintribe.template.processing.ArtifactTemplateConsts;
+import com.braintribe.template.processing.helper.GroovyScripts;
+
+import freemarker.template.Configuration;
+import freemarker.template.Version;
+import groovy.lang.Script;
+
+/**
+ * Templates resolved straight from source folders (i.e. folders with the same layout as the template artifacts of this repository - "content" and
+ * "dependencies.groovy"), rather than from the template's archive zip. This makes iterating on a template a matter of saving the file.
+ * <p>
+ * The compiled FreeMarker templates and the compiled dependencies.groovy of each source template are cached and watched for changes, so only the
+ * changed ones are re-compiled.
+ */
+public class TemplateSources implements DestructionAware, ArtifactTemplateConsts {
+
+	private static final Logger log = Logger.getLogger(TemplateSources.class);
+
+	private final List<String> sourceFolders;
+	private final Version freeMarkerVersion;
+
+	private final Map<Path, SourceTemplate> templates = new ConcurrentHashMap<>();
+	private final Map<WatchKey, WatchedDir> watchedDirs = new ConcurrentHashMap<>();
+	private volatile WatchService watchService;
+
+	/**
+	 * @param sourceFolders
+	 *            folders containing template folders named by the template's artifactId; relative folders are resolved against the root of the
+	 *            dev environment (or the working directory if there is none)
+	 */
+	public TemplateSources(List<String> sourceFolders, Version freeMarkerVersion) {
+		this.sourceFolders = sourceFolders;
+		this.freeMarkerVersion = freeMarkerVersion;
+	}
+
+	/** Returns the source folder of given template, or null if no source folder contains it. */
+	public Path findTemplate(File devEnvRoot, String groupId, String artifactId) {
+		for (String sourceFolder : sourceFolders) {
+			Path candidate = resolveSourceFolder(devEnvRoot, sourceFolder).resolve(artifactId);
+			if (!isTemplateFolder(candidate) || !groupId.equals(readPom(candidate, TemplateSources::groupId, groupId)))
+				continue;
+
+			SourceTemplate template = templates.computeIfAbsent(candidate.toAbsolutePath().normalize(), SourceTemplate::new);
+			return template.dir;
+		}
+
+		return null;
+	}
+
+	private Path resolveSourceFolder(File devEnvRoot, String sourceFolder) {
+		Path path = Paths.get(sourceFolder);
+		if (path.isAbsolute() || devEnvRoot == null)
+			return path;
+		else
+			return devEnvRoot.toPath().resolve(path);
+	}
+
+	private static boolean isTemplateFolder(Path dir) {
+		return Files.isDirectory(dir.resolve(CONTENT_DIR)) || Files.isRegularFile(dir.resolve(DEPENDENCIES_SCRIPT));
+	}
+
+	/** Returns the version of given source template as declared in its pom.xml, or "0.0" if it cannot be determined. */
+	public String version(Path templateDir) {
+		return readPom(templateDir, DeclaredArtifact::getVersion, "0.0");
+	}
+
+	private static String groupId(DeclaredArtifact da) {
+		if (da.getGroupId() != null || da.getParentReference() == null)
+			return da.getGroupId();
+		else
+			return da.getParentReference().getGroupId();
+	}
+
+	private static String readPom(Path templateDir, Function<DeclaredArtifact, String> getter, String defaultValue) {
+		Path pom = templateDir.resolve("pom.xml");
+		if (!Files.exists(pom))
+			return defaultValue;
+
+		try (InputStream in = Files.newInputStream(pom)) {
+			DeclaredArtifact da = new DeclaredArtifactMarshaller().unmarshall(in);
+			String result = getter.apply(da);
+			return result != null ? result : defaultValue;
+
+		} catch (Exception e) {
+			log.warn("Failed to read pom of template source folder: " + templateDir, e);
+			return defaultValue;
+		}
+	}
+
+	/** Returns true iff given folder is a template source folder, i.e. one {@link #findTemplate found} by this instance. */
+	public boolean contains(Path templateDir) {
+		return templates.containsKey(templateDir.toAbsolutePath().normalize());
+	}
+
+	/**
+	 * Returns the cached FreeMarker configuration for given dynamic dir if it belongs to a source template, or null otherwise. The compiled
+	 * templates of this configuration are only re-compiled when the file changes.
+	 */
+	public Configuration freeMarkerConfiguration(Path dynamicDir) {
+		SourceTemplate template = templates.get(dynamicDir.getParent().getParent().toAbsolutePath().normalize());
+		return template == null ? null : template.freeMarkerConfiguration();
+	}
+
+	/** Evaluates the dependencies.groovy of given source template with given variables, compiling the script only if it has changed. */
+	public Object evaluateDependenciesScript(Path templateDir, Map<String, Object> variables) {
+		SourceTemplate template = templates.get(templateDir.toAbsolutePath().normalize());
+		if (template == null)
+			throw new IllegalArgumentException("Not a template source folder: " + templateDir);
+
+		return GroovyScripts.run(template.compiledScript(), variables);
+	}
+
+	@Override
+	public void preDestroy() {
+		WatchService ws = watchService;
+		if (ws == null)
+			return;
+
+		try {
+			ws.close();
+		} catch (IOException e) {
+			log.warn("Error while closing template source watch service.", e);
+		}
+	}
+
+	private class SourceTemplate {
+		final Path dir;
+		final Path dynamicDir;
+		final Path scriptPath;
+
+		volatile Configuration freeMarkerConfig;
+		volatile Class<? extends Script> scriptClass;
+
+		SourceTemplate(Path dir) {
+			this.dir = dir;
+			this.dynamicDir = dir.resolve(DYNAMIC_DIR_FULL);
+			this.scriptPath = dir.resolve(DEPENDENCIES_SCRIPT);
+
+			watch(this, dir);
+		}
+
+		synchronized Configuration freeMarkerConfiguration() {
+			Configuration result = freeMarkerConfig;
+			if (result == null) {
+				result = new Configuration(freeMarkerVersion);
+				try {
+					result.setDirectoryForTemplateLoading(dynamicDir.toFile());
+				} catch (IOException e) {
+					throw Exceptions.unchecked(e, "Failed to configure FreeMarker for template source folder: " + dir);
+				}
+				// no need to check the files for changes, the watcher evicts the changed templates from the cache
+				result.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+				freeMarkerConfig = result;
+			}
+			return result;
+		}
+
+		synchronized Class<? extends Script> compiledScript() {
+			Class<? extends Script> result = scriptClass;
+			if (result == null) {
+				try {
+					String source = new String(Files.readAllBytes(scriptPath), StandardCharsets.UTF_8);
+					result = GroovyScripts.compile(source, "dependencies.groovy");
+				} catch (IOException e) {
+					throw Exceptions.unchecked(e, "Failed to read: " + scriptPath);
+				}
+				scriptClass = result;
+			}
+			return result;
+		}
+
+		void onChange(Path changed) {
+			if (changed.equals(scriptPath)) {
+				scriptClass = null;
+
+			} else if (changed.startsWith(dynamicDir)) {
+				Configuration config = freeMarkerConfig;
+				if (config == null)
+					return;
+
+				String templateName = dynamicDir.relativize(changed).toString().replace(File.separatorChar, '/');
+				try {
+					config.removeTemplateFromCache(templateName);
+				} catch (IOException e) {
+					config.clearTemplateCache();
+				}
+			}
+		}
+
+		void invalidate() {
+			scriptClass = null;
+			Configuration config = freeMarkerConfig;
+			if (config != null)
+				config.clearTemplateCache();
+		}
+	}
+
+	private static class WatchedDir {
+		final SourceTemplate template;
+		final Path dir;
+
+		WatchedDir(SourceTemplate template, Path dir) {
+			this.template = template;
+			this.dir = dir;
+		}
+	}
+
+	private void watch(SourceTemplate template, Path root) {
+		try (Stream<Path> dirs = Files.walk(root)) {
+			WatchService ws = ensureWatchService();
+			for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+				WatchKey key = dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+						StandardWatchEventKinds.ENTRY_DELETE);
+				watchedDirs.put(key, new WatchedDir(template, dir));
+			}
+
+		} catch (IOException e) {
+			// without a watcher we must not cache anything, as we would not notice changes
+			log.warn("Cannot watch template source folder " + root + ", changes will only be noticed after a restart.", e);
+		}
+	}
+
+	private synchronized WatchService ensureWatchService() throws IOException {
+		if (watchService == null) {
+			watchService = FileSystems.getDefault().newWatchService();
+
+			Thread watcher = new Thread(this::processWatchEvents, "template-source-watcher");
+			watcher.setDaemon(true);
+			watcher.start();
+		}
+		return watchService;
+	}
+
+	private void processWatchEvents() {
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				WatchedDir watchedDir = watchedDirs.get(key);
+				if (watchedDir != null)
+					processEvents(key, watchedDir);
+
+				if (!key.reset())
+					watchedDirs.remove(key);
+			}
+
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// shutting down
+		}
+	}
+
+	private void processEvents(WatchKey key, WatchedDir watchedDir) {
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				watchedDir.template.invalidate();
+				continue;
+			}
+
+			Path changed = watchedDir.dir.resolve((Path) event.context());
+			if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed))
+				watch(watchedDir.template, changed);
+
+			watchedDir.template.onChange(changed);
+
+			if (log.isDebugEnabled())
+				log.debug("Template source changed: " + changed);
+		}
+	}
+
+}
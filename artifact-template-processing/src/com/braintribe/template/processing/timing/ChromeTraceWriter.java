@@ -0,0 +1,187 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.timing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import com.braintribe.exception.Exceptions;
+import com.braintribe.template.processing.helper.FileHelper;
+import com.braintribe.template.processing.timing.ProjectionTimingRecorder.Span;
+import com.braintribe.template.processing.timing.ProjectionTimingRecorder.TemplateNode;
+
+/**
+ * Writes the template tree recorded by a {@link ProjectionTimingRecorder} as a Chrome trace-event JSON file, which can be opened in any trace
+ * viewer supporting that format (e.g. chrome://tracing or Perfetto).
+ * <p>
+ * Each template node is written as a complete event ("ph":"X") spanning its entire projection, with its phases as nested complete events. Times
+ * are in microseconds relative to the start of the earliest root template.
+ * <p>
+ * Each event is written with the id of the thread which recorded it as its "tid", so templates projected in parallel (e.g. the entries of a
+ * manifest) are shown on separate tracks, each named by its thread.
+ */
+public class ChromeTraceWriter {
+
+	private static final String CATEGORY_TEMPLATE = "template";
+	private static final String CATEGORY_PHASE = "phase";
+
+	private final Writer writer;
+	private final long originNanos;
+	private boolean first = true;
+
+	private ChromeTraceWriter(Writer writer, long originNanos) {
+		this.writer = writer;
+		this.originNanos = originNanos;
+	}
+
+	public static void write(ProjectionTimingRecorder recorder, Path traceFile) {
+		write(List.of(recorder), traceFile);
+	}
+
+	/** Writes the templates recorded by all given recorders (e.g. of projections which ran in parallel) into a single trace. */
+	public static void write(Collection<ProjectionTimingRecorder> recorders, Path traceFile) {
+		List<TemplateNode> roots = recorders.stream() //
+				.map(ProjectionTimingRecorder::root) //
+				.filter(root -> root != null) //
+				.collect(Collectors.toList());
+		if (roots.isEmpty())
+			return;
+
+		Path parent = traceFile.toAbsolutePath().getParent();
+		if (parent != null)
+			FileHelper.ensureDirExists(parent);
+
+		long originNanos = roots.stream().mapToLong(root -> root.startNanos).min().getAsLong();
+
+		try (Writer writer = Files.newBufferedWriter(traceFile, StandardCharsets.UTF_8)) {
+			new ChromeTraceWriter(writer, originNanos).writeTrace(roots);
+
+		} catch (IOException e) {
+			throw Exceptions.unchecked(e, "Error while writing the projection trace to: " + traceFile);
+		}
+	}
+
+	private void writeTrace(List<TemplateNode> roots) throws IOException {
+		writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+		writeProcessName();
+
+		Map<Long, String> threadNames = new TreeMap<>();
+		for (TemplateNode root : roots)
+			collectThreadNames(root, threadNames);
+		for (Map.Entry<Long, String> e : threadNames.entrySet())
+			writeThreadName(e.getKey(), e.getValue());
+
+		for (TemplateNode root : roots)
+			writeNode(root);
+		writer.write("\n]}\n");
+	}
+
+	private static void collectThreadNames(TemplateNode node, Map<Long, String> threadNames) {
+		threadNames.putIfAbsent(node.threadId, node.threadName);
+		for (TemplateNode child : node.children)
+			collectThreadNames(child, threadNames);
+	}
+
+	private void writeProcessName() throws IOException {
+		beginEvent();
+		writer.write("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"args\":{\"name\":\"Artifact Template Projection\"}}");
+	}
+
+	private void writeThreadName(long threadId, String threadName) throws IOException {
+		beginEvent();
+		writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + threadId + ",\"args\":{\"name\":");
+		writeString(threadName);
+		writer.write("}}");
+	}
+
+	private void writeNode(TemplateNode node) throws IOException {
+		String name = node.template != null ? node.template : node.requestType;
+		writeCompleteEvent(name, CATEGORY_TEMPLATE, node.threadId, node.startNanos, node.endNanos, node.requestType);
+
+		for (Span span : node.spans)
+			writeCompleteEvent(span.name, CATEGORY_PHASE, span.threadId, span.startNanos, span.endNanos, null);
+
+		for (TemplateNode child : node.children)
+			writeNode(child);
+	}
+
+	private void writeCompleteEvent(String name, String category, long threadId, long startNanos, long endNanos, String requestType)
+			throws IOException {
+		beginEvent();
+		writer.write("{\"name\":");
+		writeString(name);
+		writer.write(",\"cat\":\"" + category + "\",\"ph\":\"X\",\"pid\":1,\"tid\":" + threadId);
+		writer.write(",\"ts\":" + toMicros(startNanos - originNanos));
+		writer.write(",\"dur\":" + toMicros(endNanos - startNanos));
+		if (requestType != null) {
+			writer.write(",\"args\":{\"requestType\":");
+			writeString(requestType);
+			writer.write("}");
+		}
+		writer.write("}");
+	}
+
+	private void beginEvent() throws IOException {
+		if (first)
+			first = false;
+		else
+			writer.write(",\n");
+	}
+
+	private static String toMicros(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1_000d);
+	}
+
+	private void writeString(String s) throws IOException {
+		writer.write('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+				case '"':
+					writer.write("\\\"");
+					break;
+				case '\\':
+					writer.write("\\\\");
+					break;
+				case '\n':
+					writer.write("\\n");
+					break;
+				case '\r':
+					writer.write("\\r");
+					break;
+				case '\t':
+					writer.write("\\t");
+					break;
+				default:
+					if (c < 0x20)
+						writer.write(String.format("\\u%04x", (int) c));
+					else
+						writer.write(c);
+			}
+		}
+		writer.write('"');
+	}
+
+}
@@ -0,0 +1,180 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.template.processing.timing;
+
+import static com.braintribe.console.ConsoleOutputs.println;
+import static java.util.Objects.requireNonNullElse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.braintribe.devrock.templates.model.ArtifactTemplateRequest;
+import com.braintribe.devrock.templates.model.PhaseTiming;
+import com.braintribe.devrock.templates.model.TemplateTiming;
+import com.braintribe.template.processing.api.PhaseRecorder;
+
+/**
+ * Records the wall time of the projection phases of each template request of a single processor run.
+ * <p>
+ * The templates form a tree, as each template request is projected together with its template dependencies. Phases which happen outside of any
+ * template (e.g. installing the projection) are attributed to the root template.
+ */
+public class ProjectionTimingRecorder implements PhaseRecorder {
+
+	private final Deque<TemplateNode> stack = new ArrayDeque<>();
+	private TemplateNode root;
+
+	public void beginTemplate(ArtifactTemplateRequest request) {
+		TemplateNode node = new TemplateNode(request.entityType().getTypeSignature(), System.nanoTime());
+
+		if (!stack.isEmpty())
+			stack.peek().children.add(node);
+		else if (root == null)
+			root = node;
+		else
+			root.children.add(node);
+
+		stack.push(node);
+	}
+
+	/** Sets the template of the current template request, i.e. the resolved artifact. */
+	public void setTemplate(String template) {
+		if (!stack.isEmpty())
+			stack.peek().template = template;
+	}
+
+	public void endTemplate() {
+		TemplateNode node = stack.pop();
+		node.endNanos = System.nanoTime();
+	}
+
+	@Override
+	public Phase begin(String phaseName) {
+		TemplateNode node = stack.isEmpty() ? root : stack.peek();
+		if (node == null)
+			return Phase.NOOP;
+
+		long startNanos = System.nanoTime();
+		long threadId = Thread.currentThread().getId();
+		return () -> {
+			long endNanos = System.nanoTime();
+			node.spans.add(new Span(phaseName, threadId, startNanos, endNanos));
+			node.endNanos = Math.max(node.endNanos, endNanos);
+		};
+	}
+
+	public TemplateNode root() {
+		return root;
+	}
+
+	/** Returns the recorded timing, with the durations of all the occurrences of the same phase of one template summed up. */
+	public TemplateTiming toTiming() {
+		return root == null ? null : toTiming(root);
+	}
+
+	private TemplateTiming toTiming(TemplateNode node) {
+		Map<String, PhaseTiming> phases = new LinkedHashMap<>();
+		for (Span span : node.spans) {
+			PhaseTiming phase = phases.computeIfAbsent(span.name, this::newPhaseTiming);
+			phase.setDurationMillis(phase.getDurationMillis() + toMillis(span.endNanos - span.startNanos));
+			phase.setCount(phase.getCount() + 1);
+		}
+
+		TemplateTiming result = TemplateTiming.T.create();
+		result.setRequestType(node.requestType);
+		result.setTemplate(node.template);
+		result.setDurationMillis(toMillis(node.endNanos - node.startNanos));
+		result.setPhases(new ArrayList<>(phases.values()));
+
+		for (TemplateNode child : node.children)
+			result.getDependencies().add(toTiming(child));
+
+		return result;
+	}
+
+	private PhaseTiming newPhaseTiming(String name) {
+		PhaseTiming result = PhaseTiming.T.create();
+		result.setName(name);
+		return result;
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1_000_000d;
+	}
+
+	public static void print(TemplateTiming timing) {
+		println("Timing:");
+		print(timing, "    ");
+	}
+
+	private static void print(TemplateTiming timing, String indent) {
+		println(indent + requireNonNullElse(timing.getTemplate(), timing.getRequestType()) + ": " + formatMillis(timing.getDurationMillis()));
+
+		for (PhaseTiming phase : timing.getPhases())
+			println(indent + "    - " + phase.getName() + ": " + formatMillis(phase.getDurationMillis())
+					+ (phase.getCount() > 1 ? " (" + phase.getCount() + "x)" : ""));
+
+		for (TemplateTiming dependency : timing.getDependencies())
+			print(dependency, indent + "    ");
+	}
+
+	private static String formatMillis(double millis) {
+		return String.format(Locale.ROOT, "%.2f ms", millis);
+	}
+
+	/** One template request projected within the recorded run. */
+	public static class TemplateNode {
+		final String requestType;
+		/* the thread projecting this template, so that templates projected in parallel can be told apart */
+		final long threadId;
+		final String threadName;
+		final long startNanos;
+		long endNanos;
+		String template;
+
+		final List<Span> spans = new ArrayList<>();
+		final List<TemplateNode> children = new ArrayList<>();
+
+		TemplateNode(String requestType, long startNanos) {
+			this.requestType = requestType;
+			this.threadId = Thread.currentThread().getId();
+			this.threadName = Thread.currentThread().getName();
+			this.startNanos = startNanos;
+			this.endNanos = startNanos;
+		}
+	}
+
+	/** One occurrence of a phase. */
+	static class Span {
+		final String name;
+		final long threadId;
+		final long startNanos;
+		final long endNanos;
+
+		Span(String name, long threadId, long startNanos, long endNanos) {
+			this.name = name;
+			this.threadId = threadId;
+			this.startNanos = startNanos;
+			this.endNanos = endNanos;
+		}
+	}
+
+}
@@ -16,6 +16,7 @@
 package com.braintribe.template.processing.wire.contract;
 
 import com.braintribe.template.processing.ArtifactTemplateProcessor;
+import com.braintribe.template.processing.listener.CompositeProjectionListener;
 import com.braintribe.wire.api.space.WireSpace;
 
 /**
@@ -24,5 +25,8 @@ import com.braintribe.wire.api.space.WireSpace;
 public interface ArtifactTemplateProcessingContract extends WireSpace {
 
 	ArtifactTemplateProcessor artifactTemplateProcessor();
+
+	/** The listeners notified by the {@link #artifactTemplateProcessor() processor}, other spaces can register their listeners here. */
+	CompositeProjectionListener projectionListeners();
 	
 }
\ No newline at end of file
@@ -15,13 +15,20 @@
 // ============================================================================
 package com.braintribe.template.processing.wire.space;
 
+
 import java.io.File;
+import java.nio.file.Paths;
 
 import com.braintribe.devrock.templates.config.model.ArtifactTemplatesConfiguration;
 import com.braintribe.gm.config.wire.contract.ModeledConfigurationContract;
 import com.braintribe.template.processing.ArtifactTemplateProcessor;
+import com.braintribe.template.processing.cache.ExtractedTemplateCache;
+import com.braintribe.template.processing.cache.ProjectionCache;
+import com.braintribe.template.processing.listener.CompositeProjectionListener;
+import com.braintribe.template.processing.lock.TemplateLockfiles;
 import com.braintribe.template.processing.projection.ArtifactTemplateFreeMarkerProjector;
 import com.braintribe.template.processing.projection.ArtifactTemplateRequestFreeMarkerProjector;
+import com.braintribe.template.processing.source.TemplateSources;
 import com.braintribe.template.processing.wire.contract.ArtifactTemplateProcessingContract;
 import com.braintribe.ve.api.VirtualEnvironment;
 import com.braintribe.ve.impl.OverridingEnvironment;
@@ -51,9 +58,79 @@ public class ArtifactTemplateProcessingSpace implements ArtifactTemplateProcessi
 		bean.setRequestProjector(requestProjector());
 		bean.setTemplateProjector(templateProjector());
 		bean.setModeledConfiguration(modelledConfiguration.config());
+		bean.setProjectionCache(projectionCache());
+		bean.setTemplateSources(templateSources());
+		bean.setTemplateLockfiles(templateLockfiles());
+		bean.setExtractedTemplateCache(extractedTemplateCache());
+		bean.setListener(projectionListeners());
 		
 		if (repositoryConfigurationLocation != null)
 			bean.setUseCaseRepositoryConfigurationLocation(new File(repositoryConfigurationLocation));
+		if (config.getMaxConcurrentRequests() != null)
+			bean.setMaxConcurrentRequests(config.getMaxConcurrentRequests());
+		if (config.getRequestQueueTimeoutMillis() != null)
+			bean.setRequestQueueTimeoutMillis(config.getRequestQueueTimeoutMillis());
+		if (config.getRequestTimeoutMillis() != null)
+			bean.setRequestTimeoutMillis(config.getRequestTimeoutMillis());
+		if (config.getMaxProjectedFiles() != null)
+			bean.setMaxProjectedFiles(config.getMaxProjectedFiles());
+		if (config.getMaxProjectedBytes() != null)
+			bean.setMaxProjectedBytes(config.getMaxProjectedBytes());
+		if (config.getMaxTemplateDepth() != null)
+			bean.setMaxTemplateDepth(config.getMaxTemplateDepth());
+		if (config.getPipelineCapacity() != null)
+			bean.setPipelineCapacity(config.getPipelineCapacity());
+		if (config.getResolverContextMaxAgeMillis() != null)
+			bean.setResolverContextMaxAgeMillis(config.getResolverContextMaxAgeMillis());
+		return bean;
+	}
+
+	@Managed
+	@Override
+	public CompositeProjectionListener projectionListeners() {
+		CompositeProjectionListener bean = new CompositeProjectionListener();
+		return bean;
+	}
+
+	@Managed
+	private ProjectionCache projectionCache() {
+		ArtifactTemplatesConfiguration config = modelledConfiguration.config(ArtifactTemplatesConfiguration.T);
+		Long maxBytes = config.getProjectionCacheMaxBytes();
+		if (maxBytes == null || maxBytes <= 0)
+			return null;
+
+		ProjectionCache bean = new ProjectionCache(maxBytes);
+		bean.setExcludedTemplates(config.getUncachedTemplates());
+		return bean;
+	}
+
+	@Managed
+	private TemplateSources templateSources() {
+		ArtifactTemplatesConfiguration config = modelledConfiguration.config(ArtifactTemplatesConfiguration.T);
+		if (config.getTemplateSourceFolders().isEmpty())
+			return null;
+
+		TemplateSources bean = new TemplateSources(config.getTemplateSourceFolders(), FREEMARKER_VERSION);
+		return bean;
+	}
+
+	@Managed
+	private TemplateLockfiles templateLockfiles() {
+		ArtifactTemplatesConfiguration config = modelledConfiguration.config(ArtifactTemplatesConfiguration.T);
+		if (config.getTemplateLockfile() == null)
+			return null;
+
+		TemplateLockfiles bean = new TemplateLockfiles(config.getTemplateLockfile());
+		return bean;
+	}
+
+	@Managed
+	private ExtractedTemplateCache extractedTemplateCache() {
+		ArtifactTemplatesConfiguration config = modelledConfiguration.config(ArtifactTemplatesConfiguration.T);
+		if (config.getTemplateCacheFolder() == null)
+			return null;
+
+		ExtractedTemplateCache bean = new ExtractedTemplateCache(Paths.get(config.getTemplateCacheFolder()), FREEMARKER_VERSION);
 		return bean;
 	}
 
@@ -66,6 +143,9 @@ public class ArtifactTemplateProcessingSpace implements ArtifactTemplateProcessi
 	@Managed
 	private ArtifactTemplateFreeMarkerProjector templateProjector() {
 		ArtifactTemplateFreeMarkerProjector bean = new ArtifactTemplateFreeMarkerProjector(FREEMARKER_VERSION, modelledConfiguration.config());
+		bean.setTemplateSources(templateSources());
+		bean.setExtractedTemplateCache(extractedTemplateCache());
+		bean.setListener(projectionListeners());
 		return bean;
 	}
 
@@ -51,6 +51,36 @@ public interface ArtifactTemplateRequest extends ServiceRequest {
 	boolean getOverwrite();
 	void setOverwrite(boolean overwrite);
 
+	@Description("By default, projected files identical to files already installed by the same run are installed as hardlinks to those files (where the file system supports it). If true, all files are copied instead.")
+	@Alias("fc")
+	boolean getForceCopy();
+	void setForceCopy(boolean forceCopy);
+
+	@Description("If the dev environment has a template lockfile, the templates are resolved again (instead of using the versions pinned by the lockfile) and the lockfile is updated.")
+	@Alias("rl")
+	boolean getRefreshLock();
+	void setRefreshLock(boolean refreshLock);
+
+	@Description("If true, the projection is only computed in memory and returned as the planned files of the response, nothing is written to the disk.")
+	@Alias("dr")
+	boolean getDryRun();
+	void setDryRun(boolean dryRun);
+
+	@Description("If specified, the projection is not installed, but returned as an archive of this format in the response. Nothing is written to the disk.")
+	@Alias("af")
+	ProjectionArchiveFormat getArchiveFormat();
+	void setArchiveFormat(ProjectionArchiveFormat archiveFormat);
+
+	@Description("If specified, a trace of the projection (each template with its phases) is written to this file in the Chrome trace-event JSON format.")
+	@Alias("tf")
+	String getTraceFile();
+	void setTraceFile(String traceFile);
+
+	@Description("How the projection is reported on the console: 'full' prints every installed file, 'summary' collapses large folders, 'quiet' prints neither the files nor the progress of the individual templates. If not specified, 'full' is used.")
+	@Alias("co")
+	ConsoleOutputMode getConsoleOutput();
+	void setConsoleOutput(ConsoleOutputMode consoleOutput);
+
 	@Description("Fully qualified artifact id of the template. Typically null, as each request has its default, but this can override that default.")
 	String getTemplate();
 	void setTemplate(String template);
@@ -70,6 +100,15 @@ public interface ArtifactTemplateRequest extends ServiceRequest {
 	default boolean delegatingOnly() {
 		return false;
 	}
+
+	/**
+	 * If {@code true}, the projection of this request (including its dependencies) may be cached by the processor and replayed for subsequent
+	 * identical requests. Requests whose templates are not deterministic (e.g. generate random values) or which manipulate files projected by other
+	 * requests should return {@code false}.
+	 */
+	default boolean cacheableProjection() {
+		return true;
+	}
 	
 	@Override
 	EvalContext<? extends ArtifactTemplateResponse> eval(Evaluator<ServiceRequest> evaluator);
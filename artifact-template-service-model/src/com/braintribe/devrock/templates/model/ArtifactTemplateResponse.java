@@ -15,12 +15,32 @@
 // ============================================================================
 package com.braintribe.devrock.templates.model;
 
+import java.util.List;
+
 import com.braintribe.model.generic.GenericEntity;
+import com.braintribe.model.generic.annotation.meta.Description;
 import com.braintribe.model.generic.reflection.EntityType;
 import com.braintribe.model.generic.reflection.EntityTypes;
+import com.braintribe.model.resource.Resource;
 
 public interface ArtifactTemplateResponse extends GenericEntity {
 
 	EntityType<ArtifactTemplateResponse> T = EntityTypes.T(ArtifactTemplateResponse.class);
-	
+
+	@Description("Timing of the individual phases of the projection of the requested template and its template dependencies.")
+	TemplateTiming getTiming();
+	void setTiming(TemplateTiming timing);
+
+	@Description("The files the projection would install. Only set for a dry run.")
+	List<PlannedFile> getPlannedFiles();
+	void setPlannedFiles(List<PlannedFile> plannedFiles);
+
+	@Description("The projection packed as an archive. Only set if the request specifies an archive format.")
+	Resource getArchive();
+	void setArchive(Resource archive);
+
+	@Description("Statistics of the stages of the projection pipeline, i.e. of resolving and extracting the templates ahead and writing the projection behind.")
+	List<PipelineStageStats> getPipelineStages();
+	void setPipelineStages(List<PipelineStageStats> pipelineStages);
+
 }
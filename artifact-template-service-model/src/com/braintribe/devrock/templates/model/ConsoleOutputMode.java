@@ -0,0 +1,40 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.devrock.templates.model;
+
+import com.braintribe.model.generic.annotation.meta.Description;
+import com.braintribe.model.generic.base.EnumBase;
+import com.braintribe.model.generic.reflection.EnumType;
+import com.braintribe.model.generic.reflection.EnumTypes;
+
+@Description("How much of a projection is reported on the console.")
+public enum ConsoleOutputMode implements EnumBase {
+
+	/** Every installed file is printed. */
+	full,
+	/** The installed files are printed as a tree with large folders collapsed. */
+	summary,
+	/** Neither the installed files nor the progress of the individual templates are printed. */
+	quiet;
+
+	public static final EnumType T = EnumTypes.T(ConsoleOutputMode.class);
+
+	@Override
+	public EnumType type() {
+		return T;
+	}
+
+}
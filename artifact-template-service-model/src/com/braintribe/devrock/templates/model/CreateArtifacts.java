@@ -0,0 +1,46 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.devrock.templates.model;
+
+import java.util.List;
+
+import com.braintribe.model.generic.annotation.meta.Description;
+import com.braintribe.model.generic.reflection.EntityType;
+import com.braintribe.model.generic.reflection.EntityTypes;
+
+/**
+ * Projects multiple template requests as one transaction, i.e. all the projections are staged together, checked for conflicts with existing files
+ * once and installed at once - either all of them are installed or none.
+ * <p>
+ * The {@link #getInstallationPath() installation path} of each of the requests must be the installation path of this request or a sub-folder of
+ * it. If not specified, it is set to the installation path of this request. The {@link #getOverwrite() overwrite} flag of this request applies to
+ * the entire transaction.
+ */
+@Description("Projects multiple template requests as one transaction - either all of them are installed, or none.")
+public interface CreateArtifacts extends ArtifactTemplateRequest {
+
+	EntityType<CreateArtifacts> T = EntityTypes.T(CreateArtifacts.class);
+
+	@Description("The template requests to project.")
+	List<ArtifactTemplateRequest> getRequests();
+	void setRequests(List<ArtifactTemplateRequest> requests);
+
+	@Override
+	default boolean cacheableProjection() {
+		return false;
+	}
+
+}
@@ -0,0 +1,79 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.devrock.templates.model;
+
+import java.util.Map;
+
+import com.braintribe.model.generic.annotation.Initializer;
+import com.braintribe.model.generic.annotation.meta.Alias;
+import com.braintribe.model.generic.annotation.meta.Description;
+import com.braintribe.model.generic.annotation.meta.Mandatory;
+import com.braintribe.model.generic.annotation.meta.PositionalArguments;
+import com.braintribe.model.generic.reflection.EntityType;
+import com.braintribe.model.generic.reflection.EntityTypes;
+
+/**
+ * Projects the template requests described by a manifest file, e.g. all the libraries, models and tests of a new extension.
+ * <p>
+ * Each entry of the manifest describes one request, with the "type" being the short name of a request from the
+ * "com.braintribe.devrock.templates.model.artifact" package (e.g. CreateLibrary) or a fully qualified type signature, and the other keys being the
+ * names of the request's properties. Supported formats are:
+ * <ul>
+ * <li>csv - header line with the keys, one entry per line; collection values are separated by ';'
+ * <li>yaml / json - a list of entries, each entry being a map
+ * </ul>
+ * The {@link #getInstallationPath() installation path} and {@link #getOverwrite() overwrite} flag of this request are the defaults for the
+ * entries.
+ */
+@Description("Projects the template requests (e.g. CreateLibrary) described by a manifest file.")
+@PositionalArguments({ "manifest" })
+public interface CreateArtifactsFromManifest extends ArtifactTemplateRequest {
+
+	EntityType<CreateArtifactsFromManifest> T = EntityTypes.T(CreateArtifactsFromManifest.class);
+
+	@Description("Path to the manifest file.")
+	@Alias("m")
+	@Mandatory
+	String getManifest();
+	void setManifest(String manifest);
+
+	@Description("Format of the manifest - 'csv', 'yaml' or 'json'. If not specified, the format is derived from the manifest's file extension.")
+	@Alias("f")
+	String getFormat();
+	void setFormat(String format);
+
+	@Description("Maximum number of entries projected in parallel.")
+	@Alias("p")
+	@Initializer("4")
+	int getParallelism();
+	void setParallelism(int parallelism);
+
+	@Description("Version variables (groupId -> version) to ensure in the parent pom of the group, updated once after all the entries are projected.")
+	@Alias("dv")
+	Map<String, String> getDependencyVersions();
+	void setDependencyVersions(Map<String, String> dependencyVersions);
+
+	@Description("If specified, the group build script for this build system is re-projected once after all the entries are projected, covering all the artifacts of the group.")
+	@Alias("gbs")
+	String getGroupBuildScript();
+	void setGroupBuildScript(String groupBuildScript);
+
+	@Override
+	default boolean cacheableProjection() {
+		return false;
+	}
+
+}
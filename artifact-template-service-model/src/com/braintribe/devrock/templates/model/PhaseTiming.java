@@ -0,0 +1,40 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.devrock.templates.model;
+
+import com.braintribe.model.generic.GenericEntity;
+import com.braintribe.model.generic.annotation.meta.Description;
+import com.braintribe.model.generic.reflection.EntityType;
+import com.braintribe.model.generic.reflection.EntityTypes;
+
+@Description("Wall time spent in one phase of a template projection, e.g. 'unzip' or 'rendering'.")
+public interface PhaseTiming extends GenericEntity {
+
+	EntityType<PhaseTiming> T = EntityTypes.T(PhaseTiming.class);
+
+	@Description("The name of the phase.")
+	String getName();
+	void setName(String name);
+
+	@Description("The total wall time of all the occurrences of this phase in milliseconds.")
+	double getDurationMillis();
+	void setDurationMillis(double durationMillis);
+
+	@Description("The number of occurrences of this phase, e.g. the number of rendered files.")
+	int getCount();
+	void setCount(int count);
+
+}
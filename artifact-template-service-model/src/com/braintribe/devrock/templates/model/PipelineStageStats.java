@@ -0,0 +1,48 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.devrock.templates.model;
+
+import com.braintribe.model.generic.GenericEntity;
+import com.braintribe.model.generic.annotation.meta.Description;
+import com.braintribe.model.generic.reflection.EntityType;
+import com.braintribe.model.generic.reflection.EntityTypes;
+
+@Description("Statistics of one stage of the projection pipeline, e.g. 'resolve' or 'write'.")
+public interface PipelineStageStats extends GenericEntity {
+
+	EntityType<PipelineStageStats> T = EntityTypes.T(PipelineStageStats.class);
+
+	@Description("The name of the stage.")
+	String getName();
+	void setName(String name);
+
+	@Description("The number of items processed by the stage.")
+	int getItems();
+	void setItems(int items);
+
+	@Description("The maximum number of items waiting in the queue of the stage.")
+	int getMaxQueueDepth();
+	void setMaxQueueDepth(int maxQueueDepth);
+
+	@Description("The total time the workers of the stage spent processing items in milliseconds.")
+	double getBusyMillis();
+	void setBusyMillis(double busyMillis);
+
+	@Description("The total time the producers waited for space in the full queue of the stage in milliseconds.")
+	double getBlockedMillis();
+	void setBlockedMillis(double blockedMillis);
+
+}
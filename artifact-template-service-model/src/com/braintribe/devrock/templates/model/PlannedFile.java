@@ -0,0 +1,44 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.devrock.templates.model;
+
+import com.braintribe.model.generic.GenericEntity;
+import com.braintribe.model.generic.annotation.meta.Description;
+import com.braintribe.model.generic.reflection.EntityType;
+import com.braintribe.model.generic.reflection.EntityTypes;
+
+@Description("A file a dry run of a template projection would install.")
+public interface PlannedFile extends GenericEntity {
+
+	EntityType<PlannedFile> T = EntityTypes.T(PlannedFile.class);
+
+	@Description("The path of the file relative to the installation path.")
+	String getPath();
+	void setPath(String path);
+
+	@Description("The size of the file in bytes.")
+	long getSize();
+	void setSize(long size);
+
+	@Description("The SHA-256 hash of the file content (hex).")
+	String getHash();
+	void setHash(String hash);
+
+	@Description("What installing the file would do with the existing file at the installation path.")
+	PlannedFileStatus getStatus();
+	void setStatus(PlannedFileStatus status);
+
+}
@@ -0,0 +1,42 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.devrock.templates.model;
+
+import com.braintribe.model.generic.annotation.meta.Description;
+import com.braintribe.model.generic.base.EnumBase;
+import com.braintribe.model.generic.reflection.EnumType;
+import com.braintribe.model.generic.reflection.EnumTypes;
+
+@Description("What installing a planned file would do with the existing file at the installation path.")
+public enum PlannedFileStatus implements EnumBase {
+
+	@Description("No such file exists, it would be created.")
+	create,
+	@Description("A file with the same content exists.")
+	unchanged,
+	@Description("A file with a different content exists and would be overwritten.")
+	overwrite,
+	@Description("A file exists and the request does not allow overwriting, i.e. the projection would fail.")
+	conflict;
+
+	public static final EnumType T = EnumTypes.T(PlannedFileStatus.class);
+
+	@Override
+	public EnumType type() {
+		return T;
+	}
+
+}
@@ -0,0 +1,66 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.devrock.templates.model;
+
+import java.util.List;
+
+import com.braintribe.model.generic.annotation.Initializer;
+import com.braintribe.model.generic.annotation.meta.Alias;
+import com.braintribe.model.generic.annotation.meta.Description;
+import com.braintribe.model.generic.reflection.EntityType;
+import com.braintribe.model.generic.reflection.EntityTypes;
+
+/**
+ * Re-projects the build system (pom.xml, build.xml) and project metadata (.project, .classpath) files of all the artifacts of a group, e.g. after
+ * a new version of the respective templates was released.
+ * <p>
+ * The inputs of the templates are reconstructed from the existing files. Only files whose content changes are written, and a summary of the
+ * changed files is printed at the end. The {@link #getInstallationPath() installation path} is the group folder.
+ */
+@Description("Re-projects the build system and project metadata files of all the artifacts of a group, based on their current content.")
+public interface ReprojectGroup extends ArtifactTemplateRequest {
+
+	EntityType<ReprojectGroup> T = EntityTypes.T(ReprojectGroup.class);
+
+	@Description("The artifact ids of the artifacts to re-project. If empty, all the artifacts of the group are re-projected.")
+	@Alias("aids")
+	List<String> getArtifactIds();
+	void setArtifactIds(List<String> artifactIds);
+
+	@Description("Maximum number of artifacts re-projected in parallel.")
+	@Alias("p")
+	@Initializer("4")
+	int getParallelism();
+	void setParallelism(int parallelism);
+
+	@Description("Fully qualified artifact id of the build system template, if other than the default.")
+	String getBuildSystemTemplate();
+	void setBuildSystemTemplate(String buildSystemTemplate);
+
+	@Description("Fully qualified artifact id of the project metadata template, if other than the default.")
+	String getProjectMetadataTemplate();
+	void setProjectMetadataTemplate(String projectMetadataTemplate);
+
+	@Description("If true, files with content the templates do not produce (e.g. comments, licenses or custom targets) are re-projected as well, losing that content. Otherwise such files are skipped.")
+	boolean getForce();
+	void setForce(boolean force);
+
+	@Override
+	default boolean cacheableProjection() {
+		return false;
+	}
+
+}
@@ -0,0 +1,50 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.devrock.templates.model;
+
+import java.util.List;
+
+import com.braintribe.model.generic.GenericEntity;
+import com.braintribe.model.generic.annotation.meta.Description;
+import com.braintribe.model.generic.reflection.EntityType;
+import com.braintribe.model.generic.reflection.EntityTypes;
+
+@Description("Wall time spent by the projection of one template request, including the projections of its template dependencies.")
+public interface TemplateTiming extends GenericEntity {
+
+	EntityType<TemplateTiming> T = EntityTypes.T(TemplateTiming.class);
+
+	@Description("The type signature of the projected request.")
+	String getRequestType();
+	void setRequestType(String requestType);
+
+	@Description("The resolved template artifact, or the requested template identification if it was not resolved.")
+	String getTemplate();
+	void setTemplate(String template);
+
+	@Description("The total wall time in milliseconds, including the template dependencies.")
+	double getDurationMillis();
+	void setDurationMillis(double durationMillis);
+
+	@Description("The phases of this template's projection, e.g. 'resolution' or 'rendering', in the order of their first occurrence.")
+	List<PhaseTiming> getPhases();
+	void setPhases(List<PhaseTiming> phases);
+
+	@Description("The timings of the template dependencies, i.e. the requests returned by the template's dependencies.groovy.")
+	List<TemplateTiming> getDependencies();
+	void setDependencies(List<TemplateTiming> dependencies);
+
+}
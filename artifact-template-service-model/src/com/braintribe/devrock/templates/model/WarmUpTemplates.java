@@ -0,0 +1,58 @@
+// ============================================================================
+// Copyright BRAINTRIBE TECHNOLOGY GMBH, Austria, 2002-2022
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+// ============================================================================
+package com.braintribe.devrock.templates.model;
+
+import java.util.List;
+
+import com.braintribe.model.generic.annotation.Initializer;
+import com.braintribe.model.generic.annotation.meta.Alias;
+import com.braintribe.model.generic.annotation.meta.Description;
+import com.braintribe.model.generic.reflection.EntityType;
+import com.braintribe.model.generic.reflection.EntityTypes;
+
+/**
+ * Resolves, downloads, extracts and compiles the default templates of all the concrete template requests (e.g. {@code CreateLibrary}), so that the
+ * first real projection does not have to, e.g. when preparing the image of a CI agent. Nothing is projected.
+ * <p>
+ * The templates are extracted into the extracted template cache, if one is configured.
+ */
+@Description("Resolves, downloads, extracts and compiles the default templates of all the template requests, so that subsequent projections start warm. Nothing is projected.")
+public interface WarmUpTemplates extends ArtifactTemplateRequest {
+
+	EntityType<WarmUpTemplates> T = EntityTypes.T(WarmUpTemplates.class);
+
+	@Description("Additional templates to warm up, as fully qualified dependencies, e.g. 'com.braintribe.devrock.templates:library-artifact-template#2.0'.")
+	@Alias("t")
+	List<String> getTemplates();
+	void setTemplates(List<String> templates);
+
+	@Description("If true, the templates returned by the dependencies.groovy scripts (evaluated for default requests) are warmed up as well, recursively.")
+	@Alias("tr")
+	boolean getTransitive();
+	void setTransitive(boolean transitive);
+
+	@Description("Maximum number of templates warmed up in parallel.")
+	@Alias("p")
+	@Initializer("4")
+	int getParallelism();
+	void setParallelism(int parallelism);
+
+	@Override
+	default boolean cacheableProjection() {
+		return false;
+	}
+
+}
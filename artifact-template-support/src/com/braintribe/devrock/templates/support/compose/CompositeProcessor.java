@@ -21,19 +21,34 @@ import static com.braintribe.console.ConsoleOutputs.sequence;
 import static com.braintribe.console.ConsoleOutputs.text;
 import static com.braintribe.console.ConsoleOutputs.yellow;
 import static com.braintribe.utils.lcd.CollectionTools2.newList;
+import static com.braintribe.utils.lcd.CollectionTools2.newSet;
 
 import java.io.File;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import com.braintribe.common.artifact.ArtifactReflection;
 import com.braintribe.console.ConsoleOutputs;
+import com.braintribe.console.output.ConsoleOutput;
+import com.braintribe.devrock.templates.model.CreateArtifacts;
 import com.braintribe.devrock.templates.model.Dependency;
 import com.braintribe.devrock.templates.model.artifact.CreateArtifact;
 import com.braintribe.model.generic.reflection.EntityType;
+import com.braintribe.model.generic.eval.EvalContext;
 import com.braintribe.model.processing.service.api.ServiceRequestContext;
+import com.braintribe.model.service.api.ServiceRequest;
+import com.braintribe.template.processing.api.console.ProjectionConsoleSink;
+import com.braintribe.template.processing.api.console.ProjectionConsoleSinkAspect;
 
 /**
  * Base class for a processor of a complex request that consists of multiple {@link CreateArtifact} requests.
@@ -43,6 +58,13 @@ import com.braintribe.model.processing.service.api.ServiceRequestContext;
  * models from the previous example.
  * <p>
  * To get an idea see CreateArtifactsProcessor (tribefire.extension.setup) or HydruxSetupProcessor (tribefire.extension.hydrux).
+ * <p>
+ * By default the handlers are executed one after another, in the order they were registered, each evaluating its own request. Sub-classes may
+ * {@link #enableSingleTransaction() evaluate the requests of all the handlers as one transaction}, i.e. all the parts are staged together and
+ * installed at once, or not at all. Sub-classes may also {@link #enableParallelExecution(int) enable parallel execution}, in which case each
+ * handler runs as soon as all the handlers it {@link PartHandler#runAfter(PartHandler...) must run after} are done. The console output of each
+ * handler is then collected (see {@link PartHandler#evaluate(ServiceRequest)}) and printed in the order of registration. The two options cannot be
+ * combined.
  * 
  * @author peter.gazdik
  */
@@ -55,6 +77,9 @@ public abstract class CompositeProcessor {
 
 	protected final List<PartHandler<?>> handlers = newList();
 
+	private int maxParallelism = 1;
+	private boolean singleTransaction;
+
 	// TODO use CompositeRequest (doesn't exit yet), rather than baseName and overwrite - this makes it more extensible.
 	public CompositeProcessor(ServiceRequestContext context, File groupFolder, String baseName, boolean overwrite) {
 		this.context = context;
@@ -75,6 +100,17 @@ public abstract class CompositeProcessor {
 
 	protected abstract void initHandlers();
 
+	/**
+	 * Enables executing independent handlers concurrently, using at most given number of threads. Must be called before {@link #run()}, e.g. in the
+	 * constructor.
+	 */
+	protected void enableParallelExecution(int maxParallelism) {
+		if (maxParallelism < 1)
+			throw new IllegalArgumentException("Max parallelism must be positive, but was: " + maxParallelism);
+
+		this.maxParallelism = maxParallelism;
+	}
+
 	protected boolean warnIfAnyDirExists() {
 		List<File> existingDirs = handlers.stream() //
 				.map(handler -> handler.dir) //
@@ -93,9 +129,169 @@ public abstract class CompositeProcessor {
 		return true;
 	}
 
+	/**
+	 * Makes the requests of all the handlers be evaluated as one {@link CreateArtifacts} transaction, rather than each handler evaluating its own
+	 * request. Must be called before {@link #run()}, e.g. in the constructor.
+	 * <p>
+	 * The parts of the transaction are projected by the template processor directly, i.e. not by any other service processor registered for their
+	 * request types, and {@link PartHandler#handle()} is not called. A handler which overrides it is therefore rejected.
+	 */
+	protected void enableSingleTransaction() {
+		this.singleTransaction = true;
+	}
+
 	protected void letHandlersHandleBro() {
+		if (singleTransaction && maxParallelism > 1)
+			throw new IllegalStateException("Parallel execution cannot be combined with a single transaction, as the latter creates all the parts at once.");
+
+		if (maxParallelism > 1 && handlers.size() > 1)
+			letHandlersHandleInParallel();
+		else if (singleTransaction)
+			letHandlersHandleInOneTransaction();
+		else
+			for (PartHandler<?> handler : handlers)
+				handler.handle();
+	}
+
+	private void letHandlersHandleInOneTransaction() {
 		for (PartHandler<?> handler : handlers)
-			handler.handle();
+			if (overridesHandle(handler))
+				throw new IllegalStateException("Cannot create the parts in a single transaction, as the handler for '" + handler.dir.getName()
+						+ "' overrides handle(), which would not be called.");
+
+		CreateArtifacts transaction = CreateArtifacts.T.create();
+		transaction.setInstallationPath(groupFolder.getAbsolutePath());
+		transaction.setOverwrite(overwrite);
+
+		for (PartHandler<?> handler : handlers) {
+			handler.prepare();
+			transaction.getRequests().add(handler.request);
+		}
+
+		transaction.eval(context.getEvaluator()).get();
+	}
+
+	private static boolean overridesHandle(PartHandler<?> handler) {
+		try {
+			return handler.getClass().getMethod("handle").getDeclaringClass() != PartHandler.class;
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("PartHandler.handle() not found", e);
+		}
+	}
+
+	private void letHandlersHandleInParallel() {
+		ExecutorService executor = newPartExecutor(Math.min(maxParallelism, handlers.size()));
+
+		try {
+			ParallelRun run = new ParallelRun(executor);
+			for (PartHandler<?> handler : handlers)
+				run.schedule(handler);
+
+			RuntimeException failure = null;
+			for (PartHandler<?> handler : handlers) {
+				PartResult result = run.results.get(handler).join();
+				result.output.print();
+
+				if (failure == null)
+					failure = result.failure;
+			}
+
+			if (failure != null)
+				throw failure;
+
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private ExecutorService newPartExecutor(int threads) {
+		AtomicInteger counter = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "composite-part-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private class ParallelRun {
+		private final ExecutorService executor;
+
+		private final Map<PartHandler<?>, CompletableFuture<PartResult>> results = new LinkedHashMap<>();
+		private final Set<PartHandler<?>> scheduling = newSet();
+
+		public ParallelRun(ExecutorService executor) {
+			this.executor = executor;
+		}
+
+		public CompletableFuture<PartResult> schedule(PartHandler<?> handler) {
+			CompletableFuture<PartResult> result = results.get(handler);
+			if (result != null)
+				return result;
+
+			if (!handlers.contains(handler))
+				throw new IllegalStateException("Handler for '" + handler.dir.getName() + "' is referenced in runAfter(), but is not registered.");
+
+			if (!scheduling.add(handler))
+				throw new IllegalStateException("Cyclic runAfter() constraints, involving the handler for: " + handler.dir.getName());
+
+			List<CompletableFuture<PartResult>> predecessors = handler.predecessors.stream() //
+					.map(this::schedule) //
+					.collect(Collectors.toList());
+
+			result = CompletableFuture.allOf(predecessors.toArray(new CompletableFuture<?>[0])) //
+					.thenApplyAsync(v -> handle(handler, predecessors), executor);
+
+			results.put(handler, result);
+			return result;
+		}
+
+		private PartResult handle(PartHandler<?> handler, List<CompletableFuture<PartResult>> predecessors) {
+			PartOutput output = new PartOutput();
+
+			boolean predecessorFailed = predecessors.stream().anyMatch(f -> f.join().failure != null);
+			if (predecessorFailed) {
+				output.submit(() -> println("Skipping " + handler.dir.getName() + " as a part it must run after has failed."));
+				return new PartResult(output, null);
+			}
+
+			RuntimeException failure = null;
+			handler.output = output;
+			try {
+				handler.handle();
+			} catch (RuntimeException e) {
+				failure = e;
+			} finally {
+				handler.output = null;
+			}
+
+			return new PartResult(output, failure);
+		}
+	}
+
+	/** Collects the console output of a handler executed in parallel, to be printed later, on the thread running the composite processor. */
+	private static class PartOutput implements ProjectionConsoleSink {
+		private final List<Runnable> renderings = Collections.synchronizedList(newList());
+
+		@Override
+		public void submit(Runnable rendering) {
+			renderings.add(rendering);
+		}
+
+		public void print() {
+			synchronized (renderings) {
+				renderings.forEach(Runnable::run);
+			}
+		}
+	}
+
+	private static class PartResult {
+		final PartOutput output;
+		final RuntimeException failure;
+
+		PartResult(PartOutput output, RuntimeException failure) {
+			this.output = output;
+			this.failure = failure;
+		}
 	}
 
 	protected InputStream loadResourceRelativeToThisClass(String name) {
@@ -115,21 +311,62 @@ public abstract class CompositeProcessor {
 		public final File dir;
 		public final T request;
 
+		private final List<PartHandler<?>> predecessors = newList();
+
+		/* Set while this handler is executed in parallel with others */
+		private volatile PartOutput output;
+
 		public PartHandler(String fileName, EntityType<T> requestType) {
 			this.dir = new File(groupFolder, fileName);
 			this.request = newRequest(requestType);
 		}
 
 		public void handle() {
-			println(sequence(text("Creating: "), yellow(dir.getName())));
-			println();
+			prepare();
+			evaluate(request);
+		}
+
+		/**
+		 * Evaluates given request. With {@link CompositeProcessor#enableParallelExecution(int) parallel execution} the console output of the
+		 * projection is collected and printed with the rest of the output of this handler, so an override of {@link #handle()} should evaluate
+		 * its requests with this method.
+		 */
+		protected void evaluate(ServiceRequest request) {
+			EvalContext<?> evalContext = request.eval(context.getEvaluator());
+			PartOutput partOutput = output;
+			if (partOutput != null)
+				evalContext = evalContext.with(ProjectionConsoleSinkAspect.class, partOutput);
+
+			evalContext.get();
+		}
+
+		/** Prints given output, with {@link CompositeProcessor#enableParallelExecution(int) parallel execution} as part of the output of this handler. */
+		protected void print(ConsoleOutput consoleOutput) {
+			PartOutput partOutput = output;
+			if (partOutput != null)
+				partOutput.submit(() -> println(consoleOutput));
+			else
+				println(consoleOutput);
+		}
+
+		/** Configures the request, without evaluating it. */
+		protected void prepare() {
+			print(sequence(text("Creating: "), yellow(dir.getName()), text("\n")));
 
 			configureRequest();
-			request.eval(context.getEvaluator()).get();
 		}
 
 		protected abstract void configureRequest();
 
+		/**
+		 * Declares that this handler must only be executed after given handlers are done, e.g. a module after the models it depends on. Only relevant
+		 * with {@link CompositeProcessor#enableParallelExecution(int) parallel execution}, otherwise handlers run in the order they were registered.
+		 */
+		public PartHandler<T> runAfter(PartHandler<?>... handlers) {
+			predecessors.addAll(Arrays.asList(handlers));
+			return this;
+		}
+
 		protected T newRequest(EntityType<T> entityType) {
 			T request = entityType.create();
 			request.setArtifactId(dir.getName());
@@ -15,6 +15,9 @@
 // ============================================================================
 package com.braintribe.devrock.templates.config.model;
 
+import java.util.List;
+import java.util.Set;
+
 import com.braintribe.model.generic.GenericEntity;
 import com.braintribe.model.generic.reflection.EntityType;
 import com.braintribe.model.generic.reflection.EntityTypes;
@@ -23,7 +26,90 @@ public interface ArtifactTemplatesConfiguration extends GenericEntity {
 	EntityType<ArtifactTemplatesConfiguration> T = EntityTypes.T(ArtifactTemplatesConfiguration.class);
 
 	String repositoryConfigurationLocation = "repositoryConfigurationLocation";
+	String projectionCacheMaxBytes = "projectionCacheMaxBytes";
+	String uncachedTemplates = "uncachedTemplates";
+	String templateSourceFolders = "templateSourceFolders";
+	String templateLockfile = "templateLockfile";
+	String templateCacheFolder = "templateCacheFolder";
+	String maxConcurrentRequests = "maxConcurrentRequests";
+	String requestQueueTimeoutMillis = "requestQueueTimeoutMillis";
+	String requestTimeoutMillis = "requestTimeoutMillis";
+	String maxProjectedFiles = "maxProjectedFiles";
+	String maxProjectedBytes = "maxProjectedBytes";
+	String maxTemplateDepth = "maxTemplateDepth";
+	String pipelineCapacity = "pipelineCapacity";
+	String resolverContextMaxAgeMillis = "resolverContextMaxAgeMillis";
 	
 	String getRepositoryConfigurationLocation();
 	void setRepositoryConfigurationLocation(String repositoryConfigurationLocation);
+
+	/**
+	 * Maximum total size of the cached projections, e.g. 64 MB. If null or zero, nothing is cached. Sub-trees larger than this are never captured
+	 * for caching.
+	 */
+	Long getProjectionCacheMaxBytes();
+	void setProjectionCacheMaxBytes(Long projectionCacheMaxBytes);
+
+	/** Templates (as "groupId:artifactId") whose projections are never cached. */
+	Set<String> getUncachedTemplates();
+	void setUncachedTemplates(Set<String> uncachedTemplates);
+
+	/**
+	 * Folders with template sources (one folder per template, named by its artifactId), which take precedence over the template artifacts. Changes
+	 * of these sources are picked up without building the template. Relative folders are resolved against the dev environment root.
+	 */
+	List<String> getTemplateSourceFolders();
+	void setTemplateSourceFolders(List<String> templateSourceFolders);
+
+	/**
+	 * Name of the lockfile in the root of the dev environment, which pins the templates to the versions they were first resolved to. If null, no
+	 * lockfile is used.
+	 */
+	String getTemplateLockfile();
+	void setTemplateLockfile(String templateLockfile);
+
+	/**
+	 * Folder in which the template archives are kept extracted (by artifact and archive hash), so each template is only extracted once, also
+	 * across restarts. If null, templates are extracted into temp folders for each projection.
+	 */
+	String getTemplateCacheFolder();
+	void setTemplateCacheFolder(String templateCacheFolder);
+
+	/** Maximum number of requests processed at the same time, further requests are queued. If null or not positive, there is no limit. */
+	Integer getMaxConcurrentRequests();
+	void setMaxConcurrentRequests(Integer maxConcurrentRequests);
+
+	/** How long a queued request waits for processing before it fails. If null, a default is used. */
+	Long getRequestQueueTimeoutMillis();
+	void setRequestQueueTimeoutMillis(Long requestQueueTimeoutMillis);
+
+	/** Maximum time in which a request must be projected, otherwise it is aborted. If null or not positive, there is no limit. */
+	Long getRequestTimeoutMillis();
+	void setRequestTimeoutMillis(Long requestTimeoutMillis);
+
+	/** Maximum number of files projected by a single request, otherwise it is aborted. If null or not positive, there is no limit. */
+	Integer getMaxProjectedFiles();
+	void setMaxProjectedFiles(Integer maxProjectedFiles);
+
+	/** Maximum number of bytes projected by a single request, otherwise it is aborted. If null or not positive, there is no limit. */
+	Long getMaxProjectedBytes();
+	void setMaxProjectedBytes(Long maxProjectedBytes);
+
+	/** Maximum nesting depth of template dependencies. If null, a default is used, if not positive, there is no limit. */
+	Integer getMaxTemplateDepth();
+	void setMaxTemplateDepth(Integer maxTemplateDepth);
+
+	/**
+	 * Capacity of the queues of the projection pipeline, which resolves and extracts template dependencies ahead and writes the projection behind
+	 * the rendering. If null, a default is used, if not positive, the pipeline is disabled.
+	 */
+	Integer getPipelineCapacity();
+	void setPipelineCapacity(Integer pipelineCapacity);
+
+	/**
+	 * How long the located and parsed repository configuration of a dev environment (with the resolvers based on it) is reused, unless the
+	 * configuration file changes earlier. If null, a default is used, if not positive, it is not reused.
+	 */
+	Long getResolverContextMaxAgeMillis();
+	void setResolverContextMaxAgeMillis(Long resolverContextMaxAgeMillis);
 }